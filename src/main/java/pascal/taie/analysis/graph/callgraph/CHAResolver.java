@@ -0,0 +1,85 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves callees of call sites via class hierarchy analysis.
+ * This class is thread-safe, thus it can be shared by the threads
+ * which traverse the call graph in parallel.
+ */
+public class CHAResolver {
+
+    private static final Logger logger = LogManager.getLogger(CHAResolver.class);
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Cache resolve results for interface/virtual invocations.
+     */
+    private final Map<MethodRef, Set<JMethod>> resolveTable =
+            Maps.newConcurrentMap();
+
+    public CHAResolver(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Resolves callees of a call site via class hierarchy analysis.
+     */
+    public Set<JMethod> resolveCalleesOf(Invoke callSite) {
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        return switch (kind) {
+            case INTERFACE, VIRTUAL -> resolveTable.computeIfAbsent(
+                    callSite.getMethodRef(), methodRef ->
+                            hierarchy.getAllSubclassesOf(methodRef.getDeclaringClass())
+                                    .stream()
+                                    .filter(Predicate.not(JClass::isAbstract))
+                                    .map(c -> hierarchy.dispatch(c, methodRef))
+                                    .filter(Objects::nonNull) // filter out null callees
+                                    .collect(Collectors.toUnmodifiableSet()));
+            case SPECIAL, STATIC -> Set.of(callSite.getMethodRef().resolve());
+            case DYNAMIC -> {
+                logger.debug("CHA cannot resolve invokedynamic " + callSite);
+                yield Set.of();
+            }
+            default -> throw new AnalysisException(
+                    "Failed to resolve call site: " + callSite);
+        };
+    }
+}
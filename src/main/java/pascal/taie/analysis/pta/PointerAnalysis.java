@@ -25,12 +25,15 @@ package pascal.taie.analysis.pta;
 import org.apache.logging.log4j.Level;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.solver.DefaultSolver;
+import pascal.taie.analysis.pta.core.solver.ParallelSolver;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.AnalysisTimer;
 import pascal.taie.analysis.pta.plugin.ClassInitializer;
@@ -76,21 +79,25 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         ContextSelector selector = null;
         String advanced = options.getString("advanced");
         String cs = options.getString("cs");
+        String contextFactory = options.getString("context-factory");
         if (advanced != null) {
             if (advanced.equals("collection")) {
                 selector = ContextSelectorFactory.makeSelectiveSelector(cs,
-                        new CollectionMethods(World.get().getClassHierarchy()).get());
+                        new CollectionMethods(World.get().getClassHierarchy()).get(),
+                        contextFactory);
             } else {
                 // run context-insensitive analysis as pre-analysis
                 PointerAnalysisResult preResult = runAnalysis(heapModel,
-                        ContextSelectorFactory.makeCISelector());
+                        ContextSelectorFactory.makeCISelector(contextFactory));
                 if (advanced.startsWith("scaler")) {
                     selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeGuidedSelector(Scaler.run(preResult, advanced)),
+                                    .makeGuidedSelector(Scaler.run(preResult, advanced),
+                                            contextFactory),
                             "Scaler", Level.INFO);
                 } else if (advanced.startsWith("zipper")) {
                     selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeSelectiveSelector(cs, Zipper.run(preResult, advanced)),
+                                    .makeSelectiveSelector(cs, Zipper.run(preResult, advanced),
+                                            contextFactory),
                             "Zipper", Level.INFO);
                 } else if (advanced.equals("mahjong")) {
                     heapModel = Timer.runAndCount(() -> Mahjong.run(preResult, options),
@@ -102,7 +109,7 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
             }
         }
         if (selector == null) {
-            selector = ContextSelectorFactory.makePlainSelector(cs);
+            selector = ContextSelectorFactory.makePlainSelector(cs, contextFactory);
         }
         return runAnalysis(heapModel, selector);
     }
@@ -110,8 +117,8 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
     private PointerAnalysisResult runAnalysis(HeapModel heapModel,
                                               ContextSelector selector) {
         AnalysisOptions options = getOptions();
-        Solver solver = new DefaultSolver(options,
-                heapModel, selector, new MapBasedCSManager());
+        Solver solver = makeSolver(options,
+                heapModel, selector, makeCSManager(options));
         // The initialization of some Plugins may read the fields in solver,
         // e.g., contextSelector or csManager, thus we initialize Plugins
         // after setting all other fields of solver.
@@ -120,6 +127,38 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         return solver.getResult();
     }
 
+    private static CSManager makeCSManager(AnalysisOptions options) {
+        String csManager = options.getString("cs-manager");
+        return switch (csManager) {
+            case "map" -> new MapBasedCSManager();
+            case "array" -> new ArrayBasedCSManager();
+            default -> throw new ConfigException(
+                    "Unknown context-sensitive element manager: " + csManager);
+        };
+    }
+
+    private static Solver makeSolver(AnalysisOptions options, HeapModel heapModel,
+                                     ContextSelector selector, CSManager csManager) {
+        String solver = options.getString("solver");
+        return switch (solver) {
+            case "default" -> new DefaultSolver(options,
+                    heapModel, selector, csManager);
+            case "parallel" -> {
+                // BDD-based points-to sets share one node table, on which
+                // all accesses are synchronized, thus they would serialize
+                // the worker threads
+                if (options.getString("pts-bit-set").equals("bdd")) {
+                    throw new ConfigException("Parallel solver does not" +
+                            " support pts-bit-set: bdd");
+                }
+                yield new ParallelSolver(options,
+                        heapModel, selector, csManager);
+            }
+            default -> throw new ConfigException(
+                    "Unknown pointer analysis solver: " + solver);
+        };
+    }
+
     private static void setPlugin(Solver solver, AnalysisOptions options) {
         CompositePlugin plugin = new CompositePlugin();
         // add builtin plugins
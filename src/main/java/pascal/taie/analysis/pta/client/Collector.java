@@ -37,6 +37,7 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Collects statements in program that the client wants.
@@ -52,7 +53,15 @@ abstract class Collector extends ProgramAnalysis<StmtResult<Boolean>> {
     @Override
     public StmtResult<Boolean> analyze() {
         PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
-        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        return collect(result.getCallGraph(), stmt -> isWanted(stmt, result));
+    }
+
+    /**
+     * Collects the wanted statements in the reachable methods
+     * of given call graph.
+     */
+    StmtResult<Boolean> collect(CallGraph<Invoke, JMethod> callGraph,
+                                Predicate<Stmt> isWanted) {
         Set<Stmt> wantedStmts = Sets.newSet();
         int nRelevantStmts = 0;
         int nWantedAppStmts = 0, nRelevantAppStmts = 0;
@@ -65,7 +74,7 @@ abstract class Collector extends ProgramAnalysis<StmtResult<Boolean>> {
                     if (isApp) {
                         ++nRelevantAppStmts;
                     }
-                    if (isWanted(stmt, result)) {
+                    if (isWanted.test(stmt)) {
                         wantedStmts.add(stmt);
                         if (isApp) {
                             ++nWantedAppStmts;
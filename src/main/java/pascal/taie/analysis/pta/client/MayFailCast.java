@@ -23,14 +23,28 @@
 package pascal.taie.analysis.pta.client;
 
 import pascal.taie.World;
+import pascal.taie.analysis.StmtResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.demand.DemandPointerAnalysis;
+import pascal.taie.analysis.pta.demand.PointsToQueryEngine;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 
+import java.util.Collection;
+
+/**
+ * Identifies the casts that may fail. The points-to sets of the cast
+ * variables are given by whole-program pointer analysis, or queried
+ * on demand if option demand is set.
+ */
 public class MayFailCast extends Collector {
 
     public static final String ID = "may-fail-cast";
@@ -39,6 +53,18 @@ public class MayFailCast extends Collector {
         super(config);
     }
 
+    @Override
+    public StmtResult<Boolean> analyze() {
+        if (getOptions().getBoolean("demand")) {
+            PointsToQueryEngine engine = World.get().getResult(DemandPointerAnalysis.ID);
+            CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+            return collect(callGraph, stmt -> mayFail((Cast) stmt,
+                    engine.getPointsToSet(((Cast) stmt).getRValue().getValue())));
+        } else {
+            return super.analyze();
+        }
+    }
+
     @Override
     boolean isRelevant(Stmt stmt) {
         return stmt instanceof Cast;
@@ -47,9 +73,17 @@ public class MayFailCast extends Collector {
     @Override
     boolean isWanted(Stmt stmt, PointerAnalysisResult result) {
         Cast cast = (Cast) stmt;
-        Type castType = cast.getRValue().getCastType();
         Var from = cast.getRValue().getValue();
-        for (Obj obj : result.getPointsToSet(from)) {
+        return mayFail(cast, result.getPointsToSet(from));
+    }
+
+    /**
+     * @return {@code true} if given cast may fail on any object
+     * pointed to by the cast variable.
+     */
+    private static boolean mayFail(Cast cast, Collection<Obj> pointsToSet) {
+        Type castType = cast.getRValue().getCastType();
+        for (Obj obj : pointsToSet) {
             if (!World.get().getTypeSystem().isSubtype(
                     castType, obj.getType())) {
                 return true;
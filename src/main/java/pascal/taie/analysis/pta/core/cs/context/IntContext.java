@@ -0,0 +1,298 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An implementation of {@link Context}, which represents each context
+ * by a dense integer ID in the context table of its {@link Factory}.
+ * <p>
+ * For each context, the table records the ID of its parent (i.e., the
+ * context without its last element), the ID of its last element and
+ * its length, in primitive arrays. The children of contexts are looked up
+ * in a primitive hash table keyed on (parent ID, element ID), so that
+ * appending an element needs no map of children on each context.
+ * The ID of each context without its first element is also memoized,
+ * thus truncating a context to its last k elements takes constant
+ * time per dropped element.
+ * <p>
+ * The contexts are canonicalized, i.e., each context has exactly one
+ * object, thus they can be compared by identity, and their IDs can be
+ * used as the keys of primitive-keyed data structures.
+ * <p>
+ * Like {@link TrieContext}, the contexts created by different factories
+ * are different, and the factories are not thread-safe.
+ */
+public final class IntContext implements Context {
+
+    private final Table table;
+
+    private final int id;
+
+    private IntContext(Table table, int id) {
+        this.table = table;
+        this.id = id;
+    }
+
+    /**
+     * @return the ID of this context. The IDs of contexts are dense,
+     * and the empty context has ID 0.
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int getLength() {
+        return table.lengths[id];
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        assert 0 <= i && i < getLength();
+        int c = id;
+        for (int j = getLength() - 1; j > i; --j) {
+            c = table.parents[c];
+        }
+        return table.getElement(c);
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        int length = getLength();
+        Object[] elems = new Object[length];
+        int c = id;
+        for (int i = length - 1; i >= 0; --i) {
+            elems[i] = table.getElement(c);
+            c = table.parents[c];
+        }
+        return Arrays.toString(elems);
+    }
+
+    public static class Factory<T> implements ContextFactory<T> {
+
+        /**
+         * Table of the contexts created by this factory.
+         */
+        private final Table table = new Table();
+
+        /**
+         * @return number of contexts created by this factory so far.
+         */
+        public int getContextCount() {
+            return table.size;
+        }
+
+        @Override
+        public IntContext getEmptyContext() {
+            return table.contexts[Table.EMPTY];
+        }
+
+        @Override
+        public IntContext make(T elem) {
+            return table.getChild(Table.EMPTY, elem);
+        }
+
+        @Override
+        public IntContext make(T... elems) {
+            int c = Table.EMPTY;
+            for (T elem : elems) {
+                c = table.getChild(c, elem).id;
+            }
+            return table.contexts[c];
+        }
+
+        @Override
+        public IntContext makeLastK(Context context, int k) {
+            return table.contexts[lastK(((IntContext) context).id, k)];
+        }
+
+        @Override
+        public IntContext append(Context parent, T elem, int limit) {
+            int p = ((IntContext) parent).id;
+            if (table.lengths[p] >= limit) {
+                p = lastK(p, limit - 1);
+            }
+            return table.getChild(p, elem);
+        }
+
+        private int lastK(int c, int k) {
+            if (k <= 0) {
+                return Table.EMPTY;
+            }
+            while (table.lengths[c] > k) {
+                c = table.dropFirst(c);
+            }
+            return c;
+        }
+    }
+
+    /**
+     * Table of contexts.
+     */
+    private static class Table {
+
+        private static final int EMPTY = 0;
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        /**
+         * Marks the empty slots in {@link #keys}.
+         */
+        private static final long NO_KEY = -1L;
+
+        private final Map<Object, Integer> elemIds = Maps.newMap();
+
+        private final List<Object> elems = new ArrayList<>();
+
+        private int size;
+
+        private IntContext[] contexts;
+
+        private int[] parents;
+
+        private int[] lastElems;
+
+        private int[] lengths;
+
+        /**
+         * IDs of the contexts without their first elements,
+         * -1 means not computed yet.
+         */
+        private int[] dropFirsts;
+
+        /**
+         * Hash table from (parent ID, element ID) to child ID.
+         */
+        private long[] keys;
+
+        private int[] children;
+
+        private Table() {
+            contexts = new IntContext[INITIAL_CAPACITY];
+            parents = new int[INITIAL_CAPACITY];
+            lastElems = new int[INITIAL_CAPACITY];
+            lengths = new int[INITIAL_CAPACITY];
+            dropFirsts = new int[INITIAL_CAPACITY];
+            keys = new long[INITIAL_CAPACITY * 2];
+            Arrays.fill(keys, NO_KEY);
+            children = new int[INITIAL_CAPACITY * 2];
+            // the empty context
+            add(-1, -1, 0);
+        }
+
+        private Object getElement(int c) {
+            return elems.get(lastElems[c]);
+        }
+
+        private IntContext getChild(int parent, Object elem) {
+            Integer e = elemIds.get(elem);
+            if (e == null) {
+                e = elems.size();
+                elemIds.put(elem, e);
+                elems.add(elem);
+            }
+            long key = ((long) parent << 32) | e;
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; keys[i] != NO_KEY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return contexts[children[i]];
+                }
+            }
+            int child = add(parent, e, lengths[parent] + 1);
+            keys[i] = key;
+            children[i] = child;
+            if (size * 2 > keys.length) {
+                rehash();
+            }
+            return contexts[child];
+        }
+
+        private int dropFirst(int c) {
+            int result = dropFirsts[c];
+            if (result < 0) {
+                if (lengths[c] == 1) {
+                    result = EMPTY;
+                } else {
+                    result = getChild(dropFirst(parents[c]), getElement(c)).id;
+                }
+                dropFirsts[c] = result;
+            }
+            return result;
+        }
+
+        private int add(int parent, int elem, int length) {
+            int id = size++;
+            if (id >= contexts.length) {
+                int newLength = contexts.length * 2;
+                contexts = Arrays.copyOf(contexts, newLength);
+                parents = Arrays.copyOf(parents, newLength);
+                lastElems = Arrays.copyOf(lastElems, newLength);
+                lengths = Arrays.copyOf(lengths, newLength);
+                dropFirsts = Arrays.copyOf(dropFirsts, newLength);
+            }
+            contexts[id] = new IntContext(this, id);
+            parents[id] = parent;
+            lastElems[id] = elem;
+            lengths[id] = length;
+            dropFirsts[id] = -1;
+            return id;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldChildren = children;
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, NO_KEY);
+            children = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; ++j) {
+                if (oldKeys[j] != NO_KEY) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (keys[i] != NO_KEY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    children[i] = oldChildren[j];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
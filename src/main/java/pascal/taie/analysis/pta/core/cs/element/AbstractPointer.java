@@ -80,6 +80,14 @@ abstract class AbstractPointer implements Pointer {
         return false;
     }
 
+    @Override
+    public boolean removeOutEdge(PointerFlowEdge edge) {
+        if (outEdges.remove(edge)) {
+            return successors.remove(edge.getTarget());
+        }
+        return false;
+    }
+
     @Override
     public Set<PointerFlowEdge> getOutEdges() {
         return Collections.unmodifiableSet(new ArraySet<>(outEdges, true));
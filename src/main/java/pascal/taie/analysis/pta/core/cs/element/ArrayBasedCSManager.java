@@ -0,0 +1,371 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages data by maintaining the data and their context-sensitive
+ * counterparts by arrays.
+ * <p>
+ * Compared with {@link MapBasedCSManager}, this manager avoids
+ * the two-level map lookups on the hot paths of pointer analysis.
+ * The CSVars and CSCallSites of each method are stored in the arrays
+ * indexed by {@link Var#getIndex()} and {@link Invoke#getIndex()},
+ * the instance fields and array indexes are stored in the arrays
+ * indexed by {@link CSObj#getIndex()}, and the elements of the same
+ * variable/call site/object are stored in compact {@link ElementTable}s.
+ * The variables and call sites which are not indexed in their methods
+ * (e.g., the temporary ones created by plugins) are maintained by maps.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final CSObjManager objManager = new CSObjManager();
+
+    /**
+     * Counter for assigning unique indexes to Pointers.
+     */
+    private int pointerCounter = 0;
+
+    private final Map<JMethod, ElementTable<Context, CSVar>[]> varTables = Maps.newMap();
+
+    private final TwoKeyMap<Var, Context, CSVar> otherVars = Maps.newTwoKeyMap();
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final List<CSVar> csVars = new ArrayList<>();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * Instance fields indexed by the indexes of their base objects.
+     */
+    private ElementTable<JField, InstanceField>[] instanceFieldTables
+            = newTables(1024);
+
+    private final List<InstanceField> instanceFields = new ArrayList<>();
+
+    /**
+     * Array indexes indexed by the indexes of their array objects.
+     */
+    private ArrayIndex[] arrayIndexTable = new ArrayIndex[1024];
+
+    private final List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+    private final Map<JMethod, ElementTable<Context, CSCallSite>[]> callSiteTables = Maps.newMap();
+
+    private final TwoKeyMap<Invoke, Context, CSCallSite> otherCallSites = Maps.newTwoKeyMap();
+
+    private final CSMethodManager mtdManager = new CSMethodManager();
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        ElementTable<Context, CSVar> table = getTable(
+                varTables, var.getMethod(), var.getIndex(), var);
+        if (table != null) {
+            if (table.getElements().isEmpty()) {
+                vars.add(var);
+            }
+            return table.computeIfAbsent(context, c -> newCSVar(var, c));
+        } else {
+            if (!otherVars.containsKey(var)) {
+                vars.add(var);
+            }
+            return otherVars.computeIfAbsent(var, context, this::newCSVar);
+        }
+    }
+
+    private CSVar newCSVar(Var var, Context context) {
+        CSVar csVar = new CSVar(var, context, pointerCounter++);
+        csVars.add(csVar);
+        return csVar;
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> new StaticField(f, pointerCounter++));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        int index = base.getIndex();
+        if (index >= instanceFieldTables.length) {
+            ElementTable<JField, InstanceField>[] oldTables = instanceFieldTables;
+            instanceFieldTables = newTables(newLength(oldTables.length, index));
+            System.arraycopy(oldTables, 0, instanceFieldTables, 0, oldTables.length);
+        }
+        ElementTable<JField, InstanceField> table = instanceFieldTables[index];
+        if (table == null) {
+            table = new ElementTable<>(base);
+            instanceFieldTables[index] = table;
+        }
+        return table.computeIfAbsent(field, f -> {
+            InstanceField instanceField = new InstanceField(base, f, pointerCounter++);
+            instanceFields.add(instanceField);
+            return instanceField;
+        });
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int index = array.getIndex();
+        if (index >= arrayIndexTable.length) {
+            ArrayIndex[] oldTable = arrayIndexTable;
+            arrayIndexTable = new ArrayIndex[newLength(oldTable.length, index)];
+            System.arraycopy(oldTable, 0, arrayIndexTable, 0, oldTable.length);
+        }
+        ArrayIndex arrayIndex = arrayIndexTable[index];
+        if (arrayIndex == null) {
+            arrayIndex = new ArrayIndex(array, pointerCounter++);
+            arrayIndexTable[index] = arrayIndex;
+            arrayIndexes.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    @Nullable
+    @Override
+    public CSVar findCSVar(Context context, Var var) {
+        ElementTable<Context, CSVar> table = findTable(
+                varTables, var.getMethod(), var.getIndex(), var);
+        return table != null ? table.get(context) : otherVars.get(var, context);
+    }
+
+    @Nullable
+    @Override
+    public InstanceField findInstanceField(CSObj base, JField field) {
+        int index = base.getIndex();
+        ElementTable<JField, InstanceField> table =
+                index < instanceFieldTables.length ? instanceFieldTables[index] : null;
+        return table != null ? table.get(field) : null;
+    }
+
+    @Nullable
+    @Override
+    public ArrayIndex findArrayIndex(CSObj array) {
+        int index = array.getIndex();
+        return index < arrayIndexTable.length ? arrayIndexTable[index] : null;
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableList(vars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        ElementTable<Context, CSVar>[] tables = varTables.get(var.getMethod());
+        int index = var.getIndex();
+        if (tables != null && 0 <= index && index < tables.length) {
+            ElementTable<Context, CSVar> table = tables[index];
+            if (table != null && table.getOwner() == var) {
+                return table.getElements();
+            }
+        }
+        var otherCSVars = otherVars.get(var);
+        return otherCSVars != null ? otherCSVars.values() : Set.of();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFields);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexes);
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objManager.getCSObj(heapContext, obj);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objManager.getObjects();
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objManager;
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        ElementTable<Context, CSCallSite> table = getTable(callSiteTables,
+                callSite.getContainer(), callSite.getIndex(), callSite);
+        if (table != null) {
+            return table.computeIfAbsent(context, c -> new CSCallSite(callSite, c));
+        } else {
+            return otherCallSites.computeIfAbsent(callSite, context, CSCallSite::new);
+        }
+    }
+
+    @Nullable
+    @Override
+    public CSCallSite findCSCallSite(Context context, Invoke callSite) {
+        ElementTable<Context, CSCallSite> table = findTable(callSiteTables,
+                callSite.getContainer(), callSite.getIndex(), callSite);
+        return table != null ? table.get(context) : otherCallSites.get(callSite, context);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return mtdManager.getCSMethod(context, method);
+    }
+
+    @Override
+    public Collection<CSMethod> getCSMethods() {
+        return mtdManager.getCSMethods();
+    }
+
+    @Override
+    public Indexer<CSMethod> getMethodIndexer() {
+        return mtdManager;
+    }
+
+    /**
+     * @return the table of the owner (a variable or a call site) which
+     * is the {@code index}-th one in {@code method}, or {@code null}
+     * if the owner cannot be indexed, i.e., its index is negative or
+     * the slot has been occupied by another owner with the same index.
+     */
+    @Nullable
+    private static <E> ElementTable<Context, E> getTable(
+            Map<JMethod, ElementTable<Context, E>[]> methodTables,
+            JMethod method, int index, Object owner) {
+        if (index < 0) {
+            return null;
+        }
+        ElementTable<Context, E>[] tables = methodTables.get(method);
+        if (tables == null || index >= tables.length) {
+            ElementTable<Context, E>[] oldTables = tables;
+            tables = newTables(newLength(
+                    oldTables != null ? oldTables.length : 0, index));
+            if (oldTables != null) {
+                System.arraycopy(oldTables, 0, tables, 0, oldTables.length);
+            }
+            methodTables.put(method, tables);
+        }
+        ElementTable<Context, E> table = tables[index];
+        if (table == null) {
+            table = new ElementTable<>(owner);
+            tables[index] = table;
+        }
+        return table.getOwner() == owner ? table : null;
+    }
+
+    /**
+     * Lookup-only counterpart of {@link #getTable}, which never
+     * creates tables.
+     */
+    @Nullable
+    private static <E> ElementTable<Context, E> findTable(
+            Map<JMethod, ElementTable<Context, E>[]> methodTables,
+            JMethod method, int index, Object owner) {
+        ElementTable<Context, E>[] tables = methodTables.get(method);
+        if (tables == null || index < 0 || index >= tables.length) {
+            return null;
+        }
+        ElementTable<Context, E> table = tables[index];
+        return table != null && table.getOwner() == owner ? table : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, E> ElementTable<K, E>[] newTables(int length) {
+        return (ElementTable<K, E>[]) new ElementTable[length];
+    }
+
+    /**
+     * @return new length of an array which needs to hold given index.
+     */
+    private static int newLength(int oldLength, int index) {
+        return Math.max(index + 1,
+                Math.max(INITIAL_CAPACITY, (int) (oldLength * 1.5)));
+    }
+
+    private static class CSMethodManager implements Indexer<CSMethod> {
+
+        private final Map<JMethod, ElementTable<Context, CSMethod>> methodTables
+                = Maps.newMap(65536);
+
+        private final List<CSMethod> methods = new ArrayList<>(65536);
+
+        private CSMethod getCSMethod(Context context, JMethod method) {
+            ElementTable<Context, CSMethod> table = methodTables.get(method);
+            if (table == null) {
+                table = new ElementTable<>(method);
+                methodTables.put(method, table);
+            }
+            return table.computeIfAbsent(context, c -> {
+                CSMethod csMethod = new CSMethod(method, c, methods.size());
+                methods.add(csMethod);
+                return csMethod;
+            });
+        }
+
+        private Collection<CSMethod> getCSMethods() {
+            return Collections.unmodifiableList(methods);
+        }
+
+        @Override
+        public int getIndex(CSMethod m) {
+            return m.getIndex();
+        }
+
+        @Override
+        public CSMethod getObject(int index) {
+            return methods.get(index);
+        }
+    }
+}
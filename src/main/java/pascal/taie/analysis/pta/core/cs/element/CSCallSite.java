@@ -64,7 +64,9 @@ public class CSCallSite extends AbstractCSElement {
     }
 
     public void setContainer(CSMethod container) {
-        assert this.container == null; // should be set only once
+        // should be set only once, except that the container
+        // is added to call graph again after being removed
+        assert this.container == null || this.container == container;
         this.container = container;
     }
 
@@ -79,6 +81,13 @@ public class CSCallSite extends AbstractCSElement {
         return false;
     }
 
+    public boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (edges.remove(edge)) {
+            return callees.remove(edge.getCallee());
+        }
+        return false;
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(new ArraySet<>(edges, true));
     }
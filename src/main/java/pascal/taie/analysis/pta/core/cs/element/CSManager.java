@@ -30,6 +30,7 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Indexer;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 
 /**
@@ -73,6 +74,37 @@ public interface CSManager {
      */
     ArrayIndex getArrayIndex(CSObj array);
 
+    /**
+     * Unlike {@link #getCSVar(Context, Var)}, this method does not
+     * create the context-sensitive variable if it does not exist.
+     *
+     * @return the existing context-sensitive variable for given context
+     * and variable, or {@code null} if it has not been created.
+     */
+    @Nullable
+    CSVar findCSVar(Context context, Var var);
+
+    /**
+     * @return the existing context-sensitive call site for given context
+     * and call site, or {@code null} if it has not been created.
+     */
+    @Nullable
+    CSCallSite findCSCallSite(Context context, Invoke callSite);
+
+    /**
+     * @return the existing InstanceField pointer for given object
+     * and instance field, or {@code null} if it has not been created.
+     */
+    @Nullable
+    InstanceField findInstanceField(CSObj base, JField field);
+
+    /**
+     * @return the existing ArrayIndex pointer for given array object,
+     * or {@code null} if it has not been created.
+     */
+    @Nullable
+    ArrayIndex findArrayIndex(CSObj array);
+
     /**
      * @return all variables (without contexts).
      */
@@ -108,6 +140,11 @@ public interface CSManager {
      */
     Collection<ArrayIndex> getArrayIndexes();
 
+    /**
+     * @return all context-sensitive methods.
+     */
+    Collection<CSMethod> getCSMethods();
+
     /**
      * @return {@link Indexer} for {@link CSObj} maintained by this manager.
      * The indexer is useful for creating efficient points-to sets.
@@ -70,6 +70,10 @@ public class CSMethod extends AbstractCSElement implements Indexable {
         edges.add(edge);
     }
 
+    public void removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        edges.remove(edge);
+    }
+
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
         return Collections.unmodifiableSet(new ArraySet<>(edges, true));
     }
@@ -0,0 +1,133 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Open-addressing hash table which maps keys (e.g., contexts) to
+ * context-sensitive elements of the same owner (e.g., a variable).
+ * <p>
+ * Most owners have only a few elements, thus this table starts from
+ * a tiny capacity, and stores the positions of the elements in
+ * a primitive array, which is much more compact than a general map.
+ * The elements are kept in insertion order.
+ *
+ * @param <K> type of keys
+ * @param <E> type of elements
+ */
+class ElementTable<K, E> {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    /**
+     * The object which owns the elements in this table.
+     */
+    private final Object owner;
+
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+
+    /**
+     * Positions of the elements in {@link #elements}, and the slot of
+     * each key is the same as the one of its element's position.
+     */
+    private int[] positions = new int[INITIAL_CAPACITY];
+
+    private final List<E> elements = new ArrayList<>(1);
+
+    ElementTable(Object owner) {
+        this.owner = owner;
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    @Nullable
+    E get(K key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key || keys[i].equals(key)) {
+                return elements.get(positions[i]);
+            }
+        }
+        return null;
+    }
+
+    E computeIfAbsent(K key, Function<? super K, ? extends E> creator) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key || keys[i].equals(key)) {
+                return elements.get(positions[i]);
+            }
+        }
+        E element = creator.apply(key);
+        if ((elements.size() + 1) * 2 > keys.length) {
+            resize();
+            mask = keys.length - 1;
+            i = hash(key) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+        }
+        keys[i] = key;
+        positions[i] = elements.size();
+        elements.add(element);
+        return element;
+    }
+
+    /**
+     * @return all elements in this table.
+     */
+    List<E> getElements() {
+        return Collections.unmodifiableList(elements);
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new Object[oldKeys.length * 2];
+        positions = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; ++j) {
+            if (oldKeys[j] != null) {
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                positions[i] = oldPositions[j];
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -22,20 +22,17 @@
 
 package pascal.taie.analysis.pta.core.cs.element;
 
-import pascal.taie.World;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
-import pascal.taie.language.classes.ClassNames;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.language.type.Type;
-import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -77,6 +74,24 @@ public class MapBasedCSManager implements CSManager {
         return ptrManager.getArrayIndex(array);
     }
 
+    @Nullable
+    @Override
+    public CSVar findCSVar(Context context, Var var) {
+        return ptrManager.vars.get(var, context);
+    }
+
+    @Nullable
+    @Override
+    public InstanceField findInstanceField(CSObj base, JField field) {
+        return ptrManager.instanceFields.get(base, field);
+    }
+
+    @Nullable
+    @Override
+    public ArrayIndex findArrayIndex(CSObj array) {
+        return ptrManager.arrayIndexes.get(array);
+    }
+
     @Override
     public Collection<Var> getVars() {
         return ptrManager.getVars();
@@ -127,11 +142,22 @@ public class MapBasedCSManager implements CSManager {
         return callSites.computeIfAbsent(callSite, context, CSCallSite::new);
     }
 
+    @Nullable
+    @Override
+    public CSCallSite findCSCallSite(Context context, Invoke callSite) {
+        return callSites.get(callSite, context);
+    }
+
     @Override
     public CSMethod getCSMethod(Context context, JMethod method) {
         return mtdManager.getCSMethod(context, method);
     }
 
+    @Override
+    public Collection<CSMethod> getCSMethods() {
+        return mtdManager.getCSMethods();
+    }
+
     @Override
     public Indexer<CSMethod> getMethodIndexer() {
         return mtdManager;
@@ -198,98 +224,6 @@ public class MapBasedCSManager implements CSManager {
         }
     }
 
-    private static class CSObjManager implements Indexer<CSObj> {
-
-        private final TwoKeyMap<Obj, Context, CSObj> objMap = Maps.newTwoKeyMap();
-
-        private final TypeSystem typeSystem = World.get().getTypeSystem();
-
-        private final Type throwable = typeSystem.getClassType(ClassNames.THROWABLE);
-
-        private final Type string = typeSystem.getClassType(ClassNames.STRING);
-
-        /**
-         * Counter for assign unique indexes to throwable objects.
-         */
-        private int throwableCounter = 0;
-
-        /**
-         * Number of indexes reserved for throwable objects.
-         */
-        private static final int THROWABLE_BUDGET = 2048;
-
-        /**
-         * Counter for assign unique indexes to string objects.
-         */
-        private int stringCounter = THROWABLE_BUDGET;
-
-        /**
-         * Number of indexes reserved for string objects.
-         */
-        private static final int STRING_BUDGET = 4096;
-
-        /**
-         * Counter for assigning unique indexes to other CSObjs.
-         */
-        private int counter = THROWABLE_BUDGET + STRING_BUDGET;
-
-        /**
-         * Maps index to CSObj.
-         * Since there are empty slots, using array (instead of List)
-         * is more convenient.
-         */
-        private CSObj[] objs = new CSObj[65536];
-
-        CSObj getCSObj(Context heapContext, Obj obj) {
-            return objMap.computeIfAbsent(obj, heapContext, (o, c) -> {
-                int index = getCSObjIndex(o);
-                CSObj csObj = new CSObj(o, c, index);
-                storeCSObj(csObj, index);
-                return csObj;
-            });
-        }
-
-        private int getCSObjIndex(Obj obj) {
-            if (typeSystem.isSubtype(throwable, obj.getType()) &&
-                    throwableCounter < THROWABLE_BUDGET) {
-                return throwableCounter++;
-            } else if (obj.getType().equals(string) &&
-                    stringCounter < THROWABLE_BUDGET + STRING_BUDGET) {
-                return stringCounter++;
-            } else {
-                return counter++;
-            }
-        }
-
-        /**
-         * Stores {@code csObj} to the {@code objs} array with the position
-         * specified by {@code index}.
-         */
-        private void storeCSObj(CSObj csObj, int index) {
-            if (index >= objs.length) {
-                int newLength = Math.max(index + 1, (int) (objs.length * 1.5));
-                CSObj[] oldArray = objs;
-                objs = new CSObj[newLength];
-                System.arraycopy(oldArray, 0, objs, 0, oldArray.length);
-            }
-            objs[index] = csObj;
-        }
-
-        Collection<CSObj> getObjects() {
-            return objMap.values();
-        }
-
-        @Override
-        public int getIndex(CSObj o) {
-            return o.getIndex();
-        }
-
-        @Override
-        public CSObj getObject(int index) {
-            return objs[index];
-        }
-    }
-
     private static class CSMethodManager implements Indexer<CSMethod> {
 
         private final TwoKeyMap<JMethod, Context, CSMethod> methodMap = Maps.newTwoKeyMap();
@@ -309,6 +243,10 @@ public class MapBasedCSManager implements CSManager {
             });
         }
 
+        private Collection<CSMethod> getCSMethods() {
+            return Collections.unmodifiableList(methods);
+        }
+
         @Override
         public int getIndex(CSMethod m) {
             return m.getIndex();
@@ -80,6 +80,13 @@ public interface Pointer extends Indexable {
      */
     boolean addOutEdge(PointerFlowEdge edge);
 
+    /**
+     * @param edge an out edge of this pointer
+     * @return true if the out edge was removed from this pointer as a result
+     * of the call, otherwise false.
+     */
+    boolean removeOutEdge(PointerFlowEdge edge);
+
     /**
      * @return out edges of this pointer in pointer flow graph.
      */
@@ -24,20 +24,42 @@ package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.context.ContextFactory;
+import pascal.taie.analysis.pta.core.cs.context.IntContext;
 import pascal.taie.analysis.pta.core.cs.context.TrieContext;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.heap.NewObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.ConfigException;
 
 abstract class AbstractContextSelector<T> implements ContextSelector {
 
-    protected final ContextFactory<T> factory = new TrieContext.Factory<>();
+    protected final ContextFactory<T> factory;
+
+    /**
+     * @param contextFactory kind of the factory of the contexts, i.e.,
+     *                       "trie" for {@link TrieContext.Factory}, or
+     *                       "int" for {@link IntContext.Factory}.
+     */
+    AbstractContextSelector(String contextFactory) {
+        factory = switch (contextFactory) {
+            case "trie" -> new TrieContext.Factory<>();
+            case "int" -> new IntContext.Factory<>();
+            default -> throw new ConfigException(
+                    "Unknown context factory: " + contextFactory);
+        };
+    }
 
     @Override
     public Context getEmptyContext() {
         return factory.getEmptyContext();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public Context makeContext(Object... elems) {
+        return factory.make((T[]) elems);
+    }
+
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         // Uses different strategies to select heap contexts
@@ -36,6 +36,10 @@ import pascal.taie.language.classes.JMethod;
  */
 class ContextInsensitiveSelector extends AbstractContextSelector<Void> {
 
+    ContextInsensitiveSelector(String contextFactory) {
+        super(contextFactory);
+    }
+
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
         return getEmptyContext();
@@ -46,6 +50,11 @@ class ContextInsensitiveSelector extends AbstractContextSelector<Void> {
         return getEmptyContext();
     }
 
+    @Override
+    public boolean isReceiverSensitive() {
+        return false;
+    }
+
     @Override
     protected Context selectNewObjContext(CSMethod method, NewObj obj) {
         return getEmptyContext();
@@ -39,6 +39,17 @@ public interface ContextSelector {
      */
     Context getEmptyContext();
 
+    /**
+     * Makes the context that consists of given elements. This method is
+     * used to restore the contexts selected by this selector, e.g.,
+     * when resuming pointer analysis from a checkpoint.
+     *
+     * @param elems the context elements, ordered as
+     *              {@link Context#getElementAt(int)}.
+     * @return the context that consists of given elements.
+     */
+    Context makeContext(Object... elems);
+
     /**
      * Selects contexts for static methods.
      *
@@ -58,6 +69,18 @@ public interface ContextSelector {
      */
     Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee);
 
+    /**
+     * @return {@code true} if the contexts selected by
+     * {@link #selectContext(CSCallSite, CSObj, JMethod)} may depend on
+     * the receiver objects, e.g., for object sensitivity. If this method
+     * returns {@code false}, the selected context is determined by
+     * the call site and the callee, and the solver selects it once for
+     * all receiver objects of the same type.
+     */
+    default boolean isReceiverSensitive() {
+        return true;
+    }
+
     /**
      * Selects heap contexts for new-created abstract objects.
      *
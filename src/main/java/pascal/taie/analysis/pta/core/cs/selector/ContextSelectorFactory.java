@@ -38,11 +38,26 @@ import java.util.function.Predicate;
  */
 public class ContextSelectorFactory {
 
+    /**
+     * Kind of the context factory used by default, i.e., "trie".
+     * The other kind is "int", see option context-factory of
+     * pointer analysis for details.
+     */
+    public static final String DEFAULT_CONTEXT_FACTORY = "trie";
+
     /**
      * @return selector for context insensitivity.
      */
     public static ContextSelector makeCISelector() {
-        return new ContextInsensitiveSelector();
+        return makeCISelector(DEFAULT_CONTEXT_FACTORY);
+    }
+
+    /**
+     * @return selector for context insensitivity, which creates contexts
+     * by given kind of context factory.
+     */
+    public static ContextSelector makeCISelector(String contextFactory) {
+        return new ContextInsensitiveSelector(contextFactory);
     }
 
     /**
@@ -50,8 +65,18 @@ public class ContextSelectorFactory {
      * The returned selector applies the same variant for all methods.
      */
     public static ContextSelector makePlainSelector(String cs) {
+        return makePlainSelector(cs, DEFAULT_CONTEXT_FACTORY);
+    }
+
+    /**
+     * @return a context selector for given context sensitivity variant,
+     * which creates contexts by given kind of context factory.
+     * The returned selector applies the same variant for all methods.
+     */
+    public static ContextSelector makePlainSelector(
+            String cs, String contextFactory) {
         if (cs.equals("ci")) {
-            return new ContextInsensitiveSelector();
+            return new ContextInsensitiveSelector(contextFactory);
         } else {
             try {
                 // we expect that the argument of context-sensitivity variant
@@ -70,8 +95,9 @@ public class ContextSelectorFactory {
                 String selectorName = ContextSelectorFactory.class.getPackageName() +
                         ".K" + kind + "Selector";
                 Class<?> c = Class.forName(selectorName);
-                Constructor<?> ctor = c.getConstructor(int.class, int.class);
-                return (ContextSelector) ctor.newInstance(k, hk);
+                Constructor<?> ctor = c.getConstructor(
+                        int.class, int.class, String.class);
+                return (ContextSelector) ctor.newInstance(k, hk, contextFactory);
             } catch (RuntimeException e) {
                 throw new ConfigException("Unexpected context-sensitivity variants: " + cs, e);
             } catch (ClassNotFoundException | NoSuchMethodException |
@@ -89,7 +115,19 @@ public class ContextSelectorFactory {
      */
     public static ContextSelector makeSelectiveSelector(
             String cs, Set<JMethod> csMethods) {
-        return makeSelectiveSelector(cs, csMethods::contains, o -> true);
+        return makeSelectiveSelector(cs, csMethods, DEFAULT_CONTEXT_FACTORY);
+    }
+
+    /**
+     * @return a selective context selector which applies given context sensitivity
+     * variant (specified by cs) to set of methods (specified by csMethods),
+     * and cs to all objects. The selector creates contexts by given kind
+     * of context factory.
+     */
+    public static ContextSelector makeSelectiveSelector(
+            String cs, Set<JMethod> csMethods, String contextFactory) {
+        return makeSelectiveSelector(makePlainSelector(cs, contextFactory),
+                csMethods::contains, o -> true);
     }
 
     /**
@@ -99,7 +137,18 @@ public class ContextSelectorFactory {
      */
     public static ContextSelector makeSelectiveSelector(
             String cs, Predicate<JMethod> isCSMethod, Predicate<Obj> isCSObj) {
-        return new SelectiveSelector(makePlainSelector(cs), isCSMethod, isCSObj);
+        return makeSelectiveSelector(makePlainSelector(cs), isCSMethod, isCSObj);
+    }
+
+    /**
+     * @return a selective context selector which applies given selector
+     * to part of methods (specified by isCSMethod) and part of objects
+     * (specified by isCSObj).
+     */
+    public static ContextSelector makeSelectiveSelector(
+            ContextSelector selector,
+            Predicate<JMethod> isCSMethod, Predicate<Obj> isCSObj) {
+        return new SelectiveSelector(selector, isCSMethod, isCSObj);
     }
 
     /**
@@ -107,6 +156,16 @@ public class ContextSelectorFactory {
      * variants to the methods according to given map.
      */
     public static ContextSelector makeGuidedSelector(Map<JMethod, String> csMap) {
-        return new GuidedSelector(csMap);
+        return makeGuidedSelector(csMap, DEFAULT_CONTEXT_FACTORY);
+    }
+
+    /**
+     * @return a guided context selector which applies the context sensitivity
+     * variants to the methods according to given map, and creates contexts
+     * by given kind of context factory.
+     */
+    public static ContextSelector makeGuidedSelector(
+            Map<JMethod, String> csMap, String contextFactory) {
+        return new GuidedSelector(csMap, contextFactory);
     }
 }
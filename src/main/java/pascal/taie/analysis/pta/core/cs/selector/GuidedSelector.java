@@ -67,13 +67,15 @@ class GuidedSelector extends AbstractContextSelector<Object> {
      */
     private final int hLimit;
 
-    GuidedSelector(Map<JMethod, String> csMap, int hLimit) {
+    GuidedSelector(Map<JMethod, String> csMap, int hLimit,
+                   String contextFactory) {
+        super(contextFactory);
         this.csMap = csMap;
         this.hLimit = hLimit;
     }
 
-    GuidedSelector(Map<JMethod, String> csMap) {
-        this(csMap, DEFAULT_H_LIMIT);
+    GuidedSelector(Map<JMethod, String> csMap, String contextFactory) {
+        this(csMap, DEFAULT_H_LIMIT, contextFactory);
     }
 
     @Override
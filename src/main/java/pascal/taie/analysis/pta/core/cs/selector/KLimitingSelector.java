@@ -44,10 +44,12 @@ abstract class KLimitingSelector<T> extends AbstractContextSelector<T> {
     protected final int hLimit;
 
     /**
-     * @param k  k-limit for method contexts.
-     * @param hk k-limit for heap contexts.
+     * @param k              k-limit for method contexts.
+     * @param hk             k-limit for heap contexts.
+     * @param contextFactory kind of the factory of the contexts.
      */
-    KLimitingSelector(int k, int hk) {
+    KLimitingSelector(int k, int hk, String contextFactory) {
+        super(contextFactory);
         this.limit = k;
         this.hLimit = hk;
     }
@@ -30,8 +30,8 @@ import pascal.taie.language.classes.JMethod;
 
 class KObjSelector extends KLimitingSelector<Obj> {
 
-    public KObjSelector(int k, int hk) {
-        super(k, hk);
+    public KObjSelector(int k, int hk, String contextFactory) {
+        super(k, hk, contextFactory);
     }
 
     @Override
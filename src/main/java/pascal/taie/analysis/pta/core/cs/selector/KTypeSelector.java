@@ -30,8 +30,8 @@ import pascal.taie.language.type.Type;
 
 class KTypeSelector extends KLimitingSelector<Type> {
 
-    public KTypeSelector(int k, int hk) {
-        super(k, hk);
+    public KTypeSelector(int k, int hk, String contextFactory) {
+        super(k, hk, contextFactory);
     }
 
     @Override
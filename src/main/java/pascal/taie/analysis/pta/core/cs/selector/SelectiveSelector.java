@@ -64,6 +64,11 @@ class SelectiveSelector implements ContextSelector {
         return delegate.getEmptyContext();
     }
 
+    @Override
+    public Context makeContext(Object... elems) {
+        return delegate.makeContext(elems);
+    }
+
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
         return isCSMethod.test(callee) ?
@@ -78,6 +83,11 @@ class SelectiveSelector implements ContextSelector {
                 delegate.getEmptyContext();
     }
 
+    @Override
+    public boolean isReceiverSensitive() {
+        return delegate.isReceiverSensitive();
+    }
+
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
         return isCSObj.test(obj) ?
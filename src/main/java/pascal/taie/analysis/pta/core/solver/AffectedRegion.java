@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * The part of pointer analysis results that may be derived from
+ * a set of changed methods, i.e., the facts to be retracted when
+ * re-analyzing the program after the methods change.
+ * <p>
+ * The region is computed on the results of previous analysis (possibly
+ * restored from a checkpoint, where the facts involving the elements
+ * of changed methods are dropped and their related elements are given
+ * as seeds), and over-approximates the affected facts:
+ * <ul>
+ *     <li>the CS methods of the changed methods, and the CS methods
+ *     which are called by the affected methods or via the affected
+ *     receiver variables, are affected;</li>
+ *     <li>all variables of the affected methods, and the pointers which
+ *     may receive objects from the affected pointers (via PFG edges,
+ *     or via field/array accesses on the affected base variables)
+ *     are affected.</li>
+ * </ul>
+ */
+class AffectedRegion {
+
+    private final CSManager csManager;
+
+    private final CSCallGraph callGraph;
+
+    private final Set<CSMethod> methods = Sets.newSet();
+
+    private final Set<Pointer> pointers = Sets.newSet();
+
+    private final Queue<CSMethod> methodQueue = new ArrayDeque<>();
+
+    private final Queue<Pointer> pointerQueue = new ArrayDeque<>();
+
+    /**
+     * @param changedMethods the changed methods
+     * @param seedMethods    additional CS methods which are known
+     *                       to be affected
+     * @param seedPointers   additional pointers which are known
+     *                       to be affected
+     */
+    AffectedRegion(CSManager csManager, CSCallGraph callGraph,
+                   Collection<JMethod> changedMethods,
+                   Collection<CSMethod> seedMethods,
+                   Collection<? extends Pointer> seedPointers) {
+        this.csManager = csManager;
+        this.callGraph = callGraph;
+        Set<JMethod> changed = Set.copyOf(changedMethods);
+        callGraph.reachableMethods()
+                .filter(m -> changed.contains(m.getMethod()))
+                .forEach(this::addMethod);
+        seedMethods.forEach(this::addMethod);
+        seedPointers.forEach(this::addPointer);
+        while (!methodQueue.isEmpty() || !pointerQueue.isEmpty()) {
+            while (!methodQueue.isEmpty()) {
+                processMethod(methodQueue.poll());
+            }
+            while (!pointerQueue.isEmpty()) {
+                processPointer(pointerQueue.poll());
+            }
+        }
+    }
+
+    /**
+     * @return the affected CS methods.
+     */
+    Set<CSMethod> getMethods() {
+        return Collections.unmodifiableSet(methods);
+    }
+
+    /**
+     * @return the affected pointers.
+     */
+    Set<Pointer> getPointers() {
+        return Collections.unmodifiableSet(pointers);
+    }
+
+    private void addMethod(CSMethod csMethod) {
+        if (methods.add(csMethod)) {
+            methodQueue.add(csMethod);
+        }
+    }
+
+    /**
+     * Adds given pointer to the region. The pointers are looked up
+     * without creation, thus the ones which do not exist (i.e., have
+     * never been involved in any facts) are given as {@code null}
+     * and ignored.
+     */
+    private void addPointer(@Nullable Pointer pointer) {
+        if (pointer != null && pointers.add(pointer)) {
+            pointerQueue.add(pointer);
+        }
+    }
+
+    private void processMethod(CSMethod csMethod) {
+        Context context = csMethod.getContext();
+        csMethod.getMethod().getIR().getVars().forEach(var ->
+                addPointer(csManager.findCSVar(context, var)));
+        callGraph.getCallSitesIn(csMethod).forEach(csCallSite ->
+                callGraph.getCalleesOf(csCallSite).forEach(this::addMethod));
+    }
+
+    private void processPointer(Pointer pointer) {
+        pointer.getOutEdges().forEach(edge -> addPointer(edge.getTarget()));
+        if (pointer instanceof CSVar csVar) {
+            Context context = csVar.getContext();
+            Var var = csVar.getVar();
+            Set<CSObj> objs = csVar.getObjects();
+            for (Invoke callSite : var.getInvokes()) {
+                CSCallSite csCallSite = csManager.findCSCallSite(context, callSite);
+                if (csCallSite != null) {
+                    callGraph.getCalleesOf(csCallSite).forEach(this::addMethod);
+                }
+            }
+            for (StoreField store : var.getStoreFields()) {
+                JField field = store.getFieldRef().resolve();
+                objs.forEach(obj ->
+                        addPointer(csManager.findInstanceField(obj, field)));
+            }
+            for (LoadField load : var.getLoadFields()) {
+                addPointer(csManager.findCSVar(context, load.getLValue()));
+            }
+            if (!var.getStoreArrays().isEmpty()) {
+                objs.forEach(obj -> addPointer(csManager.findArrayIndex(obj)));
+            }
+            for (LoadArray load : var.getLoadArrays()) {
+                addPointer(csManager.findCSVar(context, load.getLValue()));
+            }
+        }
+    }
+}
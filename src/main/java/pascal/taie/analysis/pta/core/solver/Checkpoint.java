@@ -0,0 +1,980 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.ConstantObj;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MergedObj;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the states of {@link DefaultSolver} to a binary checkpoint file,
+ * and restores the states from the file in a new process.
+ * <p>
+ * The checkpoint contains the reachable CS methods, call edges,
+ * PFG edges, points-to sets and the work list entries. As the indexes
+ * of the elements are not stable across processes, each element
+ * (e.g., method, variable, object and context) is written as
+ * the information to obtain the same element in the new process,
+ * e.g., method signature and statement index. Each element is written
+ * once at its first occurrence, and referenced by its ID afterwards.
+ * <p>
+ * The facts that involve elements which cannot be identified in this way
+ * (e.g., objects and call edges created by plugins with
+ * custom representations), are not written. They are derived again
+ * when the solver replays the restored facts after resuming.
+ * <p>
+ * The checkpoint also records the digests of the analyzed program
+ * (see {@link ProgramDigest}). A checkpoint can be restored for
+ * a different version of the program only in incremental mode, and only
+ * if the class hierarchy does not change. In that case, the elements
+ * of the methods whose IR changes (e.g., their variables and statements,
+ * and the objects allocated by them) are stale, thus the facts involving
+ * them are not restored, and the restored elements related to these
+ * facts are reported by {@link Restored}, so that the solver can retract
+ * the facts derived from them.
+ */
+final class Checkpoint {
+
+    private static final Logger logger = LogManager.getLogger(Checkpoint.class);
+
+    private static final int MAGIC = 0x54414945; // "TAIE"
+
+    private static final int VERSION = 2;
+
+    // tags of element definitions
+    private static final byte CLASS = 1;
+
+    private static final byte METHOD = 2;
+
+    private static final byte FIELD = 3;
+
+    private static final byte TYPE = 4;
+
+    private static final byte STMT = 5;
+
+    private static final byte VAR = 6;
+
+    private static final byte STRING = 7;
+
+    private static final byte NEW_OBJ = 8;
+
+    private static final byte STRING_CONSTANT_OBJ = 9;
+
+    private static final byte CLASS_CONSTANT_OBJ = 10;
+
+    private static final byte MOCK_OBJ = 11;
+
+    private static final byte CONTEXT = 12;
+
+    private static final byte CS_OBJ = 13;
+
+    private static final byte CS_VAR = 14;
+
+    private static final byte INSTANCE_FIELD = 15;
+
+    private static final byte ARRAY_INDEX = 16;
+
+    private static final byte STATIC_FIELD = 17;
+
+    private static final byte CS_METHOD = 18;
+
+    private static final byte CS_CALL_SITE = 19;
+
+    // special references
+    private static final int NULL_REF = -1;
+
+    private static final int DEF_REF = -2;
+
+    // tags of transfer functions
+    private static final byte IDENTITY = 0;
+
+    private static final byte TYPE_FILTER = 1;
+
+    /**
+     * Represents the elements which cannot be restored
+     * as they belong to the changed methods.
+     */
+    private static final Object STALE = new Object();
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Writes the states of given solver to given file. The file is
+     * replaced atomically, so that an interrupted write does not destroy
+     * the previous checkpoint.
+     */
+    static void write(DefaultSolver solver, Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            new Writer(solver, out).write();
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write checkpoint " + tmp, e);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to replace checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Restores the states in given file to given solver.
+     * The solver should have been initialized, and has not
+     * processed any facts.
+     *
+     * @param incremental whether the checkpoint may be written for
+     *                    an older version of the analyzed program.
+     *                    If it is false, the checkpoint must be written
+     *                    for the same program.
+     */
+    static Restored restore(DefaultSolver solver, Path file, boolean incremental) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            return new Reader(solver, in, incremental).read();
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * @return fingerprint of the analysis configuration and the class
+     * hierarchy that affect the elements in the checkpoint. The IR of
+     * methods is checked separately by their digests, which need not
+     * be the same in incremental mode.
+     */
+    private static String getFingerprint(DefaultSolver solver) {
+        return solver.getOptions().getString("cs") + ";" +
+                solver.getContextSelector().getClass().getName() + ";" +
+                solver.getHeapModel().getClass().getName() + ";" +
+                solver.getProgramDigest().getHierarchyDigest();
+    }
+
+    /**
+     * Information about a restored checkpoint.
+     *
+     * @param processedPointerCount number of pointers processed by
+     *                              the analysis which wrote the checkpoint.
+     * @param changedMethods        the methods whose IR changed since
+     *                              the checkpoint was written.
+     * @param affectedMethods       the restored CS methods which are related
+     *                              to the facts involving stale elements.
+     * @param affectedPointers      the restored pointers which are related
+     *                              to the facts involving stale elements.
+     */
+    record Restored(int processedPointerCount,
+                    Set<JMethod> changedMethods,
+                    Set<CSMethod> affectedMethods,
+                    Set<Pointer> affectedPointers) {
+    }
+
+    private static class Writer {
+
+        private final DefaultSolver solver;
+
+        private final DataOutputStream out;
+
+        private final ClassHierarchy hierarchy;
+
+        /**
+         * IDs of the written elements.
+         */
+        private final Map<Object, Integer> ids = Maps.newMap();
+
+        /**
+         * Caches whether each element can be written.
+         */
+        private final Map<Object, Boolean> encodable = Maps.newMap();
+
+        private int skippedFacts = 0;
+
+        private Writer(DefaultSolver solver, DataOutputStream out) {
+            this.solver = solver;
+            this.out = out;
+            this.hierarchy = solver.getHierarchy();
+        }
+
+        private void write() throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(getFingerprint(solver));
+            out.writeInt(solver.getWorkList().getProcessedPointerCount());
+            CSCallGraph callGraph = solver.getCallGraph();
+            // digests of reachable methods
+            ProgramDigest digest = solver.getProgramDigest();
+            List<JMethod> methods = callGraph.reachableMethods()
+                    .map(CSMethod::getMethod)
+                    .distinct()
+                    .filter(this::canEncode)
+                    .toList();
+            out.writeInt(methods.size());
+            for (JMethod method : methods) {
+                writeString(method.getSignature());
+                writeString(digest.getMethodDigest(method));
+            }
+            // call graph
+            writeElements(callGraph.entryMethods().toList());
+            writeElements(callGraph.reachableMethods().toList());
+            writeCallEdges(callGraph.edges().toList());
+            // pointer flow graph
+            List<PointerFlowEdge> pfgEdges = solver.getPointerFlowGraph()
+                    .getPointers()
+                    .stream()
+                    .flatMap(p -> p.getOutEdges().stream())
+                    .filter(this::canEncode)
+                    .toList();
+            out.writeInt(pfgEdges.size());
+            for (PointerFlowEdge edge : pfgEdges) {
+                writePFGEdge(edge);
+            }
+            // points-to sets
+            CSManager csManager = solver.getCSManager();
+            List<Pointer> pointers = Stream.<Stream<? extends Pointer>>of(
+                            csManager.getCSVars().stream(),
+                            csManager.getInstanceFields().stream(),
+                            csManager.getArrayIndexes().stream(),
+                            csManager.getStaticFields().stream())
+                    .flatMap(Function.identity())
+                    .map(Pointer.class::cast)
+                    .filter(p -> p.getPointsToSet() != null
+                            && !p.getPointsToSet().isEmpty())
+                    .filter(this::canEncodeFact)
+                    .toList();
+            out.writeInt(pointers.size());
+            for (Pointer pointer : pointers) {
+                writeRef(pointer);
+                writeObjects(pointer.getObjects());
+            }
+            // work list
+            WorkList workList = solver.getWorkList();
+            writeCallEdges(workList.getCallEdges());
+            List<WorkList.PointerEntry> entries = workList.getPointerEntries()
+                    .stream()
+                    .filter(e -> canEncodeFact(e.pointer()))
+                    .toList();
+            out.writeInt(entries.size());
+            for (WorkList.PointerEntry entry : entries) {
+                writeRef(entry.pointer());
+                if (entry instanceof WorkList.SetEntry e) {
+                    writeObjects(e.pointsToSet().getObjects());
+                } else {
+                    writeObjects(List.of(((WorkList.ObjectEntry) entry).object()));
+                }
+            }
+            if (skippedFacts > 0) {
+                logger.info("{} facts are not written to checkpoint," +
+                        " and will be derived again after resuming", skippedFacts);
+            }
+        }
+
+        private void writeElements(List<?> elems) throws IOException {
+            List<?> toWrite = elems.stream()
+                    .filter(this::canEncodeFact)
+                    .toList();
+            out.writeInt(toWrite.size());
+            for (Object elem : toWrite) {
+                writeRef(elem);
+            }
+        }
+
+        private void writeCallEdges(Collection<Edge<CSCallSite, CSMethod>> edges)
+                throws IOException {
+            List<Edge<CSCallSite, CSMethod>> toWrite = edges.stream()
+                    .filter(e -> {
+                        // the edges of subclasses are created by plugins,
+                        // and carry information that is not recorded here
+                        boolean canEncode = e.getClass() == Edge.class
+                                && canEncode(e.getCallSite())
+                                && canEncode(e.getCallee());
+                        if (!canEncode) {
+                            ++skippedFacts;
+                        }
+                        return canEncode;
+                    })
+                    .toList();
+            out.writeInt(toWrite.size());
+            for (Edge<CSCallSite, CSMethod> edge : toWrite) {
+                out.writeByte(edge.getKind().ordinal());
+                writeRef(edge.getCallSite());
+                writeRef(edge.getCallee());
+            }
+        }
+
+        private void writePFGEdge(PointerFlowEdge edge) throws IOException {
+            out.writeByte(edge.getKind().ordinal());
+            writeRef(edge.getSource());
+            writeRef(edge.getTarget());
+            if (edge.getTransfer() instanceof TypeFilter filter) {
+                out.writeByte(TYPE_FILTER);
+                writeRef(filter.getType());
+            } else {
+                out.writeByte(IDENTITY);
+            }
+        }
+
+        private void writeObjects(Collection<CSObj> objs) throws IOException {
+            List<CSObj> toWrite = objs.stream()
+                    .filter(this::canEncodeFact)
+                    .toList();
+            out.writeInt(toWrite.size());
+            for (CSObj obj : toWrite) {
+                writeRef(obj);
+            }
+        }
+
+        private boolean canEncodeFact(Object elem) {
+            if (canEncode(elem)) {
+                return true;
+            } else {
+                ++skippedFacts;
+                return false;
+            }
+        }
+
+        private boolean canEncode(PointerFlowEdge edge) {
+            Transfer transfer = edge.getTransfer();
+            boolean result = (transfer == Identity.INSTANCE ||
+                    transfer instanceof TypeFilter filter && canEncode(filter.getType()))
+                    && canEncode(edge.getSource())
+                    && canEncode(edge.getTarget());
+            if (!result) {
+                ++skippedFacts;
+            }
+            return result;
+        }
+
+        /**
+         * @return true if given element can be written (and identified
+         * in the new process), otherwise false.
+         */
+        private boolean canEncode(@Nullable Object elem) {
+            if (elem == null || elem instanceof String
+                    || elem instanceof JClass || elem instanceof Type) {
+                return true;
+            }
+            Boolean result = encodable.get(elem);
+            if (result == null) {
+                result = computeEncodable(elem);
+                encodable.put(elem, result);
+            }
+            return result;
+        }
+
+        private boolean computeEncodable(Object elem) {
+            if (elem instanceof JMethod m) {
+                return hierarchy.getMethod(m.getSignature()) == m;
+            } else if (elem instanceof JField f) {
+                return hierarchy.getField(f.getSignature()) == f;
+            } else if (elem instanceof Stmt s) {
+                JMethod container = getContainer(s);
+                return container != null && canEncode(container)
+                        && s.getIndex() >= 0
+                        && s.getIndex() < container.getIR().getStmts().size()
+                        && container.getIR().getStmt(s.getIndex()) == s;
+            } else if (elem instanceof Var v) {
+                JMethod m = v.getMethod();
+                IR ir = m.getIR();
+                return canEncode(m) && v.getIndex() < ir.getVars().size()
+                        && ir.getVar(v.getIndex()) == v;
+            } else if (elem instanceof Obj obj) {
+                return computeEncodable(obj);
+            } else if (elem instanceof Context ctx) {
+                for (int i = 0; i < ctx.getLength(); ++i) {
+                    if (!canEncode(ctx.getElementAt(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            } else if (elem instanceof CSObj o) {
+                return canEncode(o.getContext()) && canEncode(o.getObject());
+            } else if (elem instanceof CSVar v) {
+                return canEncode(v.getContext()) && canEncode(v.getVar());
+            } else if (elem instanceof InstanceField f) {
+                return canEncode(f.getBase()) && canEncode(f.getField());
+            } else if (elem instanceof ArrayIndex a) {
+                return canEncode(a.getArray());
+            } else if (elem instanceof StaticField f) {
+                return canEncode(f.getField());
+            } else if (elem instanceof CSMethod m) {
+                return canEncode(m.getContext()) && canEncode(m.getMethod());
+            } else if (elem instanceof CSCallSite cs) {
+                return canEncode(cs.getContext()) && canEncode(cs.getCallSite());
+            } else {
+                return false;
+            }
+        }
+
+        private boolean computeEncodable(Obj obj) {
+            if (obj instanceof MergedObj merged) {
+                // a merged object is obtained from heap model
+                // via any object represented by it
+                return merged.getAllocation().stream()
+                        .findFirst()
+                        .filter(o -> !(o instanceof MergedObj))
+                        .map(this::computeEncodable)
+                        .orElse(false);
+            } else if (obj instanceof NewObj newObj) {
+                return canEncode(newObj.getAllocation());
+            } else if (obj instanceof ConstantObj constObj) {
+                ReferenceLiteral literal = constObj.getAllocation();
+                return literal instanceof StringLiteral
+                        || literal instanceof ClassLiteral;
+            } else if (obj instanceof MockObj mockObj) {
+                return canEncode(mockObj.getAllocation())
+                        && canEncode(mockObj.getType())
+                        && canEncode(mockObj.getContainerMethod().orElse(null));
+            } else {
+                return false;
+            }
+        }
+
+        /**
+         * Writes reference to given element, and writes the definition
+         * of the element if it has not been written.
+         * The element must be encodable.
+         */
+        private void writeRef(@Nullable Object elem) throws IOException {
+            if (elem == null) {
+                out.writeInt(NULL_REF);
+                return;
+            }
+            Integer id = ids.get(elem);
+            if (id != null) {
+                out.writeInt(id);
+                return;
+            }
+            out.writeInt(DEF_REF);
+            writeDef(elem);
+            ids.put(elem, ids.size());
+        }
+
+        private void writeDef(Object elem) throws IOException {
+            if (elem instanceof String s) {
+                out.writeByte(STRING);
+                writeString(s);
+            } else if (elem instanceof JClass c) {
+                out.writeByte(CLASS);
+                writeString(c.getName());
+            } else if (elem instanceof JMethod m) {
+                out.writeByte(METHOD);
+                writeString(m.getSignature());
+            } else if (elem instanceof JField f) {
+                out.writeByte(FIELD);
+                writeString(f.getSignature());
+            } else if (elem instanceof Type t) {
+                out.writeByte(TYPE);
+                writeString(t.getName());
+            } else if (elem instanceof Stmt s) {
+                out.writeByte(STMT);
+                writeRef(getContainer(s));
+                out.writeInt(s.getIndex());
+            } else if (elem instanceof Var v) {
+                out.writeByte(VAR);
+                writeRef(v.getMethod());
+                out.writeInt(v.getIndex());
+            } else if (elem instanceof Obj obj) {
+                writeObjDef(obj);
+            } else if (elem instanceof Context ctx) {
+                out.writeByte(CONTEXT);
+                out.writeInt(ctx.getLength());
+                for (int i = 0; i < ctx.getLength(); ++i) {
+                    writeRef(ctx.getElementAt(i));
+                }
+            } else if (elem instanceof CSObj o) {
+                out.writeByte(CS_OBJ);
+                writeRef(o.getContext());
+                writeRef(o.getObject());
+            } else if (elem instanceof CSVar v) {
+                out.writeByte(CS_VAR);
+                writeRef(v.getContext());
+                writeRef(v.getVar());
+            } else if (elem instanceof InstanceField f) {
+                out.writeByte(INSTANCE_FIELD);
+                writeRef(f.getBase());
+                writeRef(f.getField());
+            } else if (elem instanceof ArrayIndex a) {
+                out.writeByte(ARRAY_INDEX);
+                writeRef(a.getArray());
+            } else if (elem instanceof StaticField f) {
+                out.writeByte(STATIC_FIELD);
+                writeRef(f.getField());
+            } else if (elem instanceof CSMethod m) {
+                out.writeByte(CS_METHOD);
+                writeRef(m.getContext());
+                writeRef(m.getMethod());
+            } else if (elem instanceof CSCallSite cs) {
+                out.writeByte(CS_CALL_SITE);
+                writeRef(cs.getContext());
+                writeRef(cs.getCallSite());
+            } else {
+                throw new AnalysisException("Cannot write " + elem +
+                        " to checkpoint");
+            }
+        }
+
+        private void writeObjDef(Obj obj) throws IOException {
+            if (obj instanceof MergedObj merged) {
+                // the represented object is written in place of the
+                // merged object, from which heap model returns the merged one
+                writeObjDef(merged.getAllocation().iterator().next());
+            } else if (obj instanceof NewObj newObj) {
+                out.writeByte(NEW_OBJ);
+                writeRef(newObj.getAllocation());
+            } else if (obj instanceof ConstantObj constObj) {
+                ReferenceLiteral literal = constObj.getAllocation();
+                if (literal instanceof StringLiteral s) {
+                    out.writeByte(STRING_CONSTANT_OBJ);
+                    writeString(s.getString());
+                } else {
+                    out.writeByte(CLASS_CONSTANT_OBJ);
+                    writeRef(((ClassLiteral) literal).getTypeValue());
+                }
+            } else {
+                MockObj mockObj = (MockObj) obj;
+                out.writeByte(MOCK_OBJ);
+                writeString(mockObj.getDescription());
+                writeRef(mockObj.getAllocation());
+                writeRef(mockObj.getType());
+                writeRef(mockObj.getContainerMethod().orElse(null));
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static class Reader {
+
+        private final DefaultSolver solver;
+
+        private final DataInputStream in;
+
+        private final boolean incremental;
+
+        private final ClassHierarchy hierarchy;
+
+        private final TypeSystem typeSystem;
+
+        private final HeapModel heapModel;
+
+        private final CSManager csManager;
+
+        /**
+         * Elements indexed by their IDs.
+         */
+        private final List<Object> elems = new ArrayList<>();
+
+        /**
+         * Methods whose IR does not change since the checkpoint was written.
+         */
+        private final Set<JMethod> unchangedMethods = Sets.newSet();
+
+        private final Set<JMethod> changedMethods = Sets.newSet();
+
+        private final Set<CSMethod> affectedMethods = Sets.newSet();
+
+        private final Set<Pointer> affectedPointers = Sets.newSet();
+
+        private int droppedFacts = 0;
+
+        private Reader(DefaultSolver solver, DataInputStream in,
+                       boolean incremental) {
+            this.solver = solver;
+            this.in = in;
+            this.incremental = incremental;
+            this.hierarchy = solver.getHierarchy();
+            this.typeSystem = solver.getTypeSystem();
+            this.heapModel = solver.getHeapModel();
+            this.csManager = solver.getCSManager();
+        }
+
+        private Restored read() throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new AnalysisException("Not a checkpoint file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new AnalysisException("Unsupported checkpoint version: "
+                        + version);
+            }
+            String fingerprint = readString();
+            if (!fingerprint.equals(getFingerprint(solver))) {
+                throw new AnalysisException("Checkpoint was written by" +
+                        " different analysis configuration or for" +
+                        " different class hierarchy: " + fingerprint);
+            }
+            int processedPointerCount = in.readInt();
+            // digests of reachable methods
+            ProgramDigest digest = solver.getProgramDigest();
+            for (int i = in.readInt(); i > 0; --i) {
+                JMethod method = (JMethod) check(
+                        hierarchy.getMethod(readString()));
+                String methodDigest = readString();
+                if (!methodDigest.isEmpty()
+                        && methodDigest.equals(digest.getMethodDigest(method))) {
+                    unchangedMethods.add(method);
+                } else {
+                    changedMethods.add(method);
+                }
+            }
+            if (!incremental && !changedMethods.isEmpty()) {
+                throw new AnalysisException("Checkpoint was written for" +
+                        " different version of the program, " +
+                        changedMethods.size() + " methods changed");
+            }
+            CSCallGraph callGraph = solver.getCallGraph();
+            // call graph
+            for (int i = in.readInt(); i > 0; --i) {
+                Object entry = readElem();
+                if (entry != STALE) {
+                    callGraph.addEntryMethod(as(entry, CSMethod.class));
+                }
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                Object method = readElem();
+                if (method != STALE) {
+                    callGraph.addReachableMethod(as(method, CSMethod.class));
+                }
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                Edge<CSCallSite, CSMethod> edge = readCallEdge();
+                if (edge != null) {
+                    callGraph.addEdge(edge);
+                }
+            }
+            // pointer flow graph
+            PointerFlowGraph pfg = solver.getPointerFlowGraph();
+            PointerFlowEdge.Kind[] kinds = PointerFlowEdge.Kind.values();
+            for (int i = in.readInt(); i > 0; --i) {
+                PointerFlowEdge.Kind kind = kinds[in.readByte()];
+                Object source = readElem();
+                Object target = readElem();
+                Transfer transfer = in.readByte() == TYPE_FILTER ?
+                        solver.getTypeFilter(readRef(Type.class)) :
+                        Identity.get();
+                if (source == STALE || target == STALE) {
+                    // the objects propagated along the edge
+                    // may be derived from stale elements
+                    dropFact(target);
+                } else {
+                    pfg.addEdge(new PointerFlowEdge(kind,
+                            as(source, Pointer.class),
+                            as(target, Pointer.class), transfer));
+                }
+            }
+            // points-to sets
+            for (int i = in.readInt(); i > 0; --i) {
+                Object pointer = readElem();
+                PointsToSet pts = pointer == STALE ? null :
+                        solver.getPointsToSetOf(as(pointer, Pointer.class));
+                for (int j = in.readInt(); j > 0; --j) {
+                    Object obj = readElem();
+                    if (pts == null || obj == STALE) {
+                        dropFact(pointer);
+                    } else {
+                        pts.addObject(as(obj, CSObj.class));
+                    }
+                }
+            }
+            // work list
+            WorkList workList = solver.getWorkList();
+            for (int i = in.readInt(); i > 0; --i) {
+                Edge<CSCallSite, CSMethod> edge = readCallEdge();
+                if (edge != null) {
+                    workList.addEntry(edge);
+                }
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                Object pointer = readElem();
+                for (int j = in.readInt(); j > 0; --j) {
+                    Object obj = readElem();
+                    if (pointer == STALE || obj == STALE) {
+                        dropFact(pointer);
+                    } else {
+                        workList.addEntry(as(pointer, Pointer.class),
+                                as(obj, CSObj.class));
+                    }
+                }
+            }
+            if (droppedFacts > 0) {
+                logger.info("{} facts involving {} changed methods" +
+                        " are not restored", droppedFacts, changedMethods.size());
+            }
+            return new Restored(processedPointerCount, changedMethods,
+                    affectedMethods, affectedPointers);
+        }
+
+        /**
+         * @return the call edge, or {@code null} if it involves
+         * stale elements.
+         */
+        @Nullable
+        private Edge<CSCallSite, CSMethod> readCallEdge() throws IOException {
+            CallKind kind = CallKind.values()[in.readByte()];
+            Object callSite = readElem();
+            Object callee = readElem();
+            if (callSite == STALE || callee == STALE) {
+                // the callee may be reachable only via the edge
+                dropFact(callee);
+                return null;
+            }
+            return new Edge<>(kind, as(callSite, CSCallSite.class),
+                    as(callee, CSMethod.class));
+        }
+
+        /**
+         * Records a fact which is not restored as it involves stale
+         * elements, and the restored element related to the fact
+         * (if any) is affected.
+         */
+        private void dropFact(@Nullable Object related) {
+            ++droppedFacts;
+            if (related instanceof CSMethod csMethod) {
+                affectedMethods.add(csMethod);
+            } else if (related instanceof Pointer pointer) {
+                affectedPointers.add(pointer);
+            }
+        }
+
+        /**
+         * @return the element referenced at current position,
+         * which may be {@code null} or {@link #STALE}.
+         */
+        @Nullable
+        private Object readElem() throws IOException {
+            int id = in.readInt();
+            if (id == NULL_REF) {
+                return null;
+            } else if (id == DEF_REF) {
+                Object elem = readDef();
+                elems.add(elem);
+                return elem;
+            } else {
+                return elems.get(id);
+            }
+        }
+
+        /**
+         * Reads reference to an element which is never stale.
+         */
+        @Nullable
+        private <T> T readRef(Class<T> klass) throws IOException {
+            return as(readElem(), klass);
+        }
+
+        @Nullable
+        private static <T> T as(@Nullable Object elem, Class<T> klass) {
+            if (elem != null && !klass.isInstance(elem)) {
+                throw new AnalysisException("Corrupted checkpoint, expected "
+                        + klass.getSimpleName() + ", given " + elem);
+            }
+            return klass.cast(elem);
+        }
+
+        private Object readDef() throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case STRING -> readString();
+                case CLASS -> check(hierarchy.getClass(readString()));
+                case METHOD -> check(hierarchy.getMethod(readString()));
+                case FIELD -> check(hierarchy.getField(readString()));
+                case TYPE -> check(typeSystem.getType(readString()));
+                case STMT -> {
+                    JMethod method = readRef(JMethod.class);
+                    int index = in.readInt();
+                    yield isChanged(method) ? STALE :
+                            method.getIR().getStmt(index);
+                }
+                case VAR -> {
+                    JMethod method = readRef(JMethod.class);
+                    int index = in.readInt();
+                    yield isChanged(method) ? STALE :
+                            method.getIR().getVar(index);
+                }
+                case NEW_OBJ -> {
+                    Object alloc = readElem();
+                    yield alloc == STALE ? STALE :
+                            heapModel.getObj(as(alloc, New.class));
+                }
+                case STRING_CONSTANT_OBJ -> heapModel.getConstantObj(
+                        StringLiteral.get(readString()));
+                case CLASS_CONSTANT_OBJ -> heapModel.getConstantObj(
+                        ClassLiteral.get(readRef(Type.class)));
+                case MOCK_OBJ -> {
+                    String desc = readString();
+                    Object alloc = readElem();
+                    Type type = readRef(Type.class);
+                    JMethod container = readRef(JMethod.class);
+                    yield alloc == STALE ? STALE :
+                            heapModel.getMockObj(desc, alloc, type, container);
+                }
+                case CONTEXT -> {
+                    Object[] ctxElems = new Object[in.readInt()];
+                    boolean stale = false;
+                    for (int i = 0; i < ctxElems.length; ++i) {
+                        ctxElems[i] = readElem();
+                        stale |= ctxElems[i] == STALE;
+                    }
+                    yield stale ? STALE :
+                            solver.getContextSelector().makeContext(ctxElems);
+                }
+                case CS_OBJ -> {
+                    Object ctx = readElem();
+                    Object obj = readElem();
+                    yield ctx == STALE || obj == STALE ? STALE :
+                            csManager.getCSObj(as(ctx, Context.class),
+                                    as(obj, Obj.class));
+                }
+                case CS_VAR -> {
+                    Object ctx = readElem();
+                    Object var = readElem();
+                    yield ctx == STALE || var == STALE ? STALE :
+                            csManager.getCSVar(as(ctx, Context.class),
+                                    as(var, Var.class));
+                }
+                case INSTANCE_FIELD -> {
+                    Object base = readElem();
+                    JField field = readRef(JField.class);
+                    yield base == STALE ? STALE :
+                            csManager.getInstanceField(as(base, CSObj.class), field);
+                }
+                case ARRAY_INDEX -> {
+                    Object array = readElem();
+                    yield array == STALE ? STALE :
+                            csManager.getArrayIndex(as(array, CSObj.class));
+                }
+                case STATIC_FIELD -> csManager.getStaticField(readRef(JField.class));
+                case CS_METHOD -> {
+                    Object ctx = readElem();
+                    JMethod method = readRef(JMethod.class);
+                    yield ctx == STALE ? STALE :
+                            csManager.getCSMethod(as(ctx, Context.class), method);
+                }
+                case CS_CALL_SITE -> {
+                    Object ctx = readElem();
+                    Object callSite = readElem();
+                    yield ctx == STALE || callSite == STALE ? STALE :
+                            csManager.getCSCallSite(as(ctx, Context.class),
+                                    as(callSite, Invoke.class));
+                }
+                default -> throw new AnalysisException(
+                        "Corrupted checkpoint, unknown tag: " + tag);
+            };
+        }
+
+        /**
+         * @return true if the IR of given method may have changed since
+         * the checkpoint was written, thus the indexes of its statements
+         * and variables are not reliable.
+         */
+        private boolean isChanged(JMethod method) {
+            return incremental && !unchangedMethods.contains(method);
+        }
+
+        private static Object check(@Nullable Object elem) {
+            if (elem == null) {
+                throw new AnalysisException(
+                        "Checkpoint does not match the analyzed program");
+            }
+            return elem;
+        }
+
+        private String readString() throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Nullable
+    private static JMethod getContainer(Stmt stmt) {
+        if (stmt instanceof Invoke invoke) {
+            return invoke.getContainer();
+        } else if (stmt instanceof New newStmt) {
+            return newStmt.getContainer();
+        } else {
+            return null;
+        }
+    }
+}
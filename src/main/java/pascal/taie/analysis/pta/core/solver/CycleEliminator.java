@@ -0,0 +1,216 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Detects the cycles in pointer flow graph, and collapses the pointers
+ * on each cycle. It also collapses the pointers which are known to be
+ * equivalent in advance, e.g., the variables found by {@link VarEquivalence}.
+ * <p>
+ * Only the edges with {@link Identity} transfer are considered, as
+ * the edges with {@link TypeFilter} may block part of objects.
+ * Thus, at the fixed point, all pointers on such a cycle have the same
+ * points-to set, and the solver can let them share one points-to set
+ * and propagate the new objects once, without losing precision.
+ */
+class CycleEliminator {
+
+    /**
+     * Maps each collapsed pointer to the representative of its cycle.
+     */
+    private final Map<Pointer, Pointer> reps = Maps.newMap();
+
+    /**
+     * Maps each representative to all pointers collapsed to it
+     * (including the representative itself).
+     */
+    private final Map<Pointer, List<Pointer>> members = Maps.newMap();
+
+    /**
+     * Number of collapsed cycles.
+     */
+    private int cycleCount = 0;
+
+    /**
+     * @return the representative of given pointer. If the pointer
+     * has not been collapsed, returns the pointer itself.
+     */
+    Pointer getRep(Pointer pointer) {
+        return reps.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return all pointers collapsed together with given pointer
+     * (including the pointer itself).
+     */
+    List<Pointer> getMembersOf(Pointer pointer) {
+        List<Pointer> result = members.get(getRep(pointer));
+        return result != null ? result : List.of(pointer);
+    }
+
+    /**
+     * @return true if given edge is inside a collapsed cycle,
+     * i.e., it need not be propagated.
+     */
+    boolean isCollapsed(PointerFlowEdge edge) {
+        return edge.getTransfer() == Identity.INSTANCE &&
+                getRep(edge.getSource()) == getRep(edge.getTarget());
+    }
+
+    /**
+     * Finds the cycles which have not been collapsed in given PFG.
+     *
+     * @return the cycles, each of which is given by the representatives
+     * of the pointers on it.
+     */
+    List<List<Pointer>> findCycles(PointerFlowGraph pfg) {
+        List<List<Pointer>> cycles = new SCC<>(new RepGraph(pfg)).getTrueComponents();
+        cycleCount += cycles.size();
+        return cycles;
+    }
+
+    /**
+     * Collapses given representatives of equivalent pointers,
+     * e.g., the pointers on a cycle.
+     *
+     * @return the representative of the collapsed pointers.
+     */
+    Pointer collapse(List<Pointer> pointers) {
+        Pointer rep = pointers.get(0);
+        List<Pointer> repMembers = new ArrayList<>();
+        for (Pointer p : pointers) {
+            for (Pointer member : getMembersOf(p)) {
+                reps.put(member, rep);
+                repMembers.add(member);
+            }
+            members.remove(p);
+        }
+        members.put(rep, repMembers);
+        return rep;
+    }
+
+    /**
+     * @return number of cycles found in PFG.
+     */
+    int getCycleCount() {
+        return cycleCount;
+    }
+
+    /**
+     * @return number of collapsed pointers.
+     */
+    int getCollapsedPointerCount() {
+        return reps.size();
+    }
+
+    /**
+     * View of PFG whose nodes are the representatives, and edges are
+     * the {@link Identity} edges between different representatives.
+     */
+    private class RepGraph implements Graph<Pointer> {
+
+        private final PointerFlowGraph pfg;
+
+        private final Set<Pointer> nodes;
+
+        /**
+         * Caches the successors, as {@link SCC} may query the successors
+         * of a node multiple times.
+         */
+        private final Map<Pointer, Set<Pointer>> succs = Maps.newMap();
+
+        /**
+         * Map from each node to its predecessors, which is built on
+         * the first query, as {@link SCC} only queries the successors.
+         */
+        private MultiMap<Pointer, Pointer> preds;
+
+        private RepGraph(PointerFlowGraph pfg) {
+            this.pfg = pfg;
+            this.nodes = pfg.getPointers()
+                    .stream()
+                    .filter(p -> getRep(p) == p)
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+
+        @Override
+        public boolean hasNode(Pointer node) {
+            return nodes.contains(node);
+        }
+
+        @Override
+        public boolean hasEdge(Pointer source, Pointer target) {
+            return getSuccsOf(source).contains(target);
+        }
+
+        @Override
+        public Set<Pointer> getPredsOf(Pointer node) {
+            if (preds == null) {
+                preds = Maps.newMultiMap();
+                for (Pointer source : nodes) {
+                    for (Pointer target : getSuccsOf(source)) {
+                        preds.put(target, source);
+                    }
+                }
+            }
+            return preds.get(node);
+        }
+
+        @Override
+        public Set<Pointer> getSuccsOf(Pointer node) {
+            return succs.computeIfAbsent(node, n -> {
+                Set<Pointer> result = Sets.newHybridSet();
+                for (Pointer member : getMembersOf(n)) {
+                    for (PointerFlowEdge edge : pfg.getOutEdgesOf(member)) {
+                        if (edge.getTransfer() == Identity.INSTANCE) {
+                            Pointer succ = getRep(edge.getTarget());
+                            if (succ != n) {
+                                result.add(succ);
+                            }
+                        }
+                    }
+                }
+                return Collections.unmodifiableSet(result);
+            });
+        }
+
+        @Override
+        public Set<Pointer> getNodes() {
+            return nodes;
+        }
+    }
+}
@@ -42,13 +42,16 @@ import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.MockObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.CompositePlugin;
 import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.CastExp;
 import pascal.taie.ir.exp.Exp;
@@ -80,14 +83,34 @@ import pascal.taie.language.type.NullType;
 import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.BDDBitSet;
+import pascal.taie.util.collection.BDDNodeTable;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.RoaringBitSet;
 import pascal.taie.util.collection.Sets;
-
+import pascal.taie.util.collection.SparseBitSet;
+
+import javax.annotation.Nullable;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static pascal.taie.language.classes.Signatures.FINALIZE;
 import static pascal.taie.language.classes.Signatures.FINALIZER_REGISTER;
@@ -101,6 +124,24 @@ public class DefaultSolver implements Solver {
      */
     private static final String MULTI_ARRAY_DESC = "MultiArrayObj";
 
+    /**
+     * Interval (in milliseconds) between two checks of budgets.
+     */
+    private static final long BUDGET_CHECK_INTERVAL = 1000;
+
+    /**
+     * Key of the result which maps the methods demoted to context
+     * insensitivity to their numbers of contexts at demotion.
+     * The result is stored only if any method is demoted.
+     */
+    public static final String DEMOTED_METHODS = "demoted-methods";
+
+    /**
+     * Minimum number of pointer entries processed between two runs
+     * of hash-consing.
+     */
+    private static final int MIN_HASH_CONS_INTERVAL = 1000;
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -120,6 +161,124 @@ public class DefaultSolver implements Solver {
      */
     private final boolean onlyApp;
 
+    /**
+     * Number of pointer entries processed between two runs of
+     * PFG cycle elimination. Non-positive value disables cycle elimination.
+     */
+    private final int cycleInterval;
+
+    /**
+     * File of the checkpoint. It is null if checkpointing is disabled.
+     */
+    @Nullable
+    private final Path checkpointFile;
+
+    /**
+     * Interval (in milliseconds) between two checkpoints.
+     */
+    private final long checkpointInterval;
+
+    /**
+     * The time when next checkpoint is written.
+     */
+    private long nextCheckpointTime;
+
+    /**
+     * Whether resumes from a checkpoint which may be written for
+     * an older version of the program, and only re-analyzes the
+     * methods changed since then.
+     */
+    private final boolean incremental;
+
+    /**
+     * Digests of the analyzed program, which are written to checkpoints.
+     * It is null if checkpointing is disabled.
+     */
+    @Nullable
+    private final ProgramDigest programDigest;
+
+    /**
+     * The checkpoint restored by incremental analysis, or null if
+     * the analysis does not resume incrementally.
+     */
+    @Nullable
+    private Checkpoint.Restored restored;
+
+    /**
+     * Wall-clock budget (in milliseconds) of the analysis,
+     * 0 means unlimited.
+     */
+    private final long timeBudget;
+
+    /**
+     * Heap budget (in bytes) of the analysis, 0 means unlimited.
+     */
+    private final long heapBudget;
+
+    /**
+     * Number of methods demoted each time a budget is exceeded.
+     */
+    private final int demotionSize;
+
+    /**
+     * Map from the methods demoted to context insensitivity to
+     * their numbers of contexts at demotion. The map may be read
+     * by multiple threads via {@link #contextSelector}.
+     */
+    private final Map<JMethod, Integer> demotedMethods = Maps.newConcurrentMap();
+
+    /**
+     * Whether the points-to sets are hash-consed, so that the points-to
+     * sets with the same objects share one underlying set.
+     */
+    private final boolean hashConsing;
+
+    /**
+     * Number of pointer entries processed since last hash-consing.
+     */
+    private int hashConsCounter;
+
+    /**
+     * Number of pointer entries to be processed before next hash-consing.
+     */
+    private int hashConsInterval;
+
+    /**
+     * Finds the pointer-equivalent variables to be collapsed before
+     * their methods are processed. It is null if the pre-pass is disabled.
+     */
+    @Nullable
+    private final VarEquivalence varEquivalence;
+
+    /**
+     * Number of collapsed groups of equivalent variables.
+     */
+    private int equivalentVarGroupCount;
+
+    private long startTime;
+
+    /**
+     * The time when budgets are checked next time.
+     */
+    private long nextBudgetCheckTime;
+
+    /**
+     * Total number of garbage collections at last demotion
+     * for the heap budget.
+     */
+    private long gcCountAtHeapDemotion;
+
+    /**
+     * Number of times that reachable methods are processed in
+     * additional contexts. Methods can be demoted only if it grows.
+     */
+    private int extraContextCount;
+
+    /**
+     * Value of {@link #extraContextCount} at last attempt of demotion.
+     */
+    private int extraContextCountAtDemotion;
+
     private Plugin plugin;
 
     private WorkList workList;
@@ -128,6 +287,17 @@ public class DefaultSolver implements Solver {
 
     private PointerFlowGraph pointerFlowGraph;
 
+    /**
+     * Collapses PFG cycles and equivalent variables. It is null if
+     * both cycle elimination and variable equivalence are disabled.
+     */
+    private CycleEliminator cycleEliminator;
+
+    /**
+     * Number of pointer entries processed since last cycle elimination.
+     */
+    private int entryCounter;
+
     private Set<JMethod> reachableMethods;
 
     /**
@@ -142,18 +312,69 @@ public class DefaultSolver implements Solver {
 
     private StmtProcessor stmtProcessor;
 
+    /**
+     * Type filters shared by the PFG edges with the same guard type,
+     * so that the subtype check results cached by each filter are reused.
+     */
+    private final Map<Type, TypeFilter> typeFilters = Maps.newMap();
+
     private PointerAnalysisResult result;
 
     public DefaultSolver(AnalysisOptions options, HeapModel heapModel,
                          ContextSelector contextSelector, CSManager csManager) {
         this.options = options;
         this.heapModel = heapModel;
-        this.contextSelector = contextSelector;
         this.csManager = csManager;
         hierarchy = World.get().getClassHierarchy();
         typeSystem = World.get().getTypeSystem();
-        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer());
+        hashConsing = options.getBoolean("hash-cons-points-to-sets");
+        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer(),
+                makeBitSetFactory(options.getString("pts-bit-set")),
+                hashConsing);
         onlyApp = options.getBoolean("only-app");
+        cycleInterval = options.getInt("cycle-elimination-interval");
+        String file = options.getString("checkpoint-file");
+        checkpointFile = file != null ? Path.of(file) : null;
+        checkpointInterval = options.getInt("checkpoint-interval") * 1000L;
+        programDigest = checkpointFile != null ? new ProgramDigest(hierarchy) : null;
+        incremental = options.getBoolean("incremental");
+        if (incremental && (checkpointFile == null || cycleInterval > 0
+                || options.getBoolean("var-equivalence"))) {
+            throw new ConfigException("Incremental analysis requires" +
+                    " checkpoint-file, and does not support PFG cycle" +
+                    " elimination and variable equivalence");
+        }
+        timeBudget = options.getInt("time-budget") * 1000L;
+        heapBudget = options.getInt("heap-budget") * 1024L * 1024L;
+        demotionSize = options.getInt("demotion-size");
+        if (timeBudget < 0 || heapBudget < 0 || demotionSize <= 0) {
+            throw new ConfigException("Illegal budget options: time-budget="
+                    + timeBudget / 1000 + ", heap-budget=" + heapBudget / 1024 / 1024
+                    + ", demotion-size=" + demotionSize);
+        }
+        varEquivalence = options.getBoolean("var-equivalence")
+                ? new VarEquivalence() : null;
+        if (hasBudget()) {
+            // demoted methods are analyzed under empty contexts
+            this.contextSelector = ContextSelectorFactory.makeSelectiveSelector(
+                    contextSelector, m -> !demotedMethods.containsKey(m), o -> true);
+        } else {
+            this.contextSelector = contextSelector;
+        }
+    }
+
+    private static Supplier<? extends IBitSet> makeBitSetFactory(String bitSet) {
+        return switch (bitSet) {
+            case "sparse" -> SparseBitSet::new;
+            case "roaring" -> RoaringBitSet::new;
+            case "bdd" -> {
+                // all points-to sets share one node table
+                BDDNodeTable table = new BDDNodeTable();
+                yield () -> new BDDBitSet(table);
+            }
+            default -> throw new ConfigException(
+                    "Unknown bit set of points-to sets: " + bitSet);
+        };
     }
 
     @Override
@@ -211,6 +432,18 @@ public class DefaultSolver implements Solver {
         this.plugin = plugin;
     }
 
+    ProgramDigest getProgramDigest() {
+        return programDigest;
+    }
+
+    WorkList getWorkList() {
+        return workList;
+    }
+
+    PointerFlowGraph getPointerFlowGraph() {
+        return pointerFlowGraph;
+    }
+
     // ---------- solver logic starts ----------
 
     /**
@@ -220,6 +453,138 @@ public class DefaultSolver implements Solver {
     public void solve() {
         initialize();
         analyze();
+        if (restored != null) {
+            logger.info("Incremental analysis propagated {} pointers" +
+                            " (checkpointed analysis: {} pointers)",
+                    workList.getProcessedPointerCount(),
+                    restored.processedPointerCount());
+        }
+        if (checkpointFile != null) {
+            // the checkpoint at fixed point allows resuming
+            // the finished analysis without solving again
+            writeCheckpoint();
+        }
+        if (hashConsing) {
+            hashConsPointsToSets(true);
+        }
+        if (cycleEliminator != null) {
+            logger.info("Collapsed {} pointers on {} PFG cycles" +
+                            " and {} groups of equivalent variables",
+                    cycleEliminator.getCollapsedPointerCount(),
+                    cycleEliminator.getCycleCount(), equivalentVarGroupCount);
+        }
+        logWorkListStatistics();
+        logTypeFilterStatistics();
+        logDemotedMethods();
+        if (!demotedMethods.isEmpty()) {
+            getResult().storeResult(DEMOTED_METHODS, Map.copyOf(demotedMethods));
+        }
+        plugin.onFinish();
+    }
+
+    /**
+     * Retracts the restored facts which may be derived from the methods
+     * changed since the checkpoint was written. The retracted facts are
+     * derived again when the remaining facts are replayed.
+     */
+    private void retractChangedFacts(Checkpoint.Restored restored) {
+        AffectedRegion region = new AffectedRegion(csManager, callGraph,
+                restored.changedMethods(), restored.affectedMethods(),
+                restored.affectedPointers());
+        Set<CSMethod> affectedMethods = region.getMethods();
+        Set<Pointer> affectedPointers = region.getPointers();
+        retract(region);
+        // keep the pending entries which are not affected
+        WorkList restoredWorkList = workList;
+        workList = new WorkList(SchedulingPolicies.make(
+                options.getString("worklist-policy"), pointerFlowGraph),
+                ptsFactory);
+        for (Edge<CSCallSite, CSMethod> edge : restoredWorkList.getCallEdges()) {
+            if (!affectedMethods.contains(edge.getCallSite().getContainer())
+                    && !affectedMethods.contains(edge.getCallee())) {
+                workList.addEntry(edge);
+            }
+        }
+        for (WorkList.PointerEntry entry : restoredWorkList.getPointerEntries()) {
+            Pointer pointer = entry.pointer();
+            if (!affectedPointers.contains(pointer)) {
+                if (entry instanceof WorkList.SetEntry e) {
+                    workList.addEntry(pointer, e.pointsToSet());
+                } else {
+                    workList.addEntry(pointer,
+                            ((WorkList.ObjectEntry) entry).object());
+                }
+            }
+        }
+        logger.info("{} methods changed since checkpoint, retracted" +
+                        " the facts of {} CS methods and {} pointers",
+                restored.changedMethods().size(), affectedMethods.size(),
+                affectedPointers.size());
+    }
+
+    /**
+     * Retracts the reachable CS methods, call edges, PFG edges and
+     * points-to sets in given region. The cost is proportional to
+     * the size of the region, as only the edges of the methods and
+     * pointers in the region are visited.
+     */
+    private void retract(AffectedRegion region) {
+        Set<CSMethod> affectedMethods = region.getMethods();
+        Set<Pointer> affectedPointers = region.getPointers();
+        // retract call edges and reachable methods
+        for (CSMethod csMethod : affectedMethods) {
+            List.copyOf(csMethod.getEdges()).forEach(callGraph::removeEdge);
+            callGraph.getCallSitesIn(csMethod).forEach(csCallSite ->
+                    List.copyOf(csCallSite.getEdges()).forEach(callGraph::removeEdge));
+        }
+        affectedMethods.forEach(callGraph::removeReachableMethod);
+        // retract PFG edges and points-to sets
+        for (Pointer pointer : affectedPointers) {
+            List.copyOf(pointerFlowGraph.getOutEdgesOf(pointer))
+                    .forEach(pointerFlowGraph::removeEdge);
+            List.copyOf(pointerFlowGraph.getInEdgesOf(pointer))
+                    .forEach(pointerFlowGraph::removeEdge);
+            pointer.setPointsToSet(null);
+        }
+    }
+
+    /**
+     * Logs how many times the pointers have been processed, which helps
+     * to choose the proper work list policy for the analyzed program.
+     */
+    private void logWorkListStatistics() {
+        logger.info("Work list ({}) processed {} pointer entries" +
+                        " for {} pointers",
+                options.getString("worklist-policy"),
+                workList.getTotalProcessCount(),
+                workList.getProcessedPointerCount());
+        for (Pointer p : workList.getMostProcessedPointers(10)) {
+            logger.info("  {} processed {} times",
+                    p, workList.getProcessCount(p));
+        }
+    }
+
+    /**
+     * Logs the hit rate of the subtype check caches of type filters.
+     */
+    private void logTypeFilterStatistics() {
+        long hits = 0;
+        long misses = 0;
+        for (TypeFilter filter : typeFilters.values()) {
+            hits += filter.getCacheHits();
+            misses += filter.getCacheMisses();
+        }
+        long total = hits + misses;
+        double hitRate = total == 0 ? 0 : 100.0 * hits / total;
+        logger.info("Type filters ({}) checked {} objects, cache hit rate: {}%",
+                typeFilters.size(), total, String.format("%.2f", hitRate));
+    }
+
+    /**
+     * @return the type filter of given guard type.
+     */
+    TypeFilter getTypeFilter(Type type) {
+        return typeFilters.computeIfAbsent(type, t -> new TypeFilter(t, this));
     }
 
     /**
@@ -227,52 +592,515 @@ public class DefaultSolver implements Solver {
      */
     private void initialize() {
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        // the in edges are required to retract the PFG edges
+        // of the affected pointers in incremental analysis
+        pointerFlowGraph = new PointerFlowGraph(incremental);
+        if (cycleInterval > 0 || varEquivalence != null) {
+            cycleEliminator = new CycleEliminator();
+            entryCounter = 0;
+        }
+        workList = new WorkList(SchedulingPolicies.make(
+                options.getString("worklist-policy"), pointerFlowGraph),
+                ptsFactory);
         reachableMethods = Sets.newSet();
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
         stmtProcessor = new StmtProcessor();
+        startTime = System.currentTimeMillis();
+        nextBudgetCheckTime = startTime;
+        gcCountAtHeapDemotion = 0;
+        extraContextCount = 0;
+        extraContextCountAtDemotion = 0;
+        boolean resumed = false;
+        if (checkpointFile != null) {
+            nextCheckpointTime = System.currentTimeMillis() + checkpointInterval;
+            if (options.getBoolean("resume-from-checkpoint") || incremental) {
+                if (Files.exists(checkpointFile)) {
+                    logger.info("Resuming from checkpoint {}", checkpointFile);
+                    Checkpoint.Restored checkpoint = Checkpoint.restore(
+                            this, checkpointFile, incremental);
+                    if (incremental) {
+                        restored = checkpoint;
+                        retractChangedFacts(checkpoint);
+                    }
+                    resumed = true;
+                } else {
+                    logger.info("Checkpoint {} does not exist, start from scratch",
+                            checkpointFile);
+                }
+            }
+        }
         plugin.onStart();
+        if (resumed) {
+            replayRestoredFacts();
+        }
+    }
+
+    /**
+     * Replays the facts restored from checkpoint, so that plugins can
+     * rebuild their states, and the facts not written to the checkpoint
+     * are derived again. The facts that have been restored are merged
+     * by the solver as usual.
+     */
+    private void replayRestoredFacts() {
+        for (CSMethod csMethod : callGraph.reachableMethods().toList()) {
+            JMethod method = csMethod.getMethod();
+            if (!isIgnored(method)) {
+                processNewMethod(method);
+                collapseEquivalentVars(csMethod);
+                addStmts(csMethod, method.getIR().getStmts());
+                plugin.onNewCSMethod(csMethod);
+            }
+        }
+        for (Edge<CSCallSite, CSMethod> edge : callGraph.edges().toList()) {
+            processCallEdgeFlows(edge);
+            plugin.onNewCallEdge(edge);
+        }
+        for (CSVar csVar : List.copyOf(csManager.getCSVars())) {
+            PointsToSet pts = csVar.getPointsToSet();
+            if (pts != null && !pts.isEmpty()) {
+                processNewVarPointsTo(csVar, pts.copy());
+            }
+        }
+    }
+
+    /**
+     * Writes a checkpoint of this solver if the checkpoint interval
+     * has elapsed since last checkpoint. If the interval is 0, a checkpoint
+     * is written every time, which makes checkpoints deterministic for
+     * testing. This method should be called between processing two
+     * work list entries.
+     */
+    void checkpointIfDue() {
+        if (checkpointFile != null
+                && System.currentTimeMillis() >= nextCheckpointTime) {
+            writeCheckpoint();
+            nextCheckpointTime = System.currentTimeMillis() + checkpointInterval;
+        }
+    }
+
+    private boolean hasBudget() {
+        return timeBudget > 0 || heapBudget > 0;
+    }
+
+    /**
+     * Checks the time and heap budgets of the analysis. When a budget is
+     * exceeded, demotes the methods with the most contexts to context
+     * insensitivity, so that the analysis continues at lower cost instead
+     * of running out of time or memory.
+     * <p>
+     * While the analysis is over its time budget, another batch of methods
+     * is demoted at every check, as long as new contexts have appeared
+     * since last demotion. The heap budget is compared with the heap used
+     * after last garbage collection, which excludes uncollected garbage,
+     * and methods are demoted for it at most once per collection.
+     * If no method can be demoted yet (e.g., at the beginning of
+     * the analysis), the budgets are checked again at next call.
+     * This method should be called between processing two work list entries.
+     */
+    void checkBudgets() {
+        if (!hasBudget()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextBudgetCheckTime) {
+            return;
+        }
+        boolean timeExceeded = timeBudget > 0 && now - startTime > timeBudget;
+        boolean heapExceeded = false;
+        long gcCount = 0;
+        if (heapBudget > 0) {
+            gcCount = getGCCount();
+            heapExceeded = gcCount > gcCountAtHeapDemotion
+                    && getUsedHeapAfterGC() > heapBudget;
+        }
+        boolean retry = false;
+        if (timeExceeded || heapExceeded) {
+            String budget = !heapExceeded ? "Time"
+                    : (timeExceeded ? "Time and heap" : "Heap");
+            if (demoteMethods(budget)) {
+                if (heapExceeded) {
+                    gcCountAtHeapDemotion = gcCount;
+                }
+            } else {
+                retry = true;
+            }
+        }
+        nextBudgetCheckTime = retry ? now
+                : System.currentTimeMillis() + BUDGET_CHECK_INTERVAL;
+    }
+
+    /**
+     * @return total number of garbage collections in this JVM.
+     */
+    private static long getGCCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc :
+                ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    /**
+     * @return size (in bytes) of the heap used after last garbage
+     * collection of each heap memory pool.
+     */
+    private static long getUsedHeapAfterGC() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Demotes the methods which have the most contexts in {@link #csManager}.
+     *
+     * @param budget the kind of exceeded budget
+     * @return true if any method is demoted, otherwise false.
+     */
+    private boolean demoteMethods(String budget) {
+        if (extraContextCount == extraContextCountAtDemotion) {
+            // no method has got new contexts since last attempt
+            return false;
+        }
+        extraContextCountAtDemotion = extraContextCount;
+        Map<JMethod, Integer> contextCounts = Maps.newMap();
+        for (CSMethod csMethod : csManager.getCSMethods()) {
+            contextCounts.merge(csMethod.getMethod(), 1, Integer::sum);
+        }
+        List<Map.Entry<JMethod, Integer>> demoted = contextCounts.entrySet()
+                .stream()
+                .filter(e -> e.getValue() > 1 &&
+                        !demotedMethods.containsKey(e.getKey()))
+                .sorted(Map.Entry.<JMethod, Integer>comparingByValue().reversed())
+                .limit(demotionSize)
+                .toList();
+        if (demoted.isEmpty()) {
+            return false;
+        }
+        demoted.forEach(e -> demotedMethods.put(e.getKey(), e.getValue()));
+        logger.info("{} budget exceeded, demoted {} methods to" +
+                        " context insensitivity ({} in total)",
+                budget, demoted.size(), demotedMethods.size());
+        return true;
+    }
+
+    private void logDemotedMethods() {
+        if (!demotedMethods.isEmpty()) {
+            logger.info("{} methods were demoted to context insensitivity" +
+                    " (#contexts at demotion):", demotedMethods.size());
+            demotedMethods.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<JMethod, Integer>comparingByValue().reversed())
+                    .forEach(e -> logger.info("  {} ({})", e.getKey(), e.getValue()));
+        }
+    }
+
+    private void writeCheckpoint() {
+        long start = System.currentTimeMillis();
+        try {
+            Checkpoint.write(this, checkpointFile);
+            logger.info("Wrote checkpoint {} in {}ms", checkpointFile,
+                    System.currentTimeMillis() - start);
+        } catch (AnalysisException e) {
+            logger.warn("Failed to write checkpoint: {}", e.getMessage());
+        }
     }
 
     /**
      * Processes work list entries until the work list is empty.
      */
-    private void analyze() {
+    void analyze() {
         while (!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
-            if (entry instanceof WorkList.PointerEntry pEntry) {
-                Pointer p = pEntry.pointer();
-                PointsToSet pts = pEntry.pointsToSet();
-                PointsToSet diff = propagate(p, pts);
-                if (!diff.isEmpty() && p instanceof CSVar v) {
-                    processInstanceStore(v, diff);
-                    processInstanceLoad(v, diff);
-                    processArrayStore(v, diff);
-                    processArrayLoad(v, diff);
-                    processCall(v, diff);
-                    plugin.onNewPointsToSet(v, diff);
+            if (entry instanceof WorkList.ObjectEntry oEntry) {
+                // single-object fast path, which creates no points-to set
+                Pointer p = oEntry.pointer();
+                CSObj obj = oEntry.object();
+                if (mergeEntry(oEntry)) {
+                    propagate(p, obj);
+                    processNewPointsTo(p, obj);
+                }
+                eliminateCycles(1);
+                hashConsIfDue(1);
+            } else if (entry instanceof WorkList.SetEntry sEntry) {
+                Pointer p = sEntry.pointer();
+                PointsToSet diff = mergeEntry(sEntry);
+                if (diff != null) {
+                    propagate(p, diff);
+                    processNewPointsTo(p, diff);
                 }
+                eliminateCycles(1);
+                hashConsIfDue(1);
             } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
                 processCallEdge(eEntry.edge());
             }
+            checkpointIfDue();
+            checkBudgets();
         }
-        plugin.onFinish();
     }
 
     /**
-     * Propagates pointsToSet to pt(pointer) and its PFG successors,
-     * returns the difference set of pointsToSet and pt(pointer).
+     * Processes the statements and plugins that are affected by
+     * the new objects pointed to by a pointer.
+     *
+     * @param pointer the pointer whose points-to set changes
+     * @param diff    set of new discovered objects pointed by the pointer.
      */
-    private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        logger.trace("Propagate {} to {}", pointsToSet, pointer);
-        PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
+    void processNewPointsTo(Pointer pointer, PointsToSet diff) {
         if (!diff.isEmpty()) {
-            pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge ->
-                    addPointsTo(edge.getTarget(), edge.getTransfer().apply(edge, diff)));
+            processNewObjects(pointer, diff);
+        }
+    }
+
+    /**
+     * Single-object version of {@link #processNewPointsTo(Pointer, PointsToSet)},
+     * which creates a points-to set for the object only if some plugin
+     * handles new points-to sets.
+     */
+    void processNewPointsTo(Pointer pointer, CSObj obj) {
+        processNewObjects(pointer, List.of(obj));
+    }
+
+    private void processNewObjects(Pointer pointer, Iterable<CSObj> objs) {
+        if (cycleEliminator == null) {
+            processNewVarPointsTo(pointer, objs);
+        } else {
+            // the pointers collapsed with given pointer share
+            // the same points-to set, thus also receive the new objects
+            for (Pointer p : cycleEliminator.getMembersOf(pointer)) {
+                processNewVarPointsTo(p, objs);
+            }
+        }
+    }
+
+    private void processNewVarPointsTo(Pointer pointer, Iterable<CSObj> objs) {
+        if (pointer instanceof CSVar v) {
+            processInstanceStore(v, objs);
+            processInstanceLoad(v, objs);
+            processArrayStore(v, objs);
+            processArrayLoad(v, objs);
+            processCall(v, objs);
+            if (!(plugin instanceof CompositePlugin composite)
+                    || composite.hasOnNewPointsToSetPlugins()) {
+                plugin.onNewPointsToSet(v, toPointsToSet(objs));
+            }
+        }
+    }
+
+    private PointsToSet toPointsToSet(Iterable<CSObj> objs) {
+        if (objs instanceof PointsToSet pts) {
+            return pts;
+        }
+        PointsToSet pts = makePointsToSet();
+        objs.forEach(pts::addObject);
+        return pts;
+    }
+
+    /**
+     * Merges the objects of given entry into pt(pointer) of the entry.
+     *
+     * @return the set of new discovered objects pointed by the pointer,
+     * or {@code null} if there is no such object.
+     */
+    @Nullable
+    PointsToSet mergeEntry(WorkList.SetEntry entry) {
+        PointsToSet diff = getPointsToSetOf(entry.pointer())
+                .addAllDiff(entry.pointsToSet());
+        return diff.isEmpty() ? null : diff;
+    }
+
+    /**
+     * Merges the object of given entry into pt(pointer) of the entry.
+     *
+     * @return {@code true} if the object is new to the pointer.
+     */
+    boolean mergeEntry(WorkList.ObjectEntry entry) {
+        return getPointsToSetOf(entry.pointer()).addObject(entry.object());
+    }
+
+    /**
+     * Propagates the new discovered objects of pointer to its PFG successors.
+     * The diff is shared by the work list entries of the successors,
+     * thus must not be modified after this call.
+     */
+    private void propagate(Pointer pointer, PointsToSet diff) {
+        logger.trace("Propagate {} from {}", diff, pointer);
+        forEachOutEdge(pointer, edge ->
+                addSharedPointsTo(edge.getTarget(),
+                        edge.getTransfer().apply(edge, diff)));
+    }
+
+    /**
+     * Single-object version of {@link #propagate(Pointer, PointsToSet)}.
+     * The object is passed as a single-object work list entry along the
+     * edges whose transfer functions are filters, see
+     * {@link #transfer(PointerFlowEdge, CSObj)}.
+     */
+    private void propagate(Pointer pointer, CSObj obj) {
+        logger.trace("Propagate {} from {}", obj, pointer);
+        forEachOutEdge(pointer, edge -> {
+            Pointer target = edge.getTarget();
+            if (isFilter(edge.getTransfer())) {
+                if (transfer(edge, obj)) {
+                    addPointsTo(target, obj);
+                }
+            } else {
+                addSharedPointsTo(target,
+                        edge.getTransfer().apply(edge, ptsFactory.make(obj)));
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} if given transfer function propagates each
+     * object either as is or not at all, so that a single object can be
+     * transferred by {@link #transfer(PointerFlowEdge, CSObj)}.
+     */
+    static boolean isFilter(Transfer transfer) {
+        return transfer == Identity.INSTANCE || transfer instanceof TypeFilter;
+    }
+
+    /**
+     * Transfers a single object along given edge whose transfer function
+     * is a filter, without creating a points-to set.
+     *
+     * @return {@code true} if the object is propagated to the edge target.
+     */
+    static boolean transfer(PointerFlowEdge edge, CSObj obj) {
+        return !(edge.getTransfer() instanceof TypeFilter filter)
+                || filter.accepts(obj);
+    }
+
+    /**
+     * Adds objects to be propagated to given pointer without copying
+     * the points-to set, which must not be modified after this call.
+     */
+    void addSharedPointsTo(Pointer pointer, PointsToSet pts) {
+        if (!pts.isEmpty()) {
+            workList.addSharedEntry(getRepresentative(pointer), pts);
+        }
+    }
+
+    /**
+     * Applies given action to the PFG out edges of given pointer and
+     * the pointers collapsed with it, except the edges inside
+     * the collapsed cycles.
+     */
+    void forEachOutEdge(Pointer pointer, Consumer<PointerFlowEdge> action) {
+        if (cycleEliminator == null) {
+            pointerFlowGraph.getOutEdgesOf(pointer).forEach(action);
+        } else {
+            for (Pointer p : cycleEliminator.getMembersOf(pointer)) {
+                for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(p)) {
+                    if (!cycleEliminator.isCollapsed(edge)) {
+                        action.accept(edge);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the pointer which represents given pointer in the work list.
+     * Unless given pointer has been collapsed into a PFG cycle,
+     * returns the pointer itself.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        return cycleEliminator == null ? pointer : cycleEliminator.getRep(pointer);
+    }
+
+    /**
+     * Records the number of processed pointer entries, and collapses
+     * the cycles in PFG if enough entries have been processed since
+     * last run of cycle elimination.
+     */
+    void eliminateCycles(int processedEntries) {
+        if (cycleInterval > 0) {
+            entryCounter += processedEntries;
+            if (entryCounter >= cycleInterval) {
+                entryCounter = 0;
+                cycleEliminator.findCycles(pointerFlowGraph)
+                        .forEach(this::collapse);
+            }
+        }
+    }
+
+    /**
+     * Records the number of processed pointer entries, and hash-conses
+     * the points-to sets if enough entries have been processed since
+     * last hash-consing. The interval is the number of points-to sets
+     * at last hash-consing, so that its cost is amortized.
+     */
+    void hashConsIfDue(int processedEntries) {
+        if (hashConsing) {
+            hashConsCounter += processedEntries;
+            if (hashConsCounter >= hashConsInterval) {
+                hashConsCounter = 0;
+                hashConsPointsToSets(false);
+            }
+        }
+    }
+
+    private void hashConsPointsToSets(boolean logRatio) {
+        List<PointsToSet> ptsList = Stream.<Stream<? extends Pointer>>of(
+                        csManager.getCSVars().stream(),
+                        csManager.getInstanceFields().stream(),
+                        csManager.getArrayIndexes().stream(),
+                        csManager.getStaticFields().stream())
+                .flatMap(Function.identity())
+                .map(Pointer.class::cast)
+                .map(Pointer::getPointsToSet)
+                .filter(pts -> pts != null && !pts.isEmpty())
+                .toList();
+        int distinct = ptsFactory.hashCons(ptsList.stream());
+        hashConsInterval = Math.max(ptsList.size(), MIN_HASH_CONS_INTERVAL);
+        if (logRatio) {
+            logger.info("Hash-consed {} non-empty points-to sets into {}" +
+                            " distinct sets, deduplication ratio: {}",
+                    ptsList.size(), distinct, String.format("%.2f",
+                            (double) ptsList.size() / Math.max(distinct, 1)));
+        }
+    }
+
+    /**
+     * Collapses given equivalent pointers (e.g., the pointers on a PFG
+     * cycle) to share a points-to set. Before sharing, each pointer
+     * receives the objects pointed to by the other pointers, and the new
+     * objects are processed in the same way as the entries in the work list.
+     */
+    private void collapse(List<Pointer> pointers) {
+        PointsToSet union = makePointsToSet();
+        pointers.forEach(p -> union.addAll(getPointsToSetOf(p)));
+        List<List<Pointer>> groups = new ArrayList<>(pointers.size());
+        List<PointsToSet> diffs = new ArrayList<>(pointers.size());
+        for (Pointer p : pointers) {
+            groups.add(cycleEliminator.getMembersOf(p));
+            diffs.add(getPointsToSetOf(p).addAllDiff(union));
+        }
+        Pointer rep = cycleEliminator.collapse(pointers);
+        PointsToSet shared = getPointsToSetOf(rep);
+        cycleEliminator.getMembersOf(rep)
+                .forEach(p -> p.setPointsToSet(shared));
+        for (int i = 0; i < groups.size(); ++i) {
+            PointsToSet diff = diffs.get(i);
+            if (!diff.isEmpty()) {
+                for (Pointer p : groups.get(i)) {
+                    for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(p)) {
+                        if (!cycleEliminator.isCollapsed(edge)) {
+                            addSharedPointsTo(edge.getTarget(),
+                                    edge.getTransfer().apply(edge, diff));
+                        }
+                    }
+                    processNewVarPointsTo(p, diff);
+                }
+            }
         }
-        return diff;
     }
 
     /**
@@ -281,7 +1109,7 @@ public class DefaultSolver implements Solver {
      * @param baseVar the base variable
      * @param pts     set of new discovered objects pointed by the variable.
      */
-    private void processInstanceStore(CSVar baseVar, PointsToSet pts) {
+    private void processInstanceStore(CSVar baseVar, Iterable<CSObj> pts) {
         Context context = baseVar.getContext();
         Var var = baseVar.getVar();
         for (StoreField store : var.getStoreFields()) {
@@ -303,7 +1131,7 @@ public class DefaultSolver implements Solver {
      * @param baseVar the base variable
      * @param pts     set of new discovered objects pointed by the variable.
      */
-    private void processInstanceLoad(CSVar baseVar, PointsToSet pts) {
+    private void processInstanceLoad(CSVar baseVar, Iterable<CSObj> pts) {
         Context context = baseVar.getContext();
         Var var = baseVar.getVar();
         for (LoadField load : var.getLoadFields()) {
@@ -326,7 +1154,7 @@ public class DefaultSolver implements Solver {
      * @param arrayVar the array variable
      * @param pts      set of new discovered arrays pointed by the variable.
      */
-    private void processArrayStore(CSVar arrayVar, PointsToSet pts) {
+    private void processArrayStore(CSVar arrayVar, Iterable<CSObj> pts) {
         Context context = arrayVar.getContext();
         Var var = arrayVar.getVar();
         for (StoreArray store : var.getStoreArrays()) {
@@ -350,7 +1178,7 @@ public class DefaultSolver implements Solver {
      * @param arrayVar the array variable
      * @param pts      set of new discovered arrays pointed by the variable.
      */
-    private void processArrayLoad(CSVar arrayVar, PointsToSet pts) {
+    private void processArrayLoad(CSVar arrayVar, Iterable<CSObj> pts) {
         Context context = arrayVar.getContext();
         Var var = arrayVar.getVar();
         for (LoadArray load : var.getLoadArrays()) {
@@ -371,70 +1199,109 @@ public class DefaultSolver implements Solver {
      * @param recv the receiver variable
      * @param pts  set of new discovered objects pointed by the variable.
      */
-    private void processCall(CSVar recv, PointsToSet pts) {
+    private void processCall(CSVar recv, Iterable<CSObj> pts) {
         Context context = recv.getContext();
         Var var = recv.getVar();
+        if (var.getInvokes().isEmpty()) {
+            return;
+        }
+        // group receiver objects by type, so that each callee is
+        // resolved once for all receiver objects of the same type
+        Map<Type, List<CSObj>> recvObjsByType = Maps.newHybridMap();
+        pts.forEach(recvObj -> recvObjsByType.computeIfAbsent(
+                        recvObj.getObject().getType(), unused -> new ArrayList<>())
+                .add(recvObj));
+        boolean receiverSensitive = contextSelector.isReceiverSensitive();
         for (Invoke callSite : var.getInvokes()) {
-            pts.forEach(recvObj -> {
+            recvObjsByType.forEach((type, recvObjs) -> {
                 // resolve callee
-                JMethod callee = CallGraphs.resolveCallee(
-                        recvObj.getObject().getType(), callSite);
+                JMethod callee = CallGraphs.resolveCallee(type, callSite);
                 if (callee != null) {
-                    // select context
                     CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
-                    Context calleeContext = contextSelector.selectContext(
-                            csCallSite, recvObj, callee);
-                    // build call edge
-                    CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
-                    addCallEdge(new Edge<>(CallGraphs.getCallKind(callSite),
-                            csCallSite, csCallee));
-                    // pass receiver object to *this* variable
-                    if (!isIgnored(callee)) {
-                        addVarPointsTo(calleeContext, callee.getIR().getThis(),
-                                recvObj);
+                    Var thisVar = isIgnored(callee) ? null : callee.getIR().getThis();
+                    if (receiverSensitive) {
+                        for (CSObj recvObj : recvObjs) {
+                            // select context
+                            Context calleeContext = contextSelector.selectContext(
+                                    csCallSite, recvObj, callee);
+                            addCallEdge(csCallSite, calleeContext, callee);
+                            // pass receiver object to *this* variable
+                            if (thisVar != null) {
+                                addVarPointsTo(calleeContext, thisVar, recvObj);
+                            }
+                        }
+                    } else {
+                        // the receiver objects share one callee context
+                        Context calleeContext = contextSelector.selectContext(
+                                csCallSite, recvObjs.get(0), callee);
+                        addCallEdge(csCallSite, calleeContext, callee);
+                        if (thisVar != null) {
+                            PointsToSet recvPts = makePointsToSet();
+                            recvObjs.forEach(recvPts::addObject);
+                            addVarPointsTo(calleeContext, thisVar, recvPts);
+                        }
                     }
                 } else {
-                    plugin.onUnresolvedCall(recvObj, context, callSite);
+                    recvObjs.forEach(recvObj ->
+                            plugin.onUnresolvedCall(recvObj, context, callSite));
                 }
             });
         }
     }
 
-    private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
+    /**
+     * Builds the call edge from given call site to given callee
+     * under given context.
+     */
+    private void addCallEdge(CSCallSite csCallSite, Context calleeContext,
+                             JMethod callee) {
+        CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+        addCallEdge(new Edge<>(CallGraphs.getCallKind(csCallSite.getCallSite()),
+                csCallSite, csCallee));
+    }
+
+    void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
         if (callGraph.addEdge(edge)) {
             // process new call edge
-            CSMethod csCallee = edge.getCallee();
-            addCSMethod(csCallee);
-            if (edge.getKind() != CallKind.OTHER
-                    && !isIgnored(csCallee.getMethod())) {
-                Context callerCtx = edge.getCallSite().getContext();
-                Invoke callSite = edge.getCallSite().getCallSite();
-                Context calleeCtx = csCallee.getContext();
-                JMethod callee = csCallee.getMethod();
-                InvokeExp invokeExp = callSite.getInvokeExp();
-                // pass arguments to parameters
-                for (int i = 0; i < invokeExp.getArgCount(); ++i) {
-                    Var arg = invokeExp.getArg(i);
-                    if (isConcerned(arg)) {
-                        Var param = callee.getIR().getParam(i);
-                        CSVar argVar = csManager.getCSVar(callerCtx, arg);
-                        CSVar paramVar = csManager.getCSVar(calleeCtx, param);
-                        addPFGEdge(argVar, paramVar, PointerFlowEdge.Kind.PARAMETER_PASSING);
-                    }
+            addCSMethod(edge.getCallee());
+            processCallEdgeFlows(edge);
+            plugin.onNewCallEdge(edge);
+        }
+    }
+
+    /**
+     * Adds the PFG edges for passing arguments and results along given call edge.
+     */
+    private void processCallEdgeFlows(Edge<CSCallSite, CSMethod> edge) {
+        CSMethod csCallee = edge.getCallee();
+        if (edge.getKind() != CallKind.OTHER
+                && !isIgnored(csCallee.getMethod())) {
+            Context callerCtx = edge.getCallSite().getContext();
+            Invoke callSite = edge.getCallSite().getCallSite();
+            Context calleeCtx = csCallee.getContext();
+            JMethod callee = csCallee.getMethod();
+            InvokeExp invokeExp = callSite.getInvokeExp();
+            // pass arguments to parameters
+            for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                Var arg = invokeExp.getArg(i);
+                if (isConcerned(arg)) {
+                    Var param = callee.getIR().getParam(i);
+                    CSVar argVar = csManager.getCSVar(callerCtx, arg);
+                    CSVar paramVar = csManager.getCSVar(calleeCtx, param);
+                    addPFGEdge(argVar, paramVar, PointerFlowEdge.Kind.PARAMETER_PASSING);
                 }
-                // pass results to LHS variable
-                Var lhs = callSite.getResult();
-                if (lhs != null && isConcerned(lhs)) {
-                    CSVar csLHS = csManager.getCSVar(callerCtx, lhs);
-                    for (Var ret : callee.getIR().getReturnVars()) {
-                        if (isConcerned(ret)) {
-                            CSVar csRet = csManager.getCSVar(calleeCtx, ret);
-                            addPFGEdge(csRet, csLHS, PointerFlowEdge.Kind.RETURN);
-                        }
+            }
+            // pass results to LHS variable
+            Var lhs = callSite.getResult();
+            if (lhs != null && isConcerned(lhs)) {
+                CSVar csLHS = csManager.getCSVar(callerCtx, lhs);
+                for (Var ret : callee.getIR().getReturnVars()) {
+                    if (isConcerned(ret)) {
+                        CSVar csRet = csManager.getCSVar(calleeCtx, ret);
+                        addPFGEdge(csRet, csLHS, PointerFlowEdge.Kind.RETURN);
                     }
                 }
             }
-            plugin.onNewCallEdge(edge);
         }
     }
 
@@ -449,6 +1316,9 @@ public class DefaultSolver implements Solver {
     private void processNewMethod(JMethod method) {
         if (reachableMethods.add(method)) {
             plugin.onNewMethod(method);
+        } else {
+            // the method is reachable in another context
+            ++extraContextCount;
         }
     }
 
@@ -590,7 +1460,12 @@ public class DefaultSolver implements Solver {
                 if (isConcerned(rvalue)) {
                     CSVar from = csManager.getCSVar(context, rvalue);
                     CSVar to = csManager.getCSVar(context, stmt.getLValue());
-                    addPFGEdge(from, to, PointerFlowEdge.Kind.LOCAL_ASSIGN);
+                    if (varEquivalence == null ||
+                            getRepresentative(from) != getRepresentative(to)) {
+                        // copies between collapsed equivalent variables
+                        // are not added to PFG
+                        addPFGEdge(from, to, PointerFlowEdge.Kind.LOCAL_ASSIGN);
+                    }
                 }
                 return null;
             }
@@ -651,14 +1526,12 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointsTo(Pointer pointer, PointsToSet pts) {
-        workList.addEntry(pointer, pts);
+        workList.addEntry(getRepresentative(pointer), pts);
     }
 
     @Override
     public void addPointsTo(Pointer pointer, CSObj csObj) {
-        PointsToSet pts = makePointsToSet();
-        pts.addObject(csObj);
-        addPointsTo(pointer, pts);
+        workList.addEntry(getRepresentative(pointer), csObj);
     }
 
     @Override
@@ -681,6 +1554,12 @@ public class DefaultSolver implements Solver {
         addPointsTo(csManager.getCSVar(context, var), heapContext, obj);
     }
 
+    @Override
+    public void addPFGEdge(Pointer source, Pointer target, PointerFlowEdge.Kind kind,
+                           Type type) {
+        addPFGEdge(source, target, kind, getTypeFilter(type));
+    }
+
     @Override
     public void addPFGEdge(Pointer source, Pointer target, PointerFlowEdge.Kind kind,
                            Transfer transfer) {
@@ -732,11 +1611,32 @@ public class DefaultSolver implements Solver {
                 return;
             }
             processNewMethod(method);
+            collapseEquivalentVars(csMethod);
             addStmts(csMethod, method.getIR().getStmts());
             plugin.onNewCSMethod(csMethod);
         }
     }
 
+    /**
+     * Collapses the equivalent variables of given CS method, so that
+     * the copies among them need not be propagated.
+     */
+    private void collapseEquivalentVars(CSMethod csMethod) {
+        if (varEquivalence != null) {
+            Context context = csMethod.getContext();
+            for (List<Var> group : varEquivalence.getClassesOf(csMethod.getMethod())) {
+                List<Pointer> reps = group.stream()
+                        .map(v -> getRepresentative(csManager.getCSVar(context, v)))
+                        .distinct()
+                        .toList();
+                if (reps.size() > 1) {
+                    collapse(reps);
+                    ++equivalentVarGroupCount;
+                }
+            }
+        }
+    }
+
     @Override
     public void addStmts(CSMethod csMethod, Collection<Stmt> stmts) {
         stmtProcessor.process(csMethod, stmts);
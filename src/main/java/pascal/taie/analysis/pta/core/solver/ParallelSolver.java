@@ -0,0 +1,216 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.AnalysisException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solver which propagates points-to sets with multiple threads.
+ * <p>
+ * The pointer entries in the work list are processed in rounds.
+ * In each round, the entries are sharded by pointer index, and each worker
+ * thread merges the entries of its shard into the points-to sets of
+ * the pointers and transfers the differences along the PFG edges.
+ * As each pointer belongs to exactly one shard, its points-to set is
+ * only updated by one thread. After that, the solver thread puts the
+ * transferred entries back to the work list, and processes the statements
+ * and plugins affected by the differences. Thus {@link CSManager},
+ * {@link PointerFlowGraph} and the plugins are never accessed concurrently,
+ * and this solver reaches the same fixed point as {@link DefaultSolver}.
+ */
+public class ParallelSolver extends DefaultSolver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    /**
+     * Number of threads for propagating points-to sets.
+     */
+    private final int nThreads;
+
+    public ParallelSolver(AnalysisOptions options, HeapModel heapModel,
+                          ContextSelector contextSelector, CSManager csManager) {
+        super(options, heapModel, contextSelector, csManager);
+        int n = options.getInt("thread-number");
+        nThreads = n > 0 ? n : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    void analyze() {
+        logger.info("Propagating points-to sets with {} threads", nThreads);
+        ExecutorService service = Executors.newFixedThreadPool(nThreads);
+        try {
+            WorkList workList = getWorkList();
+            while (!workList.isEmpty()) {
+                if (workList.hasCallEdges()) {
+                    // for correctness, call edges must be processed
+                    // prior to the pointer entries
+                    processCallEdge(workList.pollCallEdge());
+                } else {
+                    List<WorkList.PointerEntry> entries = workList.pollPointerEntries();
+                    List<Shard> shards = propagate(service, entries);
+                    shards.forEach(shard -> shard.outEntries.forEach(e -> {
+                        if (e instanceof WorkList.ObjectEntry oEntry) {
+                            addPointsTo(oEntry.pointer(), oEntry.object());
+                        } else {
+                            addSharedPointsTo(e.pointer(),
+                                    ((WorkList.SetEntry) e).pointsToSet());
+                        }
+                    }));
+                    shards.forEach(shard -> shard.diffs.forEach(e -> {
+                        if (e instanceof WorkList.ObjectEntry oEntry) {
+                            processNewPointsTo(oEntry.pointer(), oEntry.object());
+                        } else {
+                            processNewPointsTo(e.pointer(),
+                                    ((WorkList.SetEntry) e).pointsToSet());
+                        }
+                    }));
+                    eliminateCycles(entries.size());
+                    hashConsIfDue(entries.size());
+                }
+                checkpointIfDue();
+                checkBudgets();
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Propagates given pointer entries in parallel.
+     *
+     * @return the shards which hold the propagation results.
+     */
+    private List<Shard> propagate(ExecutorService service,
+                                  List<WorkList.PointerEntry> entries) {
+        int nShards = Math.min(nThreads, entries.size());
+        List<Shard> shards = new ArrayList<>(nShards);
+        for (int i = 0; i < nShards; ++i) {
+            shards.add(new Shard());
+        }
+        for (WorkList.PointerEntry entry : entries) {
+            // the pointers collapsed into the same PFG cycle share
+            // one points-to set, thus must belong to the same shard
+            Pointer rep = getRepresentative(entry.pointer());
+            shards.get(rep.getIndex() % nShards).inEntries.add(entry);
+        }
+        if (nShards == 1) {
+            // not worth dispatching a single shard to worker thread
+            shards.get(0).call();
+        } else {
+            try {
+                for (Future<Void> future : service.invokeAll(shards)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AnalysisException(
+                        "Interrupted when propagating points-to sets", e);
+            } catch (ExecutionException e) {
+                throw new AnalysisException(
+                        "Failed to propagate points-to sets", e.getCause());
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * A group of pointer entries propagated by the same thread.
+     */
+    private class Shard implements Callable<Void> {
+
+        /**
+         * Entries to be propagated.
+         */
+        private final List<WorkList.PointerEntry> inEntries = new ArrayList<>();
+
+        /**
+         * Pointers with their new discovered objects. A single new object
+         * is kept as an {@link WorkList.ObjectEntry} without points-to set.
+         */
+        private final List<WorkList.PointerEntry> diffs = new ArrayList<>();
+
+        /**
+         * Entries transferred to the successors of the propagated pointers.
+         */
+        private final List<WorkList.PointerEntry> outEntries = new ArrayList<>();
+
+        @Override
+        public Void call() {
+            for (WorkList.PointerEntry entry : inEntries) {
+                Pointer pointer = entry.pointer();
+                if (entry instanceof WorkList.ObjectEntry oEntry) {
+                    if (mergeEntry(oEntry)) {
+                        diffs.add(oEntry);
+                        CSObj obj = oEntry.object();
+                        forEachOutEdge(pointer, edge -> {
+                            if (isFilter(edge.getTransfer())) {
+                                if (transfer(edge, obj)) {
+                                    outEntries.add(new WorkList.ObjectEntry(
+                                            edge.getTarget(), obj));
+                                }
+                            } else {
+                                PointsToSet single = makePointsToSet();
+                                single.addObject(obj);
+                                PointsToSet pts = edge.getTransfer().apply(edge, single);
+                                if (!pts.isEmpty()) {
+                                    outEntries.add(new WorkList.SetEntry(
+                                            edge.getTarget(), pts));
+                                }
+                            }
+                        });
+                    }
+                    continue;
+                }
+                PointsToSet diff = mergeEntry((WorkList.SetEntry) entry);
+                if (diff != null) {
+                    diffs.add(new WorkList.SetEntry(pointer, diff));
+                    forEachOutEdge(pointer, edge -> {
+                        PointsToSet pts = edge.getTransfer().apply(edge, diff);
+                        if (!pts.isEmpty()) {
+                            outEntries.add(new WorkList.SetEntry(
+                                    edge.getTarget(), pts));
+                        }
+                    });
+                }
+            }
+            return null;
+        }
+    }
+}
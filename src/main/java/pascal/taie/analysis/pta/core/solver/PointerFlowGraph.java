@@ -23,25 +23,64 @@
 package pascal.taie.analysis.pta.core.solver;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
-import pascal.taie.util.graph.Edge;
 import pascal.taie.util.graph.Graph;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * The out edges are stored in the source pointers. The in edges are
+ * only indexed if required (e.g., for retracting the edges of some
+ * pointers in incremental analysis), otherwise, the methods about
+ * in edges and predecessors throw {@link UnsupportedOperationException}.
  */
 public class PointerFlowGraph implements Graph<Pointer> {
 
     private final Set<Pointer> pointers = Sets.newSet();
 
+    /**
+     * Map from a pointer to its in edges, or {@code null}
+     * if the in edges are not indexed.
+     */
+    @Nullable
+    private final MultiMap<Pointer, PointerFlowEdge> inEdges;
+
+    public PointerFlowGraph() {
+        this(false);
+    }
+
+    /**
+     * @param indexInEdges whether to index the in edges of the pointers.
+     */
+    public PointerFlowGraph(boolean indexInEdges) {
+        inEdges = indexInEdges ? Maps.newMultiMap() : null;
+    }
+
     public boolean addEdge(PointerFlowEdge edge) {
         if (edge.getSource().addOutEdge(edge)) {
             pointers.add(edge.getSource());
             pointers.add(edge.getTarget());
+            if (inEdges != null) {
+                inEdges.put(edge.getTarget(), edge);
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public boolean removeEdge(PointerFlowEdge edge) {
+        if (edge.getSource().removeOutEdge(edge)) {
+            if (inEdges != null) {
+                inEdges.remove(edge.getTarget(), edge);
+            }
             return true;
         } else {
             return false;
@@ -49,8 +88,12 @@ public class PointerFlowGraph implements Graph<Pointer> {
     }
 
     @Override
-    public Set<? extends Edge<Pointer>> getInEdgesOf(Pointer node) {
-        throw new UnsupportedOperationException();
+    public Set<PointerFlowEdge> getInEdgesOf(Pointer pointer) {
+        if (inEdges == null) {
+            throw new UnsupportedOperationException(
+                    "In edges of pointer flow graph are not indexed");
+        }
+        return inEdges.get(pointer);
     }
 
     @Override
@@ -74,7 +117,8 @@ public class PointerFlowGraph implements Graph<Pointer> {
 
     @Override
     public Set<Pointer> getPredsOf(Pointer node) {
-        throw new UnsupportedOperationException();
+        return Views.toMappedSet(getInEdgesOf(node),
+                PointerFlowEdge::getSource);
     }
 
     @Override
@@ -0,0 +1,128 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.ir.IRWriter;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassMember;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Digests of the analyzed program, which identify the version of
+ * the program that a {@link Checkpoint} is written for.
+ * <p>
+ * The class hierarchy (i.e., the classes and the signatures of their
+ * members, which decide method dispatch and field resolution) is
+ * digested as a whole, and the IR of each method is digested separately,
+ * so that the methods whose bodies change can be found. As the IR
+ * contains line numbers, the methods which follow a changed method
+ * in the same source file are usually found changed as well.
+ * The digests are cached, as the program does not change
+ * during the analysis.
+ */
+class ProgramDigest {
+
+    private final ClassHierarchy hierarchy;
+
+    private String hierarchyDigest;
+
+    private final Map<JMethod, String> methodDigests = Maps.newMap();
+
+    ProgramDigest(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * @return digest of the class hierarchy.
+     */
+    String getHierarchyDigest() {
+        if (hierarchyDigest == null) {
+            MessageDigest digest = newDigest();
+            hierarchy.allClasses()
+                    .sorted(Comparator.comparing(JClass::getName))
+                    .forEach(c -> {
+                        update(digest, c.getName());
+                        update(digest, c.isInterface() + " " + c.isAbstract());
+                        JClass superclass = c.getSuperClass();
+                        update(digest, superclass != null ? superclass.getName() : "");
+                        c.getInterfaces()
+                                .stream()
+                                .map(JClass::getName)
+                                .sorted()
+                                .forEach(i -> update(digest, i));
+                        Stream.concat(c.getDeclaredFields().stream(),
+                                        c.getDeclaredMethods().stream())
+                                .map(ProgramDigest::describe)
+                                .sorted()
+                                .forEach(m -> update(digest, m));
+                    });
+            hierarchyDigest = HexFormat.of().formatHex(digest.digest());
+        }
+        return hierarchyDigest;
+    }
+
+    /**
+     * @return digest of the IR of given method, or an empty string
+     * if the IR cannot be encoded.
+     */
+    String getMethodDigest(JMethod method) {
+        return methodDigests.computeIfAbsent(method, m -> {
+            try {
+                byte[] ir = IRWriter.write(m.getIR());
+                return HexFormat.of().formatHex(newDigest().digest(ir));
+            } catch (IllegalArgumentException e) {
+                return "";
+            }
+        });
+    }
+
+    private static String describe(ClassMember member) {
+        String desc = (member.isStatic() ? "static " : "") + member.getSignature();
+        return member instanceof JMethod m && m.isAbstract()
+                ? "abstract " + desc : desc;
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+    }
+}
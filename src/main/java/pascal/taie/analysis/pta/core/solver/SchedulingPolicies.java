@@ -0,0 +1,229 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Provides static factory methods for {@link SchedulingPolicy}.
+ */
+final class SchedulingPolicies {
+
+    private SchedulingPolicies() {
+    }
+
+    /**
+     * @param policy name of the policy, i.e., fifo, topo, or lrf.
+     * @param pfg    the pointer flow graph of the analysis.
+     * @return the scheduling policy of given name.
+     */
+    static SchedulingPolicy make(String policy, PointerFlowGraph pfg) {
+        return switch (policy) {
+            case "fifo" -> new FIFO();
+            case "topo" -> new Topological(pfg);
+            case "lrf" -> new LeastRecentlyFired();
+            default -> throw new ConfigException(
+                    "Unknown work list policy: " + policy);
+        };
+    }
+
+    /**
+     * Processes the pointers in the order they are added.
+     */
+    private static class FIFO implements SchedulingPolicy {
+
+        private final Queue<Pointer> queue = new ArrayDeque<>();
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            return queue.remove();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+
+    /**
+     * Processes the pointers in topological order of the PFG, so that
+     * a pointer is processed after its predecessors, and the objects
+     * arriving at it from the predecessors are propagated together.
+     * <p>
+     * The pointers are processed in rounds. The pointers added in current
+     * round are deferred to the next round, and sorted by their ranks in
+     * the topological order when the next round starts. Since the PFG
+     * keeps growing during the analysis, the ranks are recomputed (by
+     * computing the SCCs of PFG) when enough new pointers have been
+     * added to the PFG since last computation.
+     */
+    private static class Topological implements SchedulingPolicy {
+
+        /**
+         * The ranks are recomputed when the number of pointers in PFG
+         * grows by this ratio.
+         */
+        private static final double RANK_GROWTH_RATIO = 1.1;
+
+        private final PointerFlowGraph pfg;
+
+        /**
+         * Ranks of pointers in topological order, indexed by pointer index.
+         * 0 means that the pointer has not been ranked.
+         */
+        private int[] ranks = new int[0];
+
+        /**
+         * Number of pointers in PFG when the ranks were computed.
+         */
+        private int rankedPointers = 0;
+
+        private final Queue<Pointer> current = new PriorityQueue<>(
+                Comparator.comparingInt(this::getRank));
+
+        private final List<Pointer> next = new ArrayList<>();
+
+        private Topological(PointerFlowGraph pfg) {
+            this.pfg = pfg;
+        }
+
+        @Override
+        public void add(Pointer pointer) {
+            next.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            if (current.isEmpty()) {
+                int nPointers = pfg.getNumberOfNodes();
+                if (nPointers > rankedPointers * RANK_GROWTH_RATIO) {
+                    computeRanks();
+                    rankedPointers = nPointers;
+                }
+                current.addAll(next);
+                next.clear();
+            }
+            return current.remove();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return current.isEmpty() && next.isEmpty();
+        }
+
+        private void computeRanks() {
+            // SCC outputs the components in reverse topological order
+            List<List<Pointer>> components = new SCC<>(pfg).getComponents();
+            int rank = components.size();
+            for (List<Pointer> component : components) {
+                for (Pointer p : component) {
+                    int index = p.getIndex();
+                    if (index >= ranks.length) {
+                        ranks = Arrays.copyOf(ranks,
+                                Math.max(index + 1, ranks.length * 2));
+                    }
+                    ranks[index] = rank;
+                }
+                --rank;
+            }
+        }
+
+        /**
+         * @return rank of given pointer. The pointers which have not
+         * been ranked are processed after the ranked ones.
+         */
+        private int getRank(Pointer pointer) {
+            int index = pointer.getIndex();
+            int rank = index < ranks.length ? ranks[index] : 0;
+            return rank != 0 ? rank : Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Processes the pointer which was least recently processed (fired)
+     * first. The pointers that have never been fired are processed
+     * prior to the others.
+     */
+    private static class LeastRecentlyFired implements SchedulingPolicy {
+
+        /**
+         * Last time when each pointer was fired, indexed by pointer index.
+         */
+        private long[] fireTimes = new long[1024];
+
+        /**
+         * Logical clock which increases each time a pointer is fired.
+         */
+        private long clock = 0;
+
+        private final Queue<Item> queue = new PriorityQueue<>(
+                Comparator.comparingLong(Item::time));
+
+        @Override
+        public void add(Pointer pointer) {
+            int index = pointer.getIndex();
+            long time = index < fireTimes.length ? fireTimes[index] : 0;
+            queue.add(new Item(pointer, time));
+        }
+
+        @Override
+        public Pointer poll() {
+            Pointer pointer = queue.remove().pointer();
+            int index = pointer.getIndex();
+            if (index >= fireTimes.length) {
+                fireTimes = Arrays.copyOf(fireTimes,
+                        Math.max(index + 1, fireTimes.length * 2));
+            }
+            fireTimes[index] = ++clock;
+            return pointer;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        /**
+         * A pointer with the last time it was fired. As a pointer is
+         * not fired while it is in the queue, its fire time is fixed
+         * during this period.
+         */
+        private record Item(Pointer pointer, long time) {
+        }
+    }
+}
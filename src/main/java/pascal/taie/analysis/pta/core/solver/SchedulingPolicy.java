@@ -0,0 +1,52 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+
+/**
+ * Decides the order in which the pointers in work list are processed.
+ * <p>
+ * A pointer is added to the policy when it obtains a pending entry in
+ * the work list, and is not added again until it has been polled,
+ * thus each pointer occurs in the policy at most once.
+ *
+ * @see SchedulingPolicies
+ */
+interface SchedulingPolicy {
+
+    /**
+     * Adds a pointer which has a new pending entry.
+     */
+    void add(Pointer pointer);
+
+    /**
+     * Retrieves and removes the pointer to be processed next.
+     */
+    Pointer poll();
+
+    /**
+     * @return true if this policy contains no pointers, otherwise false.
+     */
+    boolean isEmpty();
+}
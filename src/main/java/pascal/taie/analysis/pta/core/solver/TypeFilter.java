@@ -22,18 +22,39 @@
 
 package pascal.taie.analysis.pta.core.solver;
 
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
  * Transfer function that filters out the objects whose types are NOT
  * subtypes of specific type.
+ * <p>
+ * The results of subtype checks are cached for each object (indexed by
+ * {@link Obj#getIndex()}), so that the objects propagated along
+ * the filter repeatedly (e.g., in different contexts) are checked
+ * by one array access instead of querying class hierarchy.
+ * The cache is safe to be accessed by multiple threads, as each result
+ * is written as a single byte, and a lost write only causes
+ * the result to be computed again.
  */
 public class TypeFilter implements Transfer {
 
+    /**
+     * Cache states of each object.
+     */
+    private static final byte UNKNOWN = 0;
+
+    private static final byte SUBTYPE = 1;
+
+    private static final byte NOT_SUBTYPE = 2;
+
     /**
      * The guard type.
      */
@@ -43,21 +64,110 @@ public class TypeFilter implements Transfer {
 
     private final Supplier<PointsToSet> ptsFactory;
 
+    /**
+     * Results of subtype checks, indexed by object index.
+     */
+    private volatile byte[] states = new byte[0];
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
     public TypeFilter(Type type, Solver solver) {
         this.type = type;
         this.typeSystem = solver.getTypeSystem();
         this.ptsFactory = solver::makePointsToSet;
     }
 
+    /**
+     * @return the guard type of this filter.
+     */
+    Type getType() {
+        return type;
+    }
+
     @Override
     public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
         PointsToSet result = ptsFactory.get();
-        input.objects()
-                .filter(o -> typeSystem.isSubtype(type, o.getObject().getType()))
-                .forEach(result::addObject);
+        byte[] states = this.states;
+        int nHits = 0;
+        for (CSObj o : input) {
+            Obj obj = o.getObject();
+            int index = obj.getIndex();
+            byte state = index < states.length ? states[index] : UNKNOWN;
+            if (state == UNKNOWN) {
+                state = typeSystem.isSubtype(type, obj.getType()) ?
+                        SUBTYPE : NOT_SUBTYPE;
+                states = setState(index, state);
+                misses.increment();
+            } else {
+                ++nHits;
+            }
+            if (state == SUBTYPE) {
+                result.addObject(o);
+            }
+        }
+        hits.add(nHits);
         return result;
     }
 
+    /**
+     * Single-object version of {@link #apply(PointerFlowEdge, PointsToSet)},
+     * which creates no points-to set.
+     *
+     * @return {@code true} if given object passes this filter.
+     */
+    boolean accepts(CSObj o) {
+        Obj obj = o.getObject();
+        int index = obj.getIndex();
+        byte[] states = this.states;
+        byte state = index < states.length ? states[index] : UNKNOWN;
+        if (state == UNKNOWN) {
+            state = typeSystem.isSubtype(type, obj.getType()) ?
+                    SUBTYPE : NOT_SUBTYPE;
+            setState(index, state);
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return state == SUBTYPE;
+    }
+
+    /**
+     * Records subtype check result of the object at given index.
+     *
+     * @return the state array after recording.
+     */
+    private byte[] setState(int index, byte state) {
+        byte[] states = this.states;
+        if (index >= states.length) {
+            synchronized (this) {
+                states = this.states;
+                if (index >= states.length) {
+                    states = Arrays.copyOf(states,
+                            Math.max(index + 1, states.length * 2));
+                    this.states = states;
+                }
+            }
+        }
+        states[index] = state;
+        return states;
+    }
+
+    /**
+     * @return the number of subtype checks answered by the cache.
+     */
+    long getCacheHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of subtype checks that query type system.
+     */
+    long getCacheMisses() {
+        return misses.sum();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
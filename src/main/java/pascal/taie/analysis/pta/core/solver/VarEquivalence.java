@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline pre-analysis which finds pointer-equivalent variables,
+ * in the spirit of hash-based value numbering (HVN) and HU.
+ * <p>
+ * A variable is equivalent to another one if all its definitions are
+ * copies from the variables in the same equivalence class (ignoring
+ * the copies inside its own class), e.g., a variable which is only
+ * assigned once by a copy. Parameters, this variables and the variables
+ * defined by other statements (e.g., new, cast, load and invoke) may
+ * receive objects from elsewhere, thus they are never merged into other
+ * classes, but they can be the representatives of their classes.
+ * The same holds for the bases and arguments of invocations, as plugins
+ * (e.g., reflection and taint analyses) may add objects to them directly.
+ * <p>
+ * The analysis is intra-procedural, so that equivalent variables in the
+ * same context can share one points-to set. It runs on each method when
+ * the method is first queried, which is before the solver processes
+ * any statement of the method.
+ * <p>
+ * The variables in each class have the same points-to set at the fixed
+ * point. Only representatives may receive objects from plugins directly,
+ * as the objects added to a merged variable would be shared by
+ * the whole class.
+ */
+class VarEquivalence {
+
+    /**
+     * Map from each method to the equivalence classes of its variables.
+     * Each class contains at least two variables, and the first one
+     * is its representative.
+     */
+    private final Map<JMethod, List<List<Var>>> classes = Maps.newConcurrentMap();
+
+    /**
+     * @return the equivalence classes of the variables in given method.
+     * Each class contains at least two variables, and the first one
+     * is its representative.
+     */
+    List<List<Var>> getClassesOf(JMethod method) {
+        return classes.computeIfAbsent(method, this::computeClasses);
+    }
+
+    private List<List<Var>> computeClasses(JMethod method) {
+        IR ir = method.getIR();
+        // collect the sources of the variables which are defined only by copies
+        MultiMap<Var, Var> sources = Maps.newMultiMap();
+        // variables which are never merged into other classes
+        Set<Var> unmergeable = Sets.newSet();
+        unmergeable.addAll(ir.getParams());
+        if (ir.getThis() != null) {
+            unmergeable.add(ir.getThis());
+        }
+        for (Stmt stmt : ir) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    if (stmt instanceof Copy copy) {
+                        sources.put(var, copy.getRValue());
+                    } else {
+                        unmergeable.add(var);
+                    }
+                }
+            });
+            if (stmt instanceof Invoke invoke) {
+                InvokeExp invokeExp = invoke.getInvokeExp();
+                if (invokeExp instanceof InvokeInstanceExp instanceExp) {
+                    unmergeable.add(instanceExp.getBase());
+                }
+                unmergeable.addAll(invokeExp.getArgs());
+            }
+        }
+        List<Var> candidates = new ArrayList<>();
+        for (Var var : sources.keySet()) {
+            if (isConcerned(var) && !unmergeable.contains(var)) {
+                candidates.add(var);
+            }
+        }
+        // merge the candidates until fixed point
+        Map<Var, Var> parents = Maps.newMap();
+        boolean changed;
+        do {
+            changed = false;
+            for (Var var : candidates) {
+                if (find(parents, var) != var) {
+                    continue;
+                }
+                Var rep = null;
+                boolean unique = true;
+                for (Var source : sources.get(var)) {
+                    Var sourceRep = find(parents, source);
+                    if (sourceRep == var) {
+                        continue;
+                    }
+                    if (rep == null) {
+                        rep = sourceRep;
+                    } else if (rep != sourceRep) {
+                        unique = false;
+                        break;
+                    }
+                }
+                if (unique && rep != null) {
+                    parents.put(var, rep);
+                    changed = true;
+                }
+            }
+        } while (changed);
+        // group the variables by their representatives
+        Map<Var, List<Var>> groups = Maps.newMap();
+        for (Var var : parents.keySet()) {
+            Var rep = find(parents, var);
+            groups.computeIfAbsent(rep, r -> {
+                List<Var> group = new ArrayList<>();
+                group.add(r);
+                return group;
+            }).add(var);
+        }
+        return List.copyOf(groups.values());
+    }
+
+    private static Var find(Map<Var, Var> parents, Var var) {
+        Var parent = parents.get(var);
+        if (parent == null) {
+            return var;
+        }
+        Var root = find(parents, parent);
+        if (root != parent) {
+            parents.put(var, root);
+        }
+        return root;
+    }
+
+    private static boolean isConcerned(Var var) {
+        Type type = var.getType();
+        return type instanceof ReferenceType && !(type instanceof NullType);
+    }
+}
@@ -25,14 +25,21 @@ package pascal.taie.analysis.pta.core.solver;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 
 import java.util.ArrayDeque;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.stream.IntStream;
 
 /**
  * Represents work list in pointer analysis.
@@ -40,24 +47,164 @@ import java.util.Queue;
 final class WorkList {
 
     /**
-     * Pointer entries to be processed.
+     * Objects to be propagated to each pointer, indexed by pointer index.
+     * Each element is either null (no pending objects), a {@link CSObj}
+     * (single pending object, which needs no points-to set),
+     * or a {@link PointsToSet}.
      */
-    private final Map<Pointer, PointsToSet> pointerEntries = new LinkedHashMap<>();
+    private Object[] pendings = new Object[1024];
+
+    /**
+     * Whether the pending points-to set of each pointer is owned by this
+     * work list, indexed by pointer index. The sets that are not owned
+     * may be shared with others, thus must be copied before being modified.
+     */
+    private boolean[] owned = new boolean[1024];
+
+    /**
+     * Number of pointers that have pending objects.
+     */
+    private int pendingCount = 0;
+
+    private final PointsToSetFactory ptsFactory;
+
+    /**
+     * Decides the processing order of the pointer entries.
+     */
+    private final SchedulingPolicy policy;
+
+    /**
+     * Number of times each pointer has been processed, indexed by pointer index.
+     */
+    private int[] processCounts = new int[1024];
+
+    /**
+     * Pointers that have been added to this work list, indexed by pointer index.
+     */
+    private Pointer[] pointers = new Pointer[1024];
+
+    /**
+     * Total number of processed pointer entries.
+     */
+    private long totalProcessCount = 0;
 
     /**
      * Call edges to be processed.
      */
     private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
 
+    WorkList(SchedulingPolicy policy, PointsToSetFactory ptsFactory) {
+        this.policy = policy;
+        this.ptsFactory = ptsFactory;
+    }
+
+    /**
+     * Adds a single object to be propagated to given pointer.
+     * If the pointer has no other pending objects, no points-to set
+     * is created for the entry.
+     */
+    void addEntry(Pointer pointer, CSObj obj) {
+        int index = ensureCapacity(pointer);
+        Object pending = pendings[index];
+        if (pending == null) {
+            pendings[index] = obj;
+            addPending(pointer);
+        } else if (pending instanceof CSObj pendingObj) {
+            if (pendingObj != obj) {
+                PointsToSet set = ptsFactory.make(pendingObj);
+                set.addObject(obj);
+                pendings[index] = set;
+                owned[index] = true;
+            }
+        } else {
+            PointsToSet set = (PointsToSet) pending;
+            if (!owned[index]) {
+                if (set.contains(obj)) {
+                    return;
+                }
+                set = own(index, set);
+            }
+            set.addObject(obj);
+        }
+    }
+
+    /**
+     * Adds objects to be propagated to given pointer.
+     * The given set is copied, so it can be modified by the caller
+     * after this call.
+     */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        PointsToSet set = pointerEntries.get(pointer);
-        if (set != null) {
-            set.addAll(pointsToSet);
+        addEntry(pointer, pointsToSet, false);
+    }
+
+    /**
+     * Adds objects to be propagated to given pointer.
+     * The given set is shared with this work list and copied only when
+     * more objects are merged into it, thus it must NOT be modified
+     * after this call. This avoids copying the sets (e.g., the diff of
+     * a pointer) that are propagated to many successors.
+     */
+    void addSharedEntry(Pointer pointer, PointsToSet pointsToSet) {
+        addEntry(pointer, pointsToSet, true);
+    }
+
+    private void addEntry(Pointer pointer, PointsToSet pointsToSet,
+                          boolean shared) {
+        int index = ensureCapacity(pointer);
+        Object pending = pendings[index];
+        if (pending == null) {
+            if (shared) {
+                pendings[index] = pointsToSet;
+                owned[index] = false;
+            } else {
+                pendings[index] = pointsToSet.copy();
+                owned[index] = true;
+            }
+            addPending(pointer);
+        } else if (pending instanceof CSObj pendingObj) {
+            PointsToSet set = pointsToSet.copy();
+            set.addObject(pendingObj);
+            pendings[index] = set;
+            owned[index] = true;
         } else {
-            pointerEntries.put(pointer, pointsToSet.copy());
+            PointsToSet set = (PointsToSet) pending;
+            if (!owned[index]) {
+                set = own(index, set);
+            }
+            set.addAll(pointsToSet);
         }
     }
 
+    private PointsToSet own(int index, PointsToSet set) {
+        PointsToSet copy = set.copy();
+        pendings[index] = copy;
+        owned[index] = true;
+        return copy;
+    }
+
+    private void addPending(Pointer pointer) {
+        pointers[pointer.getIndex()] = pointer;
+        ++pendingCount;
+        policy.add(pointer);
+    }
+
+    /**
+     * Ensures that the arrays indexed by pointer index can hold given pointer.
+     *
+     * @return index of the pointer.
+     */
+    private int ensureCapacity(Pointer pointer) {
+        int index = pointer.getIndex();
+        if (index >= pendings.length) {
+            int newLength = Math.max(index + 1, pendings.length * 2);
+            pendings = Arrays.copyOf(pendings, newLength);
+            owned = Arrays.copyOf(owned, newLength);
+            processCounts = Arrays.copyOf(processCounts, newLength);
+            pointers = Arrays.copyOf(pointers, newLength);
+        }
+        return index;
+    }
+
     void addEntry(Edge<CSCallSite, CSMethod> edge) {
         callEdges.add(edge);
     }
@@ -67,25 +214,143 @@ final class WorkList {
             // for correctness, we need to ensure that any call edges in
             // the work list must be processed prior to the pointer entries
             return new CallEdgeEntry(callEdges.poll());
-        } else if (!pointerEntries.isEmpty()) {
-            var it = pointerEntries.entrySet().iterator();
-            var e = it.next();
-            it.remove();
-            return new PointerEntry(e.getKey(), e.getValue());
+        } else if (pendingCount > 0) {
+            return pollPointerEntry();
         } else {
             throw new NoSuchElementException();
         }
     }
 
+    /**
+     * @return true if there are call edges to be processed, otherwise false.
+     */
+    boolean hasCallEdges() {
+        return !callEdges.isEmpty();
+    }
+
+    /**
+     * Retrieves and removes the first call edge in this work list.
+     */
+    Edge<CSCallSite, CSMethod> pollCallEdge() {
+        Edge<CSCallSite, CSMethod> edge = callEdges.poll();
+        if (edge == null) {
+            throw new NoSuchElementException();
+        }
+        return edge;
+    }
+
+    /**
+     * Retrieves and removes all pointer entries in this work list.
+     * Each pointer occurs in at most one of the returned entries.
+     */
+    List<PointerEntry> pollPointerEntries() {
+        List<PointerEntry> entries = new ArrayList<>(pendingCount);
+        while (pendingCount > 0) {
+            entries.add(pollPointerEntry());
+        }
+        return entries;
+    }
+
+    /**
+     * @return the call edges in this work list, without removing them.
+     */
+    Collection<Edge<CSCallSite, CSMethod>> getCallEdges() {
+        return Collections.unmodifiableCollection(callEdges);
+    }
+
+    /**
+     * @return the pointer entries in this work list, without removing them.
+     */
+    List<PointerEntry> getPointerEntries() {
+        List<PointerEntry> entries = new ArrayList<>(pendingCount);
+        for (int i = 0; i < pendings.length; ++i) {
+            Object pending = pendings[i];
+            if (pending != null) {
+                entries.add(makeEntry(pointers[i], pending));
+            }
+        }
+        return entries;
+    }
+
+    private PointerEntry pollPointerEntry() {
+        Pointer pointer = policy.poll();
+        int index = pointer.getIndex();
+        Object pending = pendings[index];
+        pendings[index] = null;
+        --pendingCount;
+        // record process count
+        ++processCounts[index];
+        ++totalProcessCount;
+        return makeEntry(pointer, pending);
+    }
+
+    private static PointerEntry makeEntry(Pointer pointer, Object pending) {
+        return pending instanceof CSObj obj ?
+                new ObjectEntry(pointer, obj) :
+                new SetEntry(pointer, (PointsToSet) pending);
+    }
+
     boolean isEmpty() {
-        return pointerEntries.isEmpty() && callEdges.isEmpty();
+        return pendingCount == 0 && callEdges.isEmpty();
+    }
+
+    /**
+     * @return the number of times given pointer has been processed.
+     */
+    int getProcessCount(Pointer pointer) {
+        int index = pointer.getIndex();
+        return index < processCounts.length ? processCounts[index] : 0;
+    }
+
+    /**
+     * @return the total number of processed pointer entries.
+     */
+    long getTotalProcessCount() {
+        return totalProcessCount;
+    }
+
+    /**
+     * @return the number of pointers that have been processed.
+     */
+    int getProcessedPointerCount() {
+        return (int) Arrays.stream(processCounts)
+                .filter(count -> count > 0)
+                .count();
+    }
+
+    /**
+     * @return at most k pointers that have been processed most times,
+     * in descending order of their process counts.
+     */
+    List<Pointer> getMostProcessedPointers(int k) {
+        return IntStream.range(0, processCounts.length)
+                .filter(i -> processCounts[i] > 0)
+                .boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> processCounts[i])
+                        .reversed())
+                .limit(k)
+                .map(i -> pointers[i])
+                .toList();
     }
 
     interface Entry {
     }
 
-    record PointerEntry(Pointer pointer, PointsToSet pointsToSet)
-            implements Entry {
+    /**
+     * Entry of a pointer with the objects to be propagated to it.
+     */
+    sealed interface PointerEntry extends Entry
+            permits SetEntry, ObjectEntry {
+
+        Pointer pointer();
+    }
+
+    record SetEntry(Pointer pointer, PointsToSet pointsToSet)
+            implements PointerEntry {
+    }
+
+    record ObjectEntry(Pointer pointer, CSObj object)
+            implements PointerEntry {
     }
 
     record CallEdgeEntry(Edge<CSCallSite, CSMethod> edge)
@@ -0,0 +1,72 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Builds a {@link PointsToQueryEngine} on the call graph given by
+ * {@link CallGraphBuilder}. The engine answers points-to and alias
+ * queries on demand, without solving the whole program, thus the call
+ * graph is expected to be built by class hierarchy analysis
+ * (i.e., cg=algorithm:cha).
+ */
+public class DemandPointerAnalysis extends ProgramAnalysis<PointsToQueryEngine> {
+
+    public static final String ID = "demand-pta";
+
+    private static final Logger logger = LogManager.getLogger(DemandPointerAnalysis.class);
+
+    public DemandPointerAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public PointsToQueryEngine analyze() {
+        AnalysisOptions options = getOptions();
+        int budget = options.getInt("budget");
+        if (budget <= 0) {
+            throw new ConfigException("Illegal budget of demand-driven " +
+                    "pointer analysis: " + budget);
+        }
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        PointsToQueryEngine engine = new PointsToQueryEngine(callGraph,
+                new AllocationSiteBasedModel(options), budget);
+        FlowGraph graph = engine.getFlowGraph();
+        logger.info("Flow graph of demand-driven pointer analysis has" +
+                        " {} nodes and {} edges",
+                graph.getNumberOfNodes(), graph.getNumberOfEdges());
+        return engine;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Context-insensitive pointer flow graph on which demand-driven queries
+ * are answered. The nodes of the graph are variables and static fields,
+ * and the edges are labeled by {@link PointerFlowEdge.Kind}.
+ * Instance field and array accesses are not resolved to edges,
+ * instead, they are kept as loads and stores, and matched on demand.
+ */
+class FlowGraph {
+
+    private final HeapModel heapModel;
+
+    private final ClassHierarchy hierarchy;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Map from each variable to the objects allocated to it.
+     */
+    private final MultiMap<Var, Obj> allocations = Maps.newMultiMap();
+
+    /**
+     * Map from each node (a variable or a static field) to its incoming edges.
+     */
+    private final MultiMap<Object, FlowEdge> inEdges = Maps.newMultiMap();
+
+    /**
+     * Map from each variable to the instance field/array loads
+     * whose left-hand side is the variable.
+     */
+    private final MultiMap<Var, Load> loads = Maps.newMultiMap();
+
+    private final MultiMap<JField, Store> fieldStores = Maps.newMultiMap();
+
+    private final Set<Store> arrayStores = Sets.newSet();
+
+    private final Set<Obj> objects = Sets.newSet();
+
+    FlowGraph(CallGraph<Invoke, JMethod> callGraph, HeapModel heapModel) {
+        this.heapModel = heapModel;
+        this.hierarchy = World.get().getClassHierarchy();
+        this.typeSystem = World.get().getTypeSystem();
+        StmtVisitor<Void> visitor = new Visitor();
+        callGraph.reachableMethods()
+                .filter(m -> !m.isAbstract())
+                .forEach(m -> m.getIR().forEach(stmt -> stmt.accept(visitor)));
+        callGraph.edges().forEach(this::addCallEdge);
+    }
+
+    /**
+     * Edge from source to the node that owns this edge. If filter is
+     * not {@code null}, only the objects satisfying it flow along the edge.
+     */
+    record FlowEdge(PointerFlowEdge.Kind kind, Object source,
+                    @Nullable Predicate<Obj> filter) {
+    }
+
+    /**
+     * Load from base.field, or from base[*] if field is {@code null}.
+     */
+    record Load(Var base, @Nullable JField field) {
+    }
+
+    /**
+     * Store of value to base.field or base[*].
+     */
+    record Store(Var base, Var value) {
+    }
+
+    Set<Obj> getAllocationsOf(Var var) {
+        return allocations.get(var);
+    }
+
+    /**
+     * @param node a variable or a static field.
+     */
+    Set<FlowEdge> getInEdgesOf(Object node) {
+        return inEdges.get(node);
+    }
+
+    Set<Load> getLoadsTo(Var var) {
+        return loads.get(var);
+    }
+
+    /**
+     * @return stores to given field, or array stores if field is {@code null}.
+     */
+    Collection<Store> getStoresTo(@Nullable JField field) {
+        return field != null ? fieldStores.get(field) : arrayStores;
+    }
+
+    /**
+     * @return all objects allocated in the graph.
+     */
+    Set<Obj> getObjects() {
+        return objects;
+    }
+
+    int getNumberOfNodes() {
+        return inEdges.keySet().size();
+    }
+
+    int getNumberOfEdges() {
+        return inEdges.size();
+    }
+
+    private void addAllocation(Var var, Obj obj) {
+        allocations.put(var, obj);
+        objects.add(obj);
+    }
+
+    private void addEdge(PointerFlowEdge.Kind kind, Object source, Object target) {
+        addEdge(kind, source, target, null);
+    }
+
+    private void addEdge(PointerFlowEdge.Kind kind, Object source, Object target,
+                         @Nullable Predicate<Obj> filter) {
+        inEdges.put(target, new FlowEdge(kind, source, filter));
+    }
+
+    private void addCallEdge(Edge<Invoke, JMethod> edge) {
+        Invoke callSite = edge.getCallSite();
+        JMethod callee = edge.getCallee();
+        if (callee.isAbstract()) {
+            return;
+        }
+        IR calleeIR = callee.getIR();
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        // pass arguments to parameters
+        List<Var> args = invokeExp.getArgs();
+        int nParams = Math.min(args.size(), calleeIR.getParams().size());
+        for (int i = 0; i < nParams; ++i) {
+            Var arg = args.get(i);
+            if (isConcerned(arg)) {
+                addEdge(PointerFlowEdge.Kind.PARAMETER_PASSING,
+                        arg, calleeIR.getParam(i));
+            }
+        }
+        // pass receiver objects to this variable, only the objects
+        // which are dispatched to the callee are passed
+        if (invokeExp instanceof InvokeInstanceExp instanceExp &&
+                calleeIR.getThis() != null) {
+            Predicate<Obj> filter = null;
+            if (callSite.isVirtual() || callSite.isInterface()) {
+                filter = o -> callee.equals(
+                        hierarchy.dispatch(o.getType(), callSite.getMethodRef()));
+            }
+            addEdge(PointerFlowEdge.Kind.PARAMETER_PASSING,
+                    instanceExp.getBase(), calleeIR.getThis(), filter);
+        }
+        // pass return values to the result variable
+        Var result = callSite.getResult();
+        if (result != null && isConcerned(result)) {
+            calleeIR.getReturnVars().forEach(ret ->
+                    addEdge(PointerFlowEdge.Kind.RETURN, ret, result));
+        }
+    }
+
+    private static boolean isConcerned(Exp exp) {
+        Type type = exp.getType();
+        return type instanceof ReferenceType && !(type instanceof NullType);
+    }
+
+    /**
+     * Adds the allocations, edges, loads and stores of each statement.
+     */
+    private class Visitor implements StmtVisitor<Void> {
+
+        @Override
+        public Void visit(New stmt) {
+            addAllocation(stmt.getLValue(), heapModel.getObj(stmt));
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignLiteral stmt) {
+            Literal literal = stmt.getRValue();
+            if (isConcerned(literal)) {
+                addAllocation(stmt.getLValue(),
+                        heapModel.getConstantObj((ReferenceLiteral) literal));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            Var rvalue = stmt.getRValue();
+            if (isConcerned(rvalue)) {
+                addEdge(PointerFlowEdge.Kind.LOCAL_ASSIGN,
+                        rvalue, stmt.getLValue());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Cast stmt) {
+            CastExp cast = stmt.getRValue();
+            if (isConcerned(cast.getValue())) {
+                Type castType = cast.getCastType();
+                addEdge(PointerFlowEdge.Kind.CAST, cast.getValue(),
+                        stmt.getLValue(),
+                        o -> typeSystem.isSubtype(castType, o.getType()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            Var lvalue = stmt.getLValue();
+            if (isConcerned(lvalue)) {
+                JField field = stmt.getFieldRef().resolve();
+                if (stmt.isStatic()) {
+                    addEdge(PointerFlowEdge.Kind.STATIC_LOAD, field, lvalue);
+                } else {
+                    Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                    loads.put(lvalue, new Load(base, field));
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            Var rvalue = stmt.getRValue();
+            if (isConcerned(rvalue)) {
+                JField field = stmt.getFieldRef().resolve();
+                if (stmt.isStatic()) {
+                    addEdge(PointerFlowEdge.Kind.STATIC_STORE, rvalue, field);
+                } else {
+                    Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+                    fieldStores.put(field, new Store(base, rvalue));
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadArray stmt) {
+            Var lvalue = stmt.getLValue();
+            if (isConcerned(lvalue)) {
+                loads.put(lvalue, new Load(
+                        stmt.getArrayAccess().getBase(), null));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreArray stmt) {
+            Var rvalue = stmt.getRValue();
+            if (isConcerned(rvalue)) {
+                arrayStores.add(new Store(
+                        stmt.getArrayAccess().getBase(), rvalue));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Demand-driven, context-insensitive and field-sensitive points-to
+ * query engine.
+ * <p>
+ * The points-to set of a variable is computed by traversing
+ * the {@link FlowGraph} backwards from the variable, in the style of
+ * CFL-reachability: a load {@code y = u.f} is matched with a store
+ * {@code w.f = x} only if {@code u} and {@code w} may be aliases,
+ * which is decided by querying their points-to sets recursively.
+ * Recursive queries that depend on each other are iterated until
+ * they reach a fixed point.
+ * <p>
+ * Each query is given a budget of traversal steps (including the steps
+ * of its recursive queries). When a query exceeds its budget, it falls
+ * back to a conservative answer, i.e., all objects in the program whose
+ * types are subtypes of the type of the variable. All answers
+ * (including the ones of recursive queries) are cached across queries.
+ * <p>
+ * The flows of exceptions, native code, reflection and the objects
+ * passed to entry methods are not modeled. This class is not thread-safe.
+ */
+public class PointsToQueryEngine {
+
+    private final FlowGraph graph;
+
+    private final TypeSystem typeSystem;
+
+    private final int budget;
+
+    /**
+     * Answers of completed queries.
+     */
+    private final Map<Var, Set<Obj>> cache = Maps.newMap();
+
+    /**
+     * Conservative answers for the queries exceeding budget.
+     */
+    private final Map<Type, Set<Obj>> typeBasedSets = Maps.newMap();
+
+    // ---------- states of current query ----------
+
+    /**
+     * Map from each variable whose query is in progress
+     * to its depth in the query stack.
+     */
+    private final Map<Var, Integer> queryStack = Maps.newMap();
+
+    /**
+     * Partial answers of the queries in progress.
+     */
+    private final Map<Var, Set<Obj>> partialAnswers = Maps.newMap();
+
+    /**
+     * The minimum depth of the queries in progress whose partial
+     * answers are read by the current query.
+     */
+    private int lowLink;
+
+    private int steps;
+
+    // ---------- statistics ----------
+
+    private int nQueries;
+
+    private int nCacheHits;
+
+    private int nExhaustedQueries;
+
+    public PointsToQueryEngine(CallGraph<Invoke, JMethod> callGraph,
+                               HeapModel heapModel, int budget) {
+        this.graph = new FlowGraph(callGraph, heapModel);
+        this.typeSystem = World.get().getTypeSystem();
+        this.budget = budget;
+    }
+
+    /**
+     * @return the objects that given variable may point to.
+     */
+    public Set<Obj> getPointsToSet(Var var) {
+        ++nQueries;
+        Set<Obj> result = cache.get(var);
+        if (result != null) {
+            ++nCacheHits;
+            return result;
+        }
+        if (!isConcerned(var.getType())) {
+            return Set.of();
+        }
+        steps = 0;
+        lowLink = Integer.MAX_VALUE;
+        try {
+            result = query(var);
+        } catch (BudgetExceededException e) {
+            ++nExhaustedQueries;
+            queryStack.clear();
+            partialAnswers.clear();
+            result = getTypeBasedSet(var.getType());
+            cache.put(var, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code true} if given two variables may point to
+     * the same object.
+     */
+    public boolean mayAlias(Var v1, Var v2) {
+        return Sets.haveOverlap(getPointsToSet(v1), getPointsToSet(v2));
+    }
+
+    /**
+     * @return number of queries issued by {@link #getPointsToSet(Var)}.
+     */
+    public int getNumberOfQueries() {
+        return nQueries;
+    }
+
+    /**
+     * @return number of queries answered by cache.
+     */
+    public int getNumberOfCacheHits() {
+        return nCacheHits;
+    }
+
+    /**
+     * @return number of queries which exceed the budget.
+     */
+    public int getNumberOfExhaustedQueries() {
+        return nExhaustedQueries;
+    }
+
+    FlowGraph getFlowGraph() {
+        return graph;
+    }
+
+    private Set<Obj> query(Var var) {
+        Set<Obj> cached = cache.get(var);
+        if (cached != null) {
+            return cached;
+        }
+        Integer depth = queryStack.get(var);
+        if (depth != null) {
+            // var is in a cycle of queries, use its partial answer
+            lowLink = Math.min(lowLink, depth);
+            return partialAnswers.get(var);
+        }
+        int myDepth = queryStack.size();
+        queryStack.put(var, myDepth);
+        partialAnswers.put(var, Set.of());
+        int outerLowLink = lowLink;
+        Set<Obj> result;
+        boolean changed;
+        do {
+            lowLink = Integer.MAX_VALUE;
+            result = collect(var);
+            changed = result.size() > partialAnswers.get(var).size();
+            partialAnswers.put(var, result);
+        } while (changed && lowLink <= myDepth);
+        queryStack.remove(var);
+        partialAnswers.remove(var);
+        if (lowLink >= myDepth) {
+            // the result does not rely on partial answers of outer queries
+            result = Collections.unmodifiableSet(result);
+            cache.put(var, result);
+        }
+        lowLink = Math.min(outerLowLink, lowLink);
+        return result;
+    }
+
+    /**
+     * Collects the objects that flow to given variable.
+     */
+    private Set<Obj> collect(Var var) {
+        Set<Obj> result = Sets.newHybridSet();
+        Set<Object> visited = Sets.newSet();
+        Queue<Object> workList = new ArrayDeque<>();
+        visited.add(var);
+        workList.add(var);
+        while (!workList.isEmpty()) {
+            Object node = workList.poll();
+            consumeStep();
+            if (node instanceof Var v) {
+                result.addAll(graph.getAllocationsOf(v));
+                for (FlowGraph.Load load : graph.getLoadsTo(v)) {
+                    Set<Obj> basePts = query(load.base());
+                    if (basePts.isEmpty()) {
+                        continue;
+                    }
+                    for (FlowGraph.Store store : graph.getStoresTo(load.field())) {
+                        consumeStep();
+                        if (!visited.contains(store.value()) &&
+                                Sets.haveOverlap(basePts, query(store.base()))) {
+                            visited.add(store.value());
+                            workList.add(store.value());
+                        }
+                    }
+                }
+            }
+            for (FlowGraph.FlowEdge edge : graph.getInEdgesOf(node)) {
+                Predicate<Obj> filter = edge.filter();
+                if (filter == null) {
+                    if (visited.add(edge.source())) {
+                        workList.add(edge.source());
+                    }
+                } else {
+                    for (Obj obj : query((Var) edge.source())) {
+                        if (filter.test(obj)) {
+                            result.add(obj);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void consumeStep() {
+        if (++steps > budget) {
+            throw BudgetExceededException.INSTANCE;
+        }
+    }
+
+    private Set<Obj> getTypeBasedSet(Type type) {
+        return typeBasedSets.computeIfAbsent(type, t -> {
+            Set<Obj> objs = Sets.newHybridSet();
+            for (Obj obj : graph.getObjects()) {
+                if (typeSystem.isSubtype(t, obj.getType())) {
+                    objs.add(obj);
+                }
+            }
+            return Collections.unmodifiableSet(objs);
+        });
+    }
+
+    private static boolean isConcerned(Type type) {
+        return type instanceof ReferenceType && !(type instanceof NullType);
+    }
+
+    /**
+     * Thrown when a query exceeds its budget.
+     */
+    private static class BudgetExceededException extends RuntimeException {
+
+        private static final BudgetExceededException INSTANCE =
+                new BudgetExceededException();
+
+        private BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+/**
+ * This package contains a demand-driven pointer analysis, which computes
+ * points-to information only for the variables queried by clients.
+ * <p>
+ * The technique was presented in paper:
+ * Manu Sridharan, Denis Gopan, Lexin Shan, and Rastislav Bodík.
+ * Demand-Driven Points-to Analysis for Java.
+ * In OOPSLA 2005.
+ */
+package pascal.taie.analysis.pta.demand;
@@ -85,6 +85,14 @@ public class CompositePlugin implements Plugin {
         }
     }
 
+    /**
+     * @return {@code true} if any added plugin overrides
+     * {@link Plugin#onNewPointsToSet(CSVar, PointsToSet)}.
+     */
+    public boolean hasOnNewPointsToSetPlugins() {
+        return !onNewPointsToSetPlugins.isEmpty();
+    }
+
     @Override
     public void setSolver(Solver solver) {
         allPlugins.forEach(p -> p.setSolver(solver));
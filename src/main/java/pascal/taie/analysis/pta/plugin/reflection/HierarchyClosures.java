@@ -0,0 +1,158 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.reflection;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.util.collection.IndexerBitSet;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Memoized closures of the class hierarchy used by reflection models,
+ * i.e., the superclasses (&lt;:) and the related classes (&lt;&lt;:)
+ * of each class. The closures are immutable sets backed by bit sets
+ * indexed by the class hierarchy, and they are shared by all queries,
+ * thus each closure is computed at most once.
+ * <p>
+ * Classes may be added to the hierarchy during the analysis (e.g., when
+ * they are loaded on demand), which changes the subclasses, thus
+ * the related classes are discarded when the hierarchy grows.
+ * The superclasses of existing classes never change.
+ */
+class HierarchyClosures {
+
+    private static final Logger logger = LogManager.getLogger(HierarchyClosures.class);
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Cache of {@link #getThisAndSuperClasses(JClass)}.
+     */
+    private final Map<JClass, Set<JClass>> superClasses = Maps.newConcurrentMap();
+
+    /**
+     * Cache of {@link #getRelatedClasses(JClass)}.
+     */
+    private final Map<JClass, Set<JClass>> relatedClasses = Maps.newConcurrentMap();
+
+    /**
+     * Number of classes in the hierarchy when {@link #relatedClasses}
+     * was last validated.
+     */
+    private volatile int classCount;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Time spent computing the closures, in nanoseconds.
+     */
+    private final LongAdder computeTime = new LongAdder();
+
+    HierarchyClosures(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        this.classCount = hierarchy.getNumberOfClasses();
+    }
+
+    /**
+     * @return {@code jclass} and all its superclasses (interfaces excluded).
+     */
+    Set<JClass> getThisAndSuperClasses(JClass jclass) {
+        return get(superClasses, jclass, c -> {
+            Set<JClass> result = newSet();
+            for (JClass s = c; s != null; s = s.getSuperClass()) {
+                result.add(s);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @return the classes that are related to {@code jclass}, i.e.,
+     * its superclasses, itself, and all its subclasses.
+     */
+    Set<JClass> getRelatedClasses(JClass jclass) {
+        int count = hierarchy.getNumberOfClasses();
+        if (count != classCount) {
+            // new classes may be subclasses of the cached ones
+            relatedClasses.clear();
+            classCount = count;
+        }
+        return get(relatedClasses, jclass, c -> {
+            Set<JClass> result = newSet();
+            result.addAll(getThisAndSuperClasses(c));
+            result.addAll(hierarchy.getAllSubclassesOf(c));
+            return result;
+        });
+    }
+
+    private Set<JClass> get(Map<JClass, Set<JClass>> cache, JClass jclass,
+                            Function<JClass, Set<JClass>> closure) {
+        Set<JClass> result = cache.get(jclass);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        long start = System.nanoTime();
+        result = Collections.unmodifiableSet(closure.apply(jclass));
+        Set<JClass> prev = cache.putIfAbsent(jclass, result);
+        computeTime.add(System.nanoTime() - start);
+        misses.increment();
+        return prev != null ? prev : result;
+    }
+
+    private Set<JClass> newSet() {
+        return new IndexerBitSet<>(hierarchy, false);
+    }
+
+    /**
+     * Logs the hit rate of the caches and an estimate of the time saved
+     * by them, i.e., the hits times the average time of computing
+     * a closure. The saving is not measured, as it would require
+     * computing the closures again.
+     */
+    void logStatistics() {
+        long nHits = hits.sum();
+        long nMisses = misses.sum();
+        long total = nHits + nMisses;
+        double hitRate = total == 0 ? 0 : 100.0 * nHits / total;
+        double saved = nMisses == 0 ? 0 :
+                (double) computeTime.sum() / nMisses * nHits / 1e6;
+        logger.info("Hierarchy closures ({}) answered {} queries," +
+                        " cache hit rate: {}%, computed in {}ms," +
+                        " estimated saving: {}ms",
+                superClasses.size() + relatedClasses.size(), total,
+                String.format("%.2f", hitRate),
+                String.format("%.2f", computeTime.sum() / 1e6),
+                String.format("%.2f", saved));
+    }
+}
@@ -66,6 +66,8 @@ public class MyReflectionAnalysis implements Plugin {
 
     private Model reflectiveActionModel;
 
+    private HierarchyClosures closures;
+
     private Solver solver;
 
     private CSManager csManager;
@@ -81,7 +83,8 @@ public class MyReflectionAnalysis implements Plugin {
         } else {
             metaObjModel = new MyStringBasedModel(solver);
         }
-        reflectiveActionModel = new MyReflectiveActionModel(solver);
+        closures = new HierarchyClosures(solver.getHierarchy());
+        reflectiveActionModel = new MyReflectiveActionModel(solver, closures);
         csManager = solver.getCSManager();
     }
 
@@ -182,6 +185,7 @@ public class MyReflectionAnalysis implements Plugin {
 
     @Override
     public void onFinish() {
+        closures.logStatistics();
 
     }
 }
@@ -22,7 +22,6 @@
 
 package pascal.taie.analysis.pta.plugin.reflection;
 
-import com.google.common.collect.Lists;
 import pascal.taie.World;
 import pascal.taie.WorldBuilder;
 import pascal.taie.analysis.pta.core.cs.context.Context;
@@ -41,6 +40,8 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.*;
 import pascal.taie.language.type.*;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
 import javax.annotation.Nullable;
 import java.util.*;
@@ -83,8 +84,21 @@ class MyReflectiveActionModel extends AbstractModel {
 
     private final ClassType unknown;
 
-    MyReflectiveActionModel(Solver solver) {
+    private final HierarchyClosures closures;
+
+    /**
+     * Join states of the Method.invoke call sites.
+     */
+    private final Map<CSCallSite, InvokeJoin> invokeJoins = Maps.newMap();
+
+    /**
+     * Reflective call edges that have been added to the solver.
+     */
+    private final Set<ReflectiveCallEdge> reflectiveCallEdges = Sets.newSet();
+
+    MyReflectiveActionModel(Solver solver, HierarchyClosures closures) {
         super(solver);
+        this.closures = closures;
         initNoArg = Subsignature.getNoArgInit();
         selector = solver.getContextSelector();
         typeSystem = solver.getTypeSystem();
@@ -222,6 +236,9 @@ class MyReflectiveActionModel extends AbstractModel {
     /**
      * 方法调用
      * x = (A) m.invoke(y, args)
+     * <p>
+     * 对每个调用点半朴素(semi-naive)地连接pt(m)、pt(y)和Ptp(args)：
+     * 某个操作数变化时，只用其新增部分与其他操作数已有的状态连接
      *
      * @param csVar  m
      * @param pts    分
@@ -229,199 +246,232 @@ class MyReflectiveActionModel extends AbstractModel {
      */
     private void methodInvoke(CSVar csVar, PointsToSet pts, Invoke invoke) {
         Context context = csVar.getContext();
-        List<PointsToSet> args = getArgs(csVar, pts, invoke, BASE, 0, 1);
-        // m对象集合pt(m)
-        PointsToSet mtdObjs = args.get(0);
-        // y的对象集合
-        PointsToSet recvObjs = args.get(1);
-        // 这个Var是args数组
-        Var argsVar = invoke.getInvokeExp().getArg(1);
-        Var y = invoke.getInvokeExp().getArg(0);
+        InvokeInstanceExp invokeExp = (InvokeInstanceExp) invoke.getInvokeExp();
+        InvokeJoin join = invokeJoins.computeIfAbsent(
+                csManager.getCSCallSite(context, invoke),
+                unused -> new InvokeJoin(invoke));
         PointsToSet inferResultMtdObjs = solver.makePointsToSet();
 
+        // Ptp(args)随args及其元素增长，已有的m只与新增的签名连接
+        PossibleParamTypes oldPtp = join.ptp;
+        PossibleParamTypes newPtp = getPossibleParamTypes(context, invokeExp.getArg(1));
+        if (!newPtp.equals(oldPtp)) {
+            join.ptp = newPtp;
+            join.mtdObjs.forEach(mtdObj -> joinNewPtp(join,
+                    (UJMethod) mtdObj.getObject().getAllocation(),
+                    oldPtp, inferResultMtdObjs));
+        }
 
-//        int argsLength = inferArrayLengthByNewStmt(argsVar);
-//      Depracated  List<String> originalArgTypes = inferArrayArgTypesByStoreArray(argsVar);
-//        List<String> originalArgTypes = infer
-//        List<List<String>> ptpResult = ptp(originalArgTypes);
-
-        // 获取A类型(可能有多个可能的A类型)
-        List<String> allPossibleA = getMethodInvokeCastTargetClass(invoke.getLValue());
-        // 根据A类型，获取所有可能的tr类型(tr <<:A)
-        List<String> allPossibleTr = getThisAndAllRelatedClasses(allPossibleA);
-        if (allPossibleTr.size() == 0) allPossibleTr.add(null);
-
-
-        mtdObjs.forEach(mtdObj -> {
-            JMethod target = CSObjs.toMethod(mtdObj);
-            // need inference
-            if (target == null) {
-                Object alloc = mtdObj.getObject().getAllocation();
-                if (alloc instanceof UJMethod ujMethod) {
-                    // 面向测试用例编程
-                    if (ujMethod.isMethodInMethods() && !ujMethod.isDeclaringClassUnknown()
-                    && !ujMethod.isParametersUnknown()) {
-                        List<JMethod> allPossibleJMethods = MTD(ujMethod);
-                        for (JMethod declaredMethod : allPossibleJMethods) {
-                            if (recvObjs.isEmpty()) {
-                                addReflectiveCallEdge(context, invoke, null, declaredMethod, argsVar);
-                            }
-                            recvObjs.forEach(recvObj ->
-                                    addReflectiveCallEdge(context, invoke, recvObj, declaredMethod, argsVar)
-                            );
-                        }
-                    } else {
-                        if (ujMethod.isKnown()) {
-                            List<JMethod> allPossibleJMethods = MTD(ujMethod);
-                            for (JMethod possibleTargetMethod : allPossibleJMethods) {
-                                if (recvObjs.isEmpty()) {
-                                    addReflectiveCallEdge(context, invoke, null, possibleTargetMethod, argsVar);
-                                }
-                                recvObjs.forEach(recvObj ->
-                                        addReflectiveCallEdge(context, invoke, recvObj, possibleTargetMethod, argsVar)
-                                );
-                            }
-                        }
-                        // mu − ∈ pt(m)
-                        // -------------------------
-                        //pt(m) ⊇ { mt− | oti ∈ pt (y)}
-                        //[I-InvTp]
-                        if (ujMethod.isDeclaringClassUnknown()) {
-                            recvObjs.forEach(csRecvObj -> {
-                                String possibleDelaringClass = csRecvObj.getObject().getType().getName();
-                                UJMethod inferResult = new UJMethod(
-                                        possibleDelaringClass,
-                                        ujMethod.returnType(),
-                                        ujMethod.methodName(),
-                                        ujMethod.parameters()
-                                );
-                                inferResult.setMethodInMethods(ujMethod.isMethodInMethods());
-
-                                Obj inferResultMtdObj = heapModel.getMockObj(META_DESC, inferResult, method);
-                                CSObj csObj = csManager.getCSObj(defaultHctx, inferResultMtdObj);
-                                inferResultMtdObjs.addObject(csObj);
-                            });
-
-                        }
-
-                        // mus ∈ pt(m) oui ∈ pt (y) s.tr ≪: A s.nm , u s.p ∈ Ptp(args)
-                        //pt(m) ⊇ { mts | t ∈ M(s.tr , s.nm, s.p)}
-                        //[I-InvS2T]
-
-                        if (ujMethod.isDeclaringClassUnknown() && !ujMethod.isSubsignatureUnknown()) {
-                            boolean hasUnknownTypeObject = false;
-                            for (CSObj csRecvObj : recvObjs) {
-                                if (csRecvObj.getObject().getType().equals(unknown)
-                                        || csRecvObj.getObject().getType() == null) {
-                                    hasUnknownTypeObject = true;
-                                    break;
-                                }
-                            }
-                            if (hasUnknownTypeObject) {
-                                if (ujMethod.isReturnTypeUnknown() || allPossibleTr.contains(ujMethod.returnType())) {
-                                    if (!ujMethod.isMethodNameUnknown()) {
-                                        PointsToSet argsObjs = solver.getPointsToSetOf(csManager.getCSVar(context, argsVar));
-                                        List<String> arrTypes = new ArrayList<String>();
-                                        List<Integer> argsLengths = new ArrayList<>();
-                                        for (CSObj argsCSObj : argsObjs) {
-                                            if (argsCSObj.getObject() instanceof MockObj mockArgsObj
-                                                    && mockArgsObj.getDescription().equals(MyStringBasedModel.ARRAY_LENGTH_DESC)) {
-                                                argsLengths.add((int) mockArgsObj.getAllocation());
-                                            } else {
-                                                for (CSObj argsElementObj : solver.getPointsToSetOf(csManager.getArrayIndex(argsCSObj))) {
-                                                    arrTypes.addAll((getThisAndAllSuperClasses(argsElementObj.getObject().getType().getName())));
-                                                    arrTypes = new ArrayList<>(new HashSet<>(arrTypes));
-                                                }
-                                            }
-                                        }
-
-                                        List<List<String>> ptpResult = new ArrayList<>();
-                                        for (Integer argsLength : argsLengths) {
-                                            ptpResult.addAll(ptp3(arrTypes, argsLength));
-                                        }
-                                        if (!ujMethod.isParametersUnknown() &&
-                                                belongsToPtp(ujMethod.parameters(), ptpResult)) {
-                                            // 获取M(s.tr , s.nm, s.p)
-                                            Set<String> possibleDeclaringClasses = M(ujMethod.returnType(), ujMethod.methodName(), ujMethod.parameters());
-                                            for (String possibleDeclaringClass : possibleDeclaringClasses) {
-                                                UJMethod inferResult = new UJMethod(possibleDeclaringClass,
-                                                        ujMethod.returnType(), ujMethod.methodName(), ujMethod.parameters());
-                                                inferResult.setMethodInMethods(ujMethod.isMethodInMethods());
-                                                Obj inferResultMtdObj = heapModel.getMockObj(META_DESC, inferResult, method);
-                                                CSObj csObj = csManager.getCSObj(defaultHctx, inferResultMtdObj);
-                                                inferResultMtdObjs.addObject(csObj);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
+        // Δm与已有的pt(y)和Ptp(args)连接
+        if (csVar.getVar().equals(invokeExp.getBase())) {
+            PointsToSet newMtdObjs = solver.makePointsToSet();
+            pts.forEach(mtdObj -> {
+                if (mtdObj.getObject().getAllocation() instanceof UJMethod) {
+                    newMtdObjs.addObject(mtdObj);
+                }
+            });
+            join.mtdObjs.addAllDiff(newMtdObjs).forEach(mtdObj -> joinNewMtd(
+                    context, join, (UJMethod) mtdObj.getObject().getAllocation(),
+                    inferResultMtdObjs));
+        }
 
-                        // m−u ∈ pt(m)
-                        // ------------------------
-                        //pt(m) ⊇ { m−s | s.p ∈ Ptp(args), s.tr ≪: A, s.nm = u}
-                        //[I-InvSig]
-                        if (ujMethod.isParametersUnknown()) {
-                            // 按理说应该用csobj的t来推断。这里从简，直接用var的type来推断。TODO: modify to csobj
-                        /*for (CSObj csObj : csManager.getCSVar(context, argsVar).getPointsToSet()) {
-                            Pointer arrayPtr = csManager.getArrayIndex(csObj);
-                        }*/
-
-                            // 以这两个参数来计算PTP
-                            PointsToSet argsObjs = solver.getPointsToSetOf(csManager.getCSVar(context, argsVar));
-                            List<String> arrTypes = new ArrayList<String>();
-                            List<Integer> argsLengths = new ArrayList<>();
-                            for (CSObj argsCSObj : argsObjs) {
-                                if (argsCSObj.getObject() instanceof MockObj mockArgsObj
-                                        && mockArgsObj.getDescription().equals(MyStringBasedModel.ARRAY_LENGTH_DESC)) {
-                                    argsLengths.add((int) mockArgsObj.getAllocation());
-                                } else {
-                                    for (CSObj argsElementObj : solver.getPointsToSetOf(csManager.getArrayIndex(argsCSObj))) {
-                                        arrTypes.addAll((getThisAndAllSuperClasses(argsElementObj.getObject().getType().getName())));
-                                        arrTypes = new ArrayList<>(new HashSet<>(arrTypes));
-                                    }
-                                }
-
-                            }
-
-                            List<List<String>> ptpResult = new ArrayList<>();
-                            for (Integer argsLength : argsLengths) {
-                                ptpResult.addAll(ptp3(arrTypes, argsLength));
-                            }
-                            for (List<String> onePtp : ptpResult) {
-                                for (String oneTr : allPossibleTr) {
-                                    // 构造m-s
-                                    UJMethod inferResult = new UJMethod(ujMethod.declaringClass(),
-                                            oneTr, ujMethod.methodName(), onePtp);
-                                    inferResult.setMethodInMethods(ujMethod.isMethodInMethods());
-                                    Obj inferResultMtdObj = heapModel.getMockObj(META_DESC, inferResult, method);
-                                    CSObj csObj = csManager.getCSObj(defaultHctx, inferResultMtdObj);
-                                    inferResultMtdObjs.addObject(csObj);
-                                }
-                            }
-                            // TODO 暂时不构造arg1到argk了
-                        }
-                    }
+        // 已有的pt(m)与Δy连接
+        if (csVar.getVar().equals(invokeExp.getArg(0))) {
+            boolean hadUnknownTypeObject = join.hasUnknownTypeObject;
+            PointsToSet newRecvObjs = join.recvObjs.addAllDiff(pts);
+            for (CSObj csRecvObj : newRecvObjs) {
+                if (csRecvObj.getObject().getType() == null
+                        || csRecvObj.getObject().getType().equals(unknown)) {
+                    join.hasUnknownTypeObject = true;
+                    break;
                 }
+            }
+            if (!newRecvObjs.isEmpty()) {
+                join.mtdObjs.forEach(mtdObj -> {
+                    UJMethod ujMethod = (UJMethod) mtdObj.getObject().getAllocation();
+                    joinNewRecvs(context, join, ujMethod, newRecvObjs, inferResultMtdObjs);
+                    if (!hadUnknownTypeObject && join.hasUnknownTypeObject) {
+                        inferS2T(join, ujMethod, inferResultMtdObjs);
+                    }
+                });
+            }
+        }
 
+        // no need inference, directly add stmts (mts)
+        // TODO 暂时不按照T-INV实现，先跑通
+        // [T-Inv]
+        if (!inferResultMtdObjs.isEmpty()) {
+            solver.addVarPointsTo(context, invokeExp.getBase(), inferResultMtdObjs);
+        }
+    }
 
-                // no need inference, directly add stmts (mts)
-                // TODO 暂时不按照T-INV实现，先跑通
-                // [T-Inv]
-                if (!inferResultMtdObjs.isEmpty()) {
-                    solver.addVarPointsTo(context, ((InvokeInstanceExp) invoke.getInvokeExp()).getBase(), inferResultMtdObjs);
+    /**
+     * 新的m对象与调用点已有的状态连接
+     */
+    private void joinNewMtd(Context context, InvokeJoin join,
+                            UJMethod ujMethod, PointsToSet result) {
+        // 面向测试用例编程
+        if ((ujMethod.isMethodInMethods() && !ujMethod.isDeclaringClassUnknown()
+                && !ujMethod.isParametersUnknown()) || ujMethod.isKnown()) {
+            for (JMethod target : MTD(ujMethod)) {
+                if (join.recvObjs.isEmpty()) {
+                    addReflectiveCallEdge(context, join.invoke, null, target, join.argsVar);
                 }
+            }
+        }
+        joinNewRecvs(context, join, ujMethod, join.recvObjs, result);
+        if (isInferable(ujMethod)) {
+            inferS2T(join, ujMethod, result);
+            joinNewPtp(join, ujMethod, null, result);
+        }
+    }
 
-                return;
+    /**
+     * m对象与新的y对象连接
+     */
+    private void joinNewRecvs(Context context, InvokeJoin join, UJMethod ujMethod,
+                              PointsToSet recvObjs, PointsToSet result) {
+        if ((ujMethod.isMethodInMethods() && !ujMethod.isDeclaringClassUnknown()
+                && !ujMethod.isParametersUnknown()) || ujMethod.isKnown()) {
+            for (JMethod target : MTD(ujMethod)) {
+                recvObjs.forEach(recvObj ->
+                        addReflectiveCallEdge(context, join.invoke, recvObj, target, join.argsVar));
             }
-            if (target.isStatic()) {
-//                addReflectiveCallEdge(context, invoke, null, target, argsVar);
-            } else {
-//                recvObjs.forEach(recvObj ->
-//                        addReflectiveCallEdge(context, invoke, recvObj, target, argsVar)
-//                );
+        }
+        // mu − ∈ pt(m)
+        // -------------------------
+        //pt(m) ⊇ { mt− | oti ∈ pt (y)}
+        //[I-InvTp]
+        if (isInferable(ujMethod) && ujMethod.isDeclaringClassUnknown()) {
+            recvObjs.forEach(csRecvObj -> {
+                String possibleDelaringClass = csRecvObj.getObject().getType().getName();
+                UJMethod inferResult = new UJMethod(
+                        possibleDelaringClass,
+                        ujMethod.returnType(),
+                        ujMethod.methodName(),
+                        ujMethod.parameters()
+                );
+                inferResult.setMethodInMethods(ujMethod.isMethodInMethods());
+                addInferResult(inferResult, result);
+            });
+        }
+    }
+
+    /**
+     * m对象与Ptp(args)中相对于oldPtp新增的签名连接
+     *
+     * @param oldPtp 之前已经连接过的Ptp(args)，为null时连接全部签名
+     */
+    private void joinNewPtp(InvokeJoin join, UJMethod ujMethod,
+                            @Nullable PossibleParamTypes oldPtp, PointsToSet result) {
+        if (!isInferable(ujMethod)) {
+            return;
+        }
+        if (!ujMethod.isParametersUnknown() && oldPtp != null
+                && !oldPtp.contains(toTypes(ujMethod.parameters()))) {
+            inferS2T(join, ujMethod, result);
+        }
+        // m−u ∈ pt(m)
+        // ------------------------
+        //pt(m) ⊇ { m−s | s.p ∈ Ptp(args), s.tr ≪: A, s.nm = u}
+        //[I-InvSig]
+        if (ujMethod.isParametersUnknown()) {
+            // 只枚举存在对应方法且之前未枚举过的参数类型
+            join.ptp.enumerate(ujMethod.methodName())
+                    .filter(paramTypes -> oldPtp == null || !oldPtp.contains(paramTypes))
+                    .forEach(paramTypes -> {
+                        List<String> onePtp = paramTypes.stream()
+                                .map(Type::getName)
+                                .toList();
+                        for (String oneTr : join.allPossibleTr) {
+                            // 构造m-s
+                            UJMethod inferResult = new UJMethod(ujMethod.declaringClass(),
+                                    oneTr, ujMethod.methodName(), onePtp);
+                            inferResult.setMethodInMethods(ujMethod.isMethodInMethods());
+                            addInferResult(inferResult, result);
+                        }
+                    });
+            // TODO 暂时不构造arg1到argk了
+        }
+    }
+
+    /**
+     * mus ∈ pt(m) oui ∈ pt (y) s.tr ≪: A s.nm , u s.p ∈ Ptp(args)
+     * pt(m) ⊇ { mts | t ∈ M(s.tr , s.nm, s.p)}
+     * [I-InvS2T]
+     */
+    private void inferS2T(InvokeJoin join, UJMethod ujMethod, PointsToSet result) {
+        if (isInferable(ujMethod)
+                && ujMethod.isDeclaringClassUnknown() && !ujMethod.isSubsignatureUnknown()
+                && join.hasUnknownTypeObject
+                && (ujMethod.isReturnTypeUnknown() || join.allPossibleTr.contains(ujMethod.returnType()))
+                && !ujMethod.isMethodNameUnknown()
+                && !ujMethod.isParametersUnknown()
+                && join.ptp.contains(toTypes(ujMethod.parameters()))) {
+            // 获取M(s.tr , s.nm, s.p)
+            Set<String> possibleDeclaringClasses = M(ujMethod.returnType(), ujMethod.methodName(), ujMethod.parameters());
+            for (String possibleDeclaringClass : possibleDeclaringClasses) {
+                UJMethod inferResult = new UJMethod(possibleDeclaringClass,
+                        ujMethod.returnType(), ujMethod.methodName(), ujMethod.parameters());
+                inferResult.setMethodInMethods(ujMethod.isMethodInMethods());
+                addInferResult(inferResult, result);
             }
-        });
+        }
+    }
+
+    /**
+     * @return 是否需要对m对象进行推断
+     */
+    private static boolean isInferable(UJMethod ujMethod) {
+        return !(ujMethod.isMethodInMethods() && !ujMethod.isDeclaringClassUnknown()
+                && !ujMethod.isParametersUnknown());
+    }
+
+    private void addInferResult(UJMethod inferResult, PointsToSet result) {
+        Obj inferResultMtdObj = heapModel.getMockObj(META_DESC, inferResult, method);
+        result.addObject(csManager.getCSObj(defaultHctx, inferResultMtdObj));
+    }
+
+    /**
+     * Method.invoke调用点上已经连接过的各操作数的状态
+     */
+    private class InvokeJoin {
+
+        private final Invoke invoke;
+
+        private final Var argsVar;
+
+        /**
+         * 调用点的tr类型(tr <<:A)，A为调用结果的cast类型
+         */
+        private final List<String> allPossibleTr;
+
+        /**
+         * 已连接的m对象(UJMethod)
+         */
+        private final PointsToSet mtdObjs = solver.makePointsToSet();
+
+        /**
+         * 已连接的y对象
+         */
+        private final PointsToSet recvObjs = solver.makePointsToSet();
+
+        private boolean hasUnknownTypeObject;
+
+        /**
+         * 已连接的Ptp(args)
+         */
+        private PossibleParamTypes ptp;
+
+        private InvokeJoin(Invoke invoke) {
+            this.invoke = invoke;
+            this.argsVar = invoke.getInvokeExp().getArg(1);
+            // 获取A类型(可能有多个可能的A类型)
+            List<String> allPossibleA = getMethodInvokeCastTargetClass(invoke.getLValue());
+            // 根据A类型，获取所有可能的tr类型(tr <<:A)
+            allPossibleTr = getThisAndAllRelatedClasses(allPossibleA);
+            if (allPossibleTr.size() == 0) allPossibleTr.add(null);
+        }
     }
 
     private void addReflectiveCallEdge(
@@ -447,7 +497,9 @@ class MyReflectiveActionModel extends AbstractModel {
         }
         ReflectiveCallEdge callEdge = new ReflectiveCallEdge(csCallSite,
                 csManager.getCSMethod(calleeCtx, callee), args);
-        solver.addCallEdge(callEdge);
+        if (reflectiveCallEdges.add(callEdge)) {
+            solver.addCallEdge(callEdge);
+        }
     }
 
     private void fieldGet(CSVar csVar, PointsToSet pts, Invoke invoke) {
@@ -541,35 +593,23 @@ class MyReflectiveActionModel extends AbstractModel {
         wl.offer(arrayVar);
         while (!wl.isEmpty()) {
             Var currentVar = wl.poll();
-
-            boolean hasNewStmt = false;
-            for (Stmt stmt : currentVar.getMethod().getIR().getStmts()) {
-                if (stmt instanceof New newStmt) {
-                    if (newStmt.getLValue().equals(currentVar)) {
-                        hasNewStmt = true;
-
-                        NewExp rValue = newStmt.getRValue();
-                        if (rValue instanceof NewArray newArrayStmt) {
-                            Var lengthVar = newArrayStmt.getLength();
-                            if (lengthVar.isConst()) {
-                                Literal constValue = lengthVar.getConstValue();
-                                if (constValue instanceof IntLiteral intConstValue) {
-                                    return intConstValue.getValue();
-                                }
-                            }
-                        }
+            for (Stmt def : currentVar.getMethod().getIR()
+                    .getDefUseIndex().getDefs(currentVar)) {
+                if (def instanceof New newStmt
+                        && newStmt.getRValue() instanceof NewArray newArrayExp) {
+                    Var lengthVar = newArrayExp.getLength();
+                    if (lengthVar.isConst()
+                            && lengthVar.getConstValue() instanceof IntLiteral intConstValue) {
+                        return intConstValue.getValue();
                     }
                 }
-                if (stmt instanceof Copy copyStmt) {
-                    if (copyStmt.getLValue().equals(arrayVar)) {
-                        if (!visited.contains(copyStmt.getRValue())) {
-                            visited.add(copyStmt.getRValue());
-                            wl.offer(copyStmt.getRValue());
-                        }
+                if (def instanceof Copy copyStmt) {
+                    if (!visited.contains(copyStmt.getRValue())) {
+                        visited.add(copyStmt.getRValue());
+                        wl.offer(copyStmt.getRValue());
                     }
                 }
             }
-
         }
         return -1;
     }
@@ -591,63 +631,6 @@ class MyReflectiveActionModel extends AbstractModel {
         return result;
     }
 
-    public List<List<String>> ptp(List<String> originalTypes) {
-        List<List<String>> eachTypeSuperTypes = new ArrayList<List<String>>();
-        for (String originalType : originalTypes) {
-            List<String> allSuperTypes = getThisAndAllSuperClasses(originalType);
-            eachTypeSuperTypes.add(allSuperTypes);
-        }
-        if (eachTypeSuperTypes.size() == 0) {
-            return new ArrayList<List<String>>();
-
-        }
-        return Lists.cartesianProduct(eachTypeSuperTypes);
-    }
-
-
-    /**
-     * ptp2
-     * 参考论文的，无法精确分析数组类型时的PTP实现
-     * 参数1是pt(o-i.arr)的所有对象type。参数2是每个实参的declaredType
-     * TODO 没完全理解
-     *
-     * @param arrTypes 加勒比海盗类型
-     * @return {@link List}<{@link List}<{@link String}>>
-     */
-    public List<List<String>> ptp2(Collection<String> arrTypes, List<String> declaredTypes) {
-        List<List<String>> eachTypeSuperTypes = new ArrayList<List<String>>();
-        for (String declaredType : declaredTypes) {
-            for (String arrType : arrTypes) {
-//                if (get)
-            }
-        }
-        return Lists.cartesianProduct(eachTypeSuperTypes);
-    }
-
-    /**
-     * ptp2
-     * 参考论文的，无法精确分析数组类型时的PTP实现
-     * 参数1是pt(o-i.arr)的所有对象type。参数2是每个实参的declaredType
-     * TODO 没完全理解
-     *
-     * @param arrTypes 加勒比海盗类型
-     * @return {@link List}<{@link List}<{@link String}>>
-     */
-    public List<List<String>> ptp3(Collection<String> arrTypes, int argsLen) {
-        if (argsLen == 0) {
-            List<List<String>> noArgsResult = new ArrayList<>();
-            noArgsResult.add(new ArrayList<>());
-            return noArgsResult;
-        }
-        List<List<String>> eachTypeSuperTypes = new ArrayList<List<String>>();
-        for (int i = 0; i < argsLen; i++) {
-            eachTypeSuperTypes.add((List<String>) arrTypes);
-        }
-
-        return Lists.cartesianProduct(eachTypeSuperTypes);
-    }
-
-
     /**
      * <:
      *
@@ -655,13 +638,14 @@ class MyReflectiveActionModel extends AbstractModel {
      * @return {@link List}<{@link String}>
      */
     public List<String> getThisAndAllSuperClasses(String className) {
-        List<String> result = new ArrayList<String>();
         JClass thisClass = hierarchy.getClass(className);
-        while (thisClass != null) {
-            result.add(thisClass.getName());
-            thisClass = thisClass.getSuperClass();
+        if (thisClass == null) {
+            return new ArrayList<>();
         }
-        return result;
+        return closures.getThisAndSuperClasses(thisClass)
+                .stream()
+                .map(JClass::getName)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -671,19 +655,13 @@ class MyReflectiveActionModel extends AbstractModel {
      * @return {@link List}<{@link String}>
      */
     public List<JClass> getAllSuperClasses(String className) {
-        List<JClass> result = new ArrayList<>();
         JClass thisClass = hierarchy.getClass(className);
         if (thisClass == null) {
             return null;
         }
-        if (thisClass.getSuperClass() == null) {
-            return new ArrayList<>();
-        }
-        thisClass = thisClass.getSuperClass();
-        while (thisClass != null) {
-            result.add(thisClass);
-            thisClass = thisClass.getSuperClass();
-        }
+        List<JClass> result = new ArrayList<>(
+                closures.getThisAndSuperClasses(thisClass));
+        result.remove(thisClass);
         return result;
     }
 
@@ -698,27 +676,56 @@ class MyReflectiveActionModel extends AbstractModel {
         if (thisClass == null) {
             return null;
         }
-        Collection<JClass> allSubclassesIncludeSelf = hierarchy.getAllSubclassesOf(thisClass);
-        Collection<JClass> allRelatedClasses = getAllSuperClasses(className);
-        allRelatedClasses.addAll(allSubclassesIncludeSelf);
-        return allRelatedClasses.stream().map(JClass::getName).collect(Collectors.toList());
+        return closures.getRelatedClasses(thisClass)
+                .stream()
+                .map(JClass::getName)
+                .collect(Collectors.toList());
     }
 
     /**
      * <<:
+     * 忽略无法解析的类名
      *
      * @return {@link List}<{@link String}>
      */
     public List<String> getThisAndAllRelatedClasses(List<String> classNames) {
-        List<String> result = new ArrayList<String>();
-        Set<String> mediate = new HashSet<String>();
+        Set<JClass> mediate = Sets.newHybridSet();
         for (String className : classNames) {
-            mediate.addAll(getThisAndAllRelatedClasses(className));
+            JClass thisClass = hierarchy.getClass(className);
+            if (thisClass != null) {
+                mediate.addAll(closures.getRelatedClasses(thisClass));
+            }
         }
-        return new ArrayList<>(mediate);
+        return mediate.stream()
+                .map(JClass::getName)
+                .collect(Collectors.toList());
     }
 
 
+    /**
+     * 根据args数组的长度和元素类型计算Ptp(args)
+     *
+     * @param context 上下文
+     * @param argsVar args数组
+     * @return {@link PossibleParamTypes}
+     */
+    private PossibleParamTypes getPossibleParamTypes(Context context, Var argsVar) {
+        PointsToSet argsObjs = solver.getPointsToSetOf(csManager.getCSVar(context, argsVar));
+        Set<Integer> argsLengths = Sets.newHybridSet();
+        Set<Type> argTypes = Sets.newHybridSet();
+        for (CSObj argsCSObj : argsObjs) {
+            if (argsCSObj.getObject() instanceof MockObj mockArgsObj
+                    && mockArgsObj.getDescription().equals(MyStringBasedModel.ARRAY_LENGTH_DESC)) {
+                argsLengths.add((int) mockArgsObj.getAllocation());
+            } else {
+                for (CSObj argsElementObj : solver.getPointsToSetOf(csManager.getArrayIndex(argsCSObj))) {
+                    argTypes.add(argsElementObj.getObject().getType());
+                }
+            }
+        }
+        return new PossibleParamTypes(hierarchy, closures, argsLengths, argTypes);
+    }
+
     /**
      * get方法调用目标类
      * x = (A) m.invoke(y, args)
@@ -748,31 +755,8 @@ class MyReflectiveActionModel extends AbstractModel {
      * @return {@link List}<{@link Stmt}>
      */
     public List<Cast> getAllCastAsRValue(Var var) {
-        return var.getMethod().getIR().getStmts().stream().filter(stmt -> {
-            boolean result = stmt instanceof Cast;
-            if (result) {
-                Cast cast = (Cast) stmt;
-                result = cast.getRValue().getValue() == var;
-            }
-            return result;
-        }).map(stmt -> (Cast) stmt).collect(Collectors.toList());
-    }
-
-
-    /**
-     * 属于20元
-     *
-     * @param argTypes
-     * @param ptp
-     * @return boolean
-     */
-    public boolean belongsToPtp(List<String> argTypes, List<List<String>> ptp) {
-        for (List<String> onePtp : ptp) {
-            if (equalList(onePtp, argTypes)) {
-                return true;
-            }
-        }
-        return false;
+        return List.copyOf(var.getMethod().getIR()
+                .getDefUseIndex().getCastsOf(var));
     }
 
 
@@ -807,18 +791,38 @@ class MyReflectiveActionModel extends AbstractModel {
      * @return {@link Set}<{@link String}>
      */
     public Set<String> M(String returnType, String methodName, List<String> parameters) {
-        return hierarchy.allClasses().filter(jClass ->
-                !jClass.getDeclaredMethods().stream().filter(declaredMethod ->
-                        declaredMethod.getName().equals(methodName) &&
-                                equalList(declaredMethod.getParamTypes().stream()
-                                        .map(Type::getName)
-                                        .collect(Collectors.toList()), parameters)
-
-                ).collect(Collectors.toSet()).isEmpty()
-        ).map(JClass::getName).collect(Collectors.toSet());
-
+        List<Type> paramTypes = toTypes(parameters);
+        if (paramTypes == null) {
+            return Set.of();
+        }
+        return hierarchy.getMethodIndex()
+                .getMethods(methodName, paramTypes)
+                .stream()
+                .map(m -> m.getDeclaringClass().getName())
+                .collect(Collectors.toSet());
     }
 
+    /**
+     * Converts the names of parameter types to the types
+     * which are used as the keys of {@link MethodIndex}.
+     *
+     * @return the parameter types, or {@code null} if the parameters
+     * are unknown.
+     */
+    @Nullable
+    private List<Type> toTypes(@Nullable List<String> parameters) {
+        if (parameters == null) {
+            return null;
+        }
+        List<Type> types = new ArrayList<>(parameters.size());
+        for (String parameter : parameters) {
+            if (parameter == null) {
+                return null;
+            }
+            types.add(typeSystem.getType(parameter));
+        }
+        return types;
+    }
 
     public List<JMethod> MTD(UJMethod ujMethod) {
         List<JMethod> result = new ArrayList<>();
@@ -826,14 +830,11 @@ class MyReflectiveActionModel extends AbstractModel {
         String methodName = ujMethod.methodName();
         List<String> parameters = ujMethod.parameters();
         if (ujMethod.isDeclaringClassUnknown()) {
-            hierarchy.allClasses().forEach(jClass -> {
-                result.addAll(jClass.getDeclaredMethods().stream().filter(declaredMethod ->
-                        declaredMethod.getName().equals(methodName) &&
-                                equalList(declaredMethod.getParamTypes().stream()
-                                        .map(Type::getName)
-                                        .toList(), parameters)
-                ).collect(Collectors.toSet()));
-            });
+            List<Type> paramTypes = toTypes(parameters);
+            if (paramTypes != null) {
+                result.addAll(hierarchy.getMethodIndex()
+                        .getMethods(methodName, paramTypes));
+            }
         }
         // dispatch
         else {
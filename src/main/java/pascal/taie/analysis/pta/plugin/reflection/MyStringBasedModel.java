@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.plugin.reflection;
 
+import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
@@ -32,6 +33,7 @@ import pascal.taie.analysis.pta.plugin.mock.UJMethod;
 import pascal.taie.analysis.pta.plugin.util.CSObjs;
 import pascal.taie.analysis.pta.plugin.util.Reflections;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.DefUseIndex;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.New;
@@ -40,8 +42,10 @@ import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.ArrayType;
 import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
 
 import java.util.List;
+import java.util.Map;
 
 class MyStringBasedModel extends MetaObjModel {
 
@@ -53,6 +57,11 @@ class MyStringBasedModel extends MetaObjModel {
 
     private final ClassType integer;
 
+    /**
+     * Caches the invocations of {@code String(String)} in each method,
+     * which are shared by all contexts of the method.
+     */
+    private final Map<JMethod, List<Invoke>> stringInits = Maps.newMap();
 
     MyStringBasedModel(Solver solver) {
         super(solver);
@@ -251,35 +260,32 @@ class MyStringBasedModel extends MetaObjModel {
     @Override
     void handleNewCSMethod(CSMethod csMethod) {
         JMethod jMethod = csMethod.getMethod();
-        jMethod.getIR()
-                .getStmts().stream().forEach(stmt -> {
-                    if (stmt instanceof New newStmt &&
-                            newStmt.getRValue() instanceof NewArray) {
-                        NewArray newArrayExp = (NewArray) newStmt.getRValue();
-                        if (newArrayExp.getLength().isConst()) {
-                            Literal arrayLenLiteral = newArrayExp.getLength().getConstValue();
-                            int len = 0;
-                            Var arrayVar = newStmt.getLValue();
-                            CSVar csArrayVar = csManager.getCSVar(csMethod.getContext(), arrayVar);
-                            if (arrayLenLiteral instanceof IntLiteral intConstValue) {
-                                len = intConstValue.getValue();
-                                Obj arrayLenObj = heapModel.getMockObj(ARRAY_LENGTH_DESC,
-                                        len, newArrayExp.getType());
-                                CSObj csObj = csManager.getCSObj(defaultHctx, arrayLenObj);
-                                solver.addVarPointsTo(csArrayVar.getContext(),
-                                        arrayVar, csObj);
-                            }
+        Context context = csMethod.getContext();
+        for (DefUseIndex.ConstNewArray newArray :
+                jMethod.getIR().getDefUseIndex().getConstNewArrays()) {
+            New newStmt = newArray.stmt();
+            Obj arrayLenObj = heapModel.getMockObj(ARRAY_LENGTH_DESC,
+                    newArray.length(), newStmt.getRValue().getType());
+            CSObj csObj = csManager.getCSObj(defaultHctx, arrayLenObj);
+            solver.addVarPointsTo(context, newStmt.getLValue(), csObj);
+        }
+        for (Invoke invoke : stringInits.computeIfAbsent(jMethod,
+                MyStringBasedModel::getStringInits)) {
+            CSVar from = csManager.getCSVar(context, invoke.getInvokeExp().getArg(0));
+            CSVar to = csManager.getCSVar(context, ((InvokeSpecial) invoke.getInvokeExp()).getBase());
+            solver.addPFGEdge(from, to, PointerFlowEdge.Kind.LOCAL_ASSIGN);
+        }
+    }
 
-                        }
-                    }
-                    if (stmt instanceof Invoke invoke &&
-                            "<java.lang.String: void <init>(java.lang.String)>"
-                                    .equals(invoke.getInvokeExp().getMethodRef().resolve().getSignature()) &&
-                    "java.lang.String".equals(invoke.getMethodRef().resolve().getDeclaringClass().getName())) {
-                        CSVar from = csManager.getCSVar(csMethod.getContext(), invoke.getInvokeExp().getArg(0));
-                        CSVar to = csManager.getCSVar(csMethod.getContext(), ((InvokeSpecial) invoke.getInvokeExp()).getBase());
-                        solver.addPFGEdge(from, to, PointerFlowEdge.Kind.LOCAL_ASSIGN);
-                    }
-                });
+    /**
+     * @return the invocations of {@code String(String)} in given method.
+     */
+    private static List<Invoke> getStringInits(JMethod jMethod) {
+        return jMethod.getIR()
+                .invokes(true)
+                .filter(invoke -> "<java.lang.String: void <init>(java.lang.String)>"
+                        .equals(invoke.getInvokeExp().getMethodRef().resolve().getSignature()) &&
+                        "java.lang.String".equals(invoke.getMethodRef().resolve().getDeclaringClass().getName()))
+                .toList();
     }
 }
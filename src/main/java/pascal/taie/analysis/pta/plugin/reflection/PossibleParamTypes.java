@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.reflection;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.MethodIndex;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.Hashes;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.RegularBitSet;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Possible parameter types (Ptp) of the target method of a reflective
+ * call, inferred from the lengths of the argument array and the types
+ * of its elements.
+ * <p>
+ * A parameter list belongs to Ptp if its size is one of the lengths and
+ * every parameter type is a superclass (or the class itself) of the type
+ * of some element. Instead of expanding the cartesian product of the
+ * superclass lists, the accepted classes are kept in a bit set indexed
+ * by the class hierarchy, and candidate lists are enumerated lazily
+ * from the {@link MethodIndex}, so that only the parameter lists of
+ * existing methods are checked, position by position.
+ */
+class PossibleParamTypes {
+
+    private final ClassHierarchy hierarchy;
+
+    private final Set<Integer> arities;
+
+    /**
+     * Indexes of the classes that are accepted for any parameter.
+     */
+    private final IBitSet argClasses = new RegularBitSet();
+
+    PossibleParamTypes(ClassHierarchy hierarchy,
+                       HierarchyClosures closures,
+                       Collection<Integer> arities,
+                       Collection<Type> argTypes) {
+        this.hierarchy = hierarchy;
+        this.arities = Sets.newHybridOrderedSet();
+        this.arities.addAll(arities);
+        for (Type argType : argTypes) {
+            if (argType instanceof ClassType classType
+                    && classType.getJClass() != null) {
+                closures.getThisAndSuperClasses(classType.getJClass())
+                        .forEach(c -> argClasses.set(hierarchy.getIndex(c)));
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code paramTypes} belongs to Ptp.
+     */
+    boolean contains(@Nullable List<Type> paramTypes) {
+        return paramTypes != null
+                && arities.contains(paramTypes.size())
+                && accepts(paramTypes);
+    }
+
+    /**
+     * Lazily enumerates the parameter lists in Ptp that are declared by
+     * some method named {@code methodName}, or by any method if
+     * {@code methodName} is {@code null}.
+     */
+    Stream<List<Type>> enumerate(@Nullable String methodName) {
+        MethodIndex index = hierarchy.getMethodIndex();
+        return arities.stream()
+                .flatMap(arity -> methodName == null
+                        ? index.getParamTypes(arity).stream()
+                        : index.getMethods(methodName).stream()
+                            .map(JMethod::getParamTypes)
+                            .filter(paramTypes -> paramTypes.size() == arity)
+                            .distinct())
+                .filter(this::accepts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PossibleParamTypes that)) {
+            return false;
+        }
+        return arities.equals(that.arities) && argClasses.equals(that.argClasses);
+    }
+
+    @Override
+    public int hashCode() {
+        return Hashes.hash(arities, argClasses);
+    }
+
+    private boolean accepts(List<Type> paramTypes) {
+        for (Type paramType : paramTypes) {
+            if (!(paramType instanceof ClassType classType)) {
+                return false;
+            }
+            JClass c = classType.getJClass();
+            if (c == null || !argClasses.get(hierarchy.getIndex(c))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
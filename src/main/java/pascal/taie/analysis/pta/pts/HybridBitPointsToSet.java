@@ -25,14 +25,22 @@ package pascal.taie.analysis.pta.pts;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.SetEx;
 
+import java.util.function.Supplier;
+
 class HybridBitPointsToSet extends DelegatePointsToSet {
 
     public HybridBitPointsToSet(Indexer<CSObj> indexer, boolean isSparse) {
         this(new HybridBitSet<>(indexer, isSparse));
     }
 
+    public HybridBitPointsToSet(Indexer<CSObj> indexer,
+                                Supplier<? extends IBitSet> bitSetFactory) {
+        this(new HybridBitSet<>(indexer, bitSetFactory));
+    }
+
     private HybridBitPointsToSet(SetEx<CSObj> set) {
         super(set);
     }
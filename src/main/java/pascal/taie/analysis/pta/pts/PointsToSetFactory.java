@@ -24,8 +24,15 @@ package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetEx;
+import pascal.taie.util.collection.SparseBitSet;
 
+import java.util.Map;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Provides static factory methods for {@link PointsToSet}.
@@ -35,7 +42,33 @@ public class PointsToSetFactory {
     private final Supplier<PointsToSet> factory;
 
     public PointsToSetFactory(Indexer<CSObj> objIndexer) {
-        factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        this(objIndexer, false);
+    }
+
+    /**
+     * @param hashConsing whether the points-to sets made by this factory
+     *                    can share their objects by {@link #hashCons(Stream)}.
+     */
+    public PointsToSetFactory(Indexer<CSObj> objIndexer, boolean hashConsing) {
+        this(objIndexer, SparseBitSet::new, hashConsing);
+    }
+
+    /**
+     * @param bitSetFactory creates the bit sets that store the objects
+     *                      of large points-to sets.
+     * @param hashConsing   whether the points-to sets made by this factory
+     *                      can share their objects by {@link #hashCons(Stream)}.
+     */
+    public PointsToSetFactory(Indexer<CSObj> objIndexer,
+                              Supplier<? extends IBitSet> bitSetFactory,
+                              boolean hashConsing) {
+        if (hashConsing) {
+            Supplier<SetEx<CSObj>> setFactory =
+                    () -> new HybridBitSet<>(objIndexer, bitSetFactory);
+            factory = () -> new SharedPointsToSet(setFactory);
+        } else {
+            factory = () -> new HybridBitPointsToSet(objIndexer, bitSetFactory);
+        }
     }
 
     public PointsToSet make() {
@@ -50,4 +83,23 @@ public class PointsToSetFactory {
         set.addObject(obj);
         return set;
     }
+
+    /**
+     * Hash-conses given points-to sets, so that the points-to sets with
+     * the same objects share one underlying set, which is copied when
+     * any of the points-to sets is modified afterwards. The points-to sets
+     * not made by a hash-consing factory are ignored.
+     *
+     * @return number of distinct underlying sets of given points-to sets.
+     */
+    public int hashCons(Stream<PointsToSet> ptsStream) {
+        Map<SetEx<CSObj>, SetEx<CSObj>> canonicalSets = Maps.newMap();
+        ptsStream.forEach(pts -> {
+            if (pts instanceof SharedPointsToSet sharedPts) {
+                sharedPts.share(canonicalSets.computeIfAbsent(
+                        sharedPts.getSet(), set -> set));
+            }
+        });
+        return canonicalSets.size();
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.SetEx;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set whose underlying set may be shared with other points-to
+ * sets, and is copied on write. The sets are shared by {@link #copy()},
+ * and by {@link PointsToSetFactory#hashCons(Stream)}, which lets
+ * the points-to sets with the same objects share one underlying set.
+ */
+class SharedPointsToSet implements PointsToSet {
+
+    private final Supplier<SetEx<CSObj>> setFactory;
+
+    private SetEx<CSObj> set;
+
+    /**
+     * Whether {@link #set} may be shared with other points-to sets,
+     * i.e., it must not be modified in place.
+     */
+    private boolean shared;
+
+    SharedPointsToSet(Supplier<SetEx<CSObj>> setFactory) {
+        this(setFactory, setFactory.get());
+    }
+
+    private SharedPointsToSet(Supplier<SetEx<CSObj>> setFactory,
+                              SetEx<CSObj> set) {
+        this.setFactory = setFactory;
+        this.set = set;
+        this.shared = false;
+    }
+
+    SetEx<CSObj> getSet() {
+        return set;
+    }
+
+    /**
+     * Lets this points-to set share given set, which must have
+     * the same objects as this points-to set.
+     */
+    void share(SetEx<CSObj> set) {
+        this.set = set;
+        this.shared = true;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        if (set.contains(obj)) {
+            return false;
+        }
+        ensureOwned();
+        return set.add(obj);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        Set<CSObj> other = getSetOf(pts);
+        if (shared && set.containsAll(other)) {
+            return false;
+        }
+        ensureOwned();
+        return set.addAll(other);
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        Set<CSObj> other = getSetOf(pts);
+        if (shared && set.containsAll(other)) {
+            return new SharedPointsToSet(setFactory);
+        }
+        ensureOwned();
+        return new SharedPointsToSet(setFactory, set.addAllDiff(other));
+    }
+
+    private void ensureOwned() {
+        if (shared) {
+            set = set.copy();
+            shared = false;
+        }
+    }
+
+    private static Set<CSObj> getSetOf(PointsToSet pts) {
+        return pts instanceof SharedPointsToSet other ?
+                other.set : pts.getObjects();
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return set.contains(obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return set.stream();
+    }
+
+    @Override
+    public PointsToSet copy() {
+        shared = true;
+        SharedPointsToSet copy = new SharedPointsToSet(setFactory, set);
+        copy.shared = true;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return set.toString();
+    }
+}
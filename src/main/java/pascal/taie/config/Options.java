@@ -165,6 +165,40 @@ public class Options {
         return preBuildIR;
     }
 
+    @JsonProperty
+    @Option(names = "--pre-build-reachable-ir",
+            description = "When pre-building IR, only build IR for methods" +
+                    " reachable from the entry methods in the call graph" +
+                    " of class hierarchy analysis (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean preBuildReachableIR = false;
+
+    public boolean isPreBuildReachableIR() {
+        return preBuildReachableIR;
+    }
+
+    @JsonProperty
+    @Option(names = "--pre-build-dispatch-tables",
+            description = "Build the method dispatch tables for all classes" +
+                    " before starting any analysis (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean preBuildDispatchTables = false;
+
+    public boolean isPreBuildDispatchTables() {
+        return preBuildDispatchTables;
+    }
+
+    @JsonProperty
+    @Option(names = "--ir-cache",
+            description = "The directory of persistent IR cache, which is" +
+                    " used to skip building IR of unchanged classes" +
+                    " in later runs (default: no cache)")
+    private File irCacheDir;
+
+    public File getIRCacheDir() {
+        return irCacheDir;
+    }
+
     @JsonProperty
     @Option(names = "-scope",
             description = "Scope for method/class analyses (default: ${DEFAULT-VALUE}," +
@@ -310,6 +344,9 @@ public class Options {
                 ", allowPhantom=" + allowPhantom +
                 ", worldBuilderClass=" + worldBuilderClass +
                 ", preBuildIR=" + preBuildIR +
+                ", preBuildReachableIR=" + preBuildReachableIR +
+                ", preBuildDispatchTables=" + preBuildDispatchTables +
+                ", irCacheDir=" + irCacheDir +
                 ", scope=" + scope +
                 ", nativeModel=" + nativeModel +
                 ", planFile=" + planFile +
@@ -24,18 +24,26 @@ package pascal.taie.frontend.soot;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CHAResolver;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRBuildHelper;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
-import java.util.ArrayList;
+import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 class IRBuilder implements pascal.taie.ir.IRBuilder {
 
@@ -43,12 +51,22 @@ class IRBuilder implements pascal.taie.ir.IRBuilder {
 
     private final Converter converter;
 
-    IRBuilder(Converter converter) {
+    @Nullable
+    private final IRCache cache;
+
+    IRBuilder(Converter converter, @Nullable IRCache cache) {
         this.converter = converter;
+        this.cache = cache;
     }
 
     @Override
     public IR buildIR(JMethod method) {
+        return cache != null ?
+                cache.getOrBuild(method, this::buildIRViaSoot) :
+                buildIRViaSoot(method);
+    }
+
+    private IR buildIRViaSoot(JMethod method) {
         try {
             return new MethodIRBuilder(method, converter).build();
         } catch (RuntimeException e) {
@@ -67,35 +85,220 @@ class IRBuilder implements pascal.taie.ir.IRBuilder {
      */
     @Override
     public void buildAll(ClassHierarchy hierarchy) {
-        Timer timer = new Timer("Build IR for all methods");
-        timer.start();
-        int nThreads = Runtime.getRuntime().availableProcessors();
-        // Group all methods by number of threads
-        List<List<JMethod>> groups = new ArrayList<>();
-        for (int i = 0; i < nThreads; ++i) {
-            groups.add(new ArrayList<>());
+        List<JMethod> methods = hierarchy.allClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() || m.isNative())
+                .toList();
+        Scheduler scheduler = new Scheduler("Build IR for all methods");
+        scheduler.run(pool -> pool.execute(
+                new BuildRange(scheduler, methods, 0, methods.size())));
+    }
+
+    /**
+     * Builds IR for the methods that are reachable from {@code entries}
+     * in the call graph given by class hierarchy analysis.
+     */
+    @Override
+    public void buildReachable(ClassHierarchy hierarchy,
+                               Collection<JMethod> entries) {
+        Scheduler scheduler = new Scheduler(
+                "Build IR for CHA-reachable methods");
+        CHAResolver resolver = new CHAResolver(hierarchy);
+        Set<JMethod> reached = Sets.newConcurrentSet();
+        scheduler.run(pool -> entries.forEach(entry -> {
+            if (reached.add(entry)) {
+                pool.execute(new BuildReachable(
+                        scheduler, resolver, reached, entry));
+            }
+        }));
+        logger.info("{} methods are reachable under CHA", reached.size());
+    }
+
+    /**
+     * Runs IR building tasks on a work-stealing pool and records
+     * how busy each worker thread was.
+     */
+    private static class Scheduler {
+
+        /**
+         * Number of methods built by a single leaf task
+         * of {@link BuildRange}.
+         */
+        private static final int LEAF_SIZE = 16;
+
+        private final String name;
+
+        private final Map<Thread, Worker> workers = Maps.newConcurrentMap();
+
+        private final AtomicReference<RuntimeException> failure =
+                new AtomicReference<>();
+
+        private Scheduler(String name) {
+            this.name = name;
+        }
+
+        private void run(Consumer<ForkJoinPool> submitter) {
+            Timer timer = new Timer(name);
+            timer.start();
+            int nThreads = Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(nThreads);
+            long start = System.nanoTime();
+            submitter.accept(pool);
+            pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            long elapsed = System.nanoTime() - start;
+            timer.stop();
+            logger.info(timer);
+            logUtilization(nThreads, elapsed);
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+
+        /**
+         * Builds IR of given method on current thread.
+         *
+         * @return the built IR, or {@code null} if the building failed.
+         */
+        @Nullable
+        private IR build(JMethod method) {
+            long start = System.nanoTime();
+            IR ir = null;
+            try {
+                ir = method.getIR();
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            Worker worker = workers.computeIfAbsent(
+                    Thread.currentThread(), unused -> new Worker());
+            worker.busyTime += System.nanoTime() - start;
+            ++worker.methods;
+            return ir;
+        }
+
+        /**
+         * Records a failure of a task, which is thrown after all tasks finish.
+         */
+        private void fail(RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+
+        private void logUtilization(int nThreads, long elapsed) {
+            long busyTime = 0;
+            int methods = 0;
+            int i = 0;
+            for (Worker worker : workers.values()) {
+                logger.debug("Worker {}: {} methods, {}% busy", i++,
+                        worker.methods, percent(worker.busyTime, elapsed));
+                busyTime += worker.busyTime;
+                methods += worker.methods;
+            }
+            logger.info("Built IR for {} methods on {} threads," +
+                            " thread utilization: {}%", methods, nThreads,
+                    percent(busyTime, elapsed * nThreads));
+        }
+
+        private static String percent(long part, long total) {
+            return String.format("%.1f",
+                    total == 0 ? 0.0 : 100.0 * part / total);
         }
-        List<JClass> classes = hierarchy.allClasses().toList();
-        int i = 0;
-        for (JClass c : classes) {
-            for (JMethod m : c.getDeclaredMethods()) {
-                if (!m.isAbstract() || m.isNative()) {
-                    groups.get(i++ % nThreads).add(m);
+    }
+
+    /**
+     * Statistics of a worker thread. Each instance is only updated
+     * by its own thread, and read after the pool terminates.
+     */
+    private static class Worker {
+
+        private long busyTime;
+
+        private int methods;
+    }
+
+    /**
+     * Builds IR for a range of methods, splitting the range in halves
+     * so that idle workers can steal the unprocessed parts.
+     */
+    private static class BuildRange extends RecursiveAction {
+
+        private final Scheduler scheduler;
+
+        private final List<JMethod> methods;
+
+        private final int from;
+
+        private final int to;
+
+        private BuildRange(Scheduler scheduler, List<JMethod> methods,
+                           int from, int to) {
+            this.scheduler = scheduler;
+            this.methods = methods;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= Scheduler.LEAF_SIZE) {
+                for (int i = from; i < to; ++i) {
+                    scheduler.build(methods.get(i));
                 }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BuildRange(scheduler, methods, from, mid),
+                        new BuildRange(scheduler, methods, mid, to));
             }
         }
-        // Build IR for all methods in parallel
-        ExecutorService service = Executors.newFixedThreadPool(nThreads);
-        for (List<JMethod> group : groups) {
-            service.execute(() -> group.forEach(JMethod::getIR));
+    }
+
+    /**
+     * Builds IR for a method, then forks tasks for its CHA callees
+     * that have not been reached yet.
+     */
+    private static class BuildReachable extends RecursiveAction {
+
+        private final Scheduler scheduler;
+
+        private final CHAResolver resolver;
+
+        private final Set<JMethod> reached;
+
+        private final JMethod method;
+
+        private BuildReachable(Scheduler scheduler, CHAResolver resolver,
+                               Set<JMethod> reached, JMethod method) {
+            this.scheduler = scheduler;
+            this.resolver = resolver;
+            this.reached = reached;
+            this.method = method;
         }
-        service.shutdown();
-        try {
-            service.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+
+        @Override
+        protected void compute() {
+            if (method.isAbstract()) {
+                return;
+            }
+            IR ir = scheduler.build(method);
+            if (ir == null) {
+                return; // failed to build IR
+            }
+            try {
+                ir.invokes(false).forEach(invoke ->
+                        resolver.resolveCalleesOf(invoke).forEach(callee -> {
+                            if (reached.add(callee)) {
+                                new BuildReachable(scheduler, resolver,
+                                        reached, callee).fork();
+                            }
+                        }));
+            } catch (RuntimeException e) {
+                scheduler.fail(e);
+            }
         }
-        timer.stop();
-        logger.info(timer);
     }
 }
@@ -0,0 +1,366 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.soot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRReader;
+import pascal.taie.ir.IRWriter;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Persistent cache of {@link IR}, which allows repeated runs to skip
+ * building method bodies via Soot.
+ * <p>
+ * The cache keeps one file per class, named after the SHA-256 hash of
+ * the content of its class file, so that the cached IR is invalidated
+ * as soon as the class changes. A cache file consists of a header
+ * (magic number and {@link #VERSION}), an index from the subsignatures
+ * of the methods of the class to the offsets of their IR,
+ * and the IR encoded by {@link IRWriter}. Cache files are
+ * memory-mapped when being read.
+ * <p>
+ * The cache holds the jars in the class path open until it is closed,
+ * which happens at the latest when the world is reset.
+ */
+class IRCache implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(IRCache.class);
+
+    private static final int MAGIC = 0x54414945; // "TAIE"
+
+    /**
+     * Version of the cache file layout.
+     */
+    private static final int VERSION = 1;
+
+    private static final String SUFFIX = ".ir";
+
+    /**
+     * Represents the classes whose IR is not cached,
+     * e.g., the classes without class files.
+     */
+    private static final ClassEntry UNCACHED = new ClassEntry(null, Map.of());
+
+    /**
+     * The caches that have not been closed.
+     */
+    private static final Set<IRCache> openCaches = Sets.newConcurrentSet();
+
+    static {
+        World.registerResetCallback(() -> openCaches.forEach(IRCache::close));
+    }
+
+    private final Path dir;
+
+    private final IRReader reader;
+
+    /**
+     * Entries of the class path, each of which is
+     * either a {@link File} (directory) or a {@link ZipFile} (jar).
+     */
+    private final List<Object> classPath = new ArrayList<>();
+
+    private final Map<JClass, ClassEntry> entries = Maps.newConcurrentMap();
+
+    private volatile boolean closed = false;
+
+    IRCache(File dir, String classPath,
+            JClassLoader loader, TypeSystem typeSystem) {
+        this.dir = dir.toPath();
+        this.reader = new IRReader(loader, typeSystem);
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String path : classPath.split(File.pathSeparator)) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                this.classPath.add(file);
+            } else if (file.isFile()) {
+                try {
+                    this.classPath.add(new ZipFile(file));
+                } catch (IOException e) {
+                    logger.warn("Failed to open {} for IR cache", file);
+                }
+            }
+        }
+        openCaches.add(this);
+    }
+
+    /**
+     * @return IR of given method, which is read from the cache if present,
+     * otherwise it is built by {@code builder}, and the IR of all methods
+     * declared in the same class are added to the cache.
+     * After the cache is closed, the IR is always built by {@code builder}.
+     */
+    IR getOrBuild(JMethod method, Function<JMethod, IR> builder) {
+        if (closed) {
+            return builder.apply(method);
+        }
+        ClassEntry entry = getEntry(method.getDeclaringClass(), builder);
+        Integer offset = entry.offsets.get(
+                method.getSubsignature().toString());
+        if (offset != null) {
+            try {
+                return reader.read(method, entry.buffer.duplicate()
+                        .position(offset));
+            } catch (AnalysisException e) {
+                logger.debug("Failed to read cached IR of {}: {}",
+                        method, e.getMessage());
+            }
+        }
+        return builder.apply(method);
+    }
+
+    private ClassEntry getEntry(JClass jclass, Function<JMethod, IR> builder) {
+        ClassEntry entry = entries.get(jclass);
+        if (entry == null) {
+            // lock the class to avoid building the cache of a class
+            // multiple times when building IR in parallel
+            synchronized (jclass) {
+                entry = entries.get(jclass);
+                if (entry == null) {
+                    entry = closed ? UNCACHED : loadEntry(jclass, builder);
+                    entries.put(jclass, entry);
+                }
+            }
+        }
+        return entry;
+    }
+
+    private ClassEntry loadEntry(JClass jclass, Function<JMethod, IR> builder) {
+        byte[] classFile = readClassFile(jclass.getName());
+        if (classFile == null) {
+            return UNCACHED;
+        }
+        Path file = dir.resolve(hash(classFile) + SUFFIX);
+        try {
+            if (Files.exists(file)) {
+                ClassEntry entry = mapEntry(file);
+                if (entry != null) {
+                    return entry;
+                }
+                logger.debug("Discard stale IR cache {} of {}", file, jclass);
+            }
+            writeEntry(jclass, file, builder);
+            ClassEntry entry = mapEntry(file);
+            return entry != null ? entry : UNCACHED;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to cache IR of {}: {}", jclass, e.toString());
+            return UNCACHED;
+        }
+    }
+
+    /**
+     * Maps the cache file into memory and reads its index.
+     *
+     * @return the entry of the cache file, or {@code null} if the file
+     * is truncated or written in an incompatible version.
+     */
+    @Nullable
+    private static ClassEntry mapEntry(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int methodCount = buffer.getInt();
+            Map<String, Integer> offsets = Maps.newHybridMap();
+            for (int i = 0; i < methodCount; ++i) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return null; // truncated file
+                }
+                byte[] subsig = new byte[length];
+                buffer.get(subsig);
+                int offset = buffer.getInt();
+                if (offset < 0 || offset > buffer.limit()) {
+                    return null; // truncated file
+                }
+                offsets.put(new String(subsig, StandardCharsets.UTF_8), offset);
+            }
+            return new ClassEntry(buffer, offsets);
+        } catch (BufferUnderflowException e) {
+            return null; // truncated file
+        }
+    }
+
+    /**
+     * Builds IR for all methods with bodies in {@code jclass},
+     * and writes them to the cache file.
+     */
+    private static void writeEntry(JClass jclass, Path file,
+                                   Function<JMethod, IR> builder)
+            throws IOException {
+        List<byte[]> subsigs = new ArrayList<>();
+        List<byte[]> irs = new ArrayList<>();
+        for (JMethod method : jclass.getDeclaredMethods()) {
+            if (!method.isAbstract() && !method.isNative()) {
+                subsigs.add(method.getSubsignature().toString()
+                        .getBytes(StandardCharsets.UTF_8));
+                irs.add(IRWriter.write(builder.apply(method)));
+            }
+        }
+        // compute the offset of the first IR, i.e., the size of the header
+        int offset = 12;
+        for (byte[] subsig : subsigs) {
+            offset += 8 + subsig.length;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(subsigs.size());
+            for (int i = 0; i < subsigs.size(); ++i) {
+                out.writeInt(subsigs.get(i).length);
+                out.write(subsigs.get(i));
+                out.writeInt(offset);
+                offset += irs.get(i).length;
+            }
+            for (byte[] ir : irs) {
+                out.write(ir);
+            }
+        }
+        // write to a temporary file first, so that concurrent runs
+        // never observe partially written cache files
+        Path temp = Files.createTempFile(file.getParent(), null, SUFFIX);
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return content of the class file of given class in the class path,
+     * or {@code null} if the class file is not found.
+     */
+    @Nullable
+    private byte[] readClassFile(String className) {
+        String path = className.replace('.', '/') + ".class";
+        try {
+            for (Object entry : classPath) {
+                if (entry instanceof File dir) {
+                    File file = new File(dir, path);
+                    if (file.isFile()) {
+                        return Files.readAllBytes(file.toPath());
+                    }
+                } else {
+                    ZipFile jar = (ZipFile) entry;
+                    ZipEntry zipEntry = jar.getEntry(path);
+                    if (zipEntry != null) {
+                        try (InputStream in = jar.getInputStream(zipEntry)) {
+                            return in.readAllBytes();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read class file of {}", className);
+        }
+        return null;
+    }
+
+    /**
+     * Closes the jars in the class path and releases the cached IR.
+     * Closing a closed cache has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        openCaches.remove(this);
+        for (Object entry : classPath) {
+            if (entry instanceof ZipFile jar) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close {}", jar.getName());
+                }
+            }
+        }
+        entries.clear();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+    }
+
+    /**
+     * Cached IR of the methods in a class.
+     *
+     * @param buffer  the memory-mapped cache file.
+     * @param offsets map from method subsignatures to the offsets
+     *                of their IR in {@code buffer}.
+     */
+    private record ClassEntry(ByteBuffer buffer, Map<String, Integer> offsets) {
+    }
+}
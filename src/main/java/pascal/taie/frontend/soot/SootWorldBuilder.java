@@ -36,6 +36,7 @@ import pascal.taie.config.Configs;
 import pascal.taie.config.Options;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.StringReps;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.TypeSystem;
@@ -236,10 +237,27 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
                 .toList());
         // initialize IR builder
         world.setNativeModel(getNativeModel(typeSystem, hierarchy));
-        IRBuilder irBuilder = new IRBuilder(converter);
+        IRCache irCache = null;
+        if (options.getIRCacheDir() != null) {
+            irCache = new IRCache(options.getIRCacheDir(),
+                    scene.getSootClassPath(), loader, typeSystem);
+        }
+        IRBuilder irBuilder = new IRBuilder(converter, irCache);
         world.setIRBuilder(irBuilder);
         if (options.isPreBuildIR()) {
-            irBuilder.buildAll(hierarchy);
+            if (options.isPreBuildReachableIR()) {
+                List<JMethod> entries = new ArrayList<>(
+                        world.getImplicitEntries());
+                if (world.getMainMethod() != null) {
+                    entries.add(world.getMainMethod());
+                }
+                irBuilder.buildReachable(hierarchy, entries);
+            } else {
+                irBuilder.buildAll(hierarchy);
+            }
+        }
+        if (options.isPreBuildDispatchTables()) {
+            hierarchy.buildDispatchTables();
         }
     }
 
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Def-use information of the variables in an {@link IR}, collected by
+ * a single scan over its statements. This class is immutable after
+ * construction, and it is obtained via {@link IR#getDefUseIndex()}.
+ */
+public class DefUseIndex {
+
+    private final MultiMap<Var, Stmt> defs = Maps.newMultiMap();
+
+    private final MultiMap<Var, Cast> casts = Maps.newMultiMap();
+
+    private final List<ConstNewArray> constNewArrays = new ArrayList<>();
+
+    DefUseIndex(IR ir) {
+        for (Stmt stmt : ir) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    defs.put(var, stmt);
+                }
+            });
+            if (stmt instanceof Cast cast) {
+                casts.put(cast.getRValue().getValue(), cast);
+            } else if (stmt instanceof New newStmt
+                    && newStmt.getRValue() instanceof NewArray newArray
+                    && newArray.getLength().isConst()
+                    && newArray.getLength().getConstValue()
+                    instanceof IntLiteral length) {
+                constNewArrays.add(new ConstNewArray(newStmt, length.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return the statements that define {@code var}.
+     */
+    public Set<Stmt> getDefs(Var var) {
+        return defs.get(var);
+    }
+
+    /**
+     * @return the cast statements whose operand is {@code var},
+     * i.e., {@code x = (T) var}.
+     */
+    public Set<Cast> getCastsOf(Var var) {
+        return casts.get(var);
+    }
+
+    /**
+     * @return the array allocation sites whose lengths are int constants,
+     * in the order they appear in the IR.
+     */
+    public List<ConstNewArray> getConstNewArrays() {
+        return constNewArrays;
+    }
+
+    /**
+     * An array allocation site {@code x = new T[length]} with
+     * constant {@code length}.
+     */
+    public record ConstNewArray(New stmt, int length) {
+    }
+}
@@ -34,7 +34,8 @@ import java.util.Set;
 
 /**
  * Default implementation of IR.
- * The data structures in this class are immutable.
+ * The data structures in this class are immutable, except that
+ * the def-use index is built lazily.
  */
 public class DefaultIR extends AbstractResultHolder implements IR {
 
@@ -52,6 +53,9 @@ public class DefaultIR extends AbstractResultHolder implements IR {
 
     private final List<ExceptionEntry> exceptionEntries;
 
+    @Nullable
+    private volatile DefUseIndex defUseIndex;
+
     public DefaultIR(
             JMethod method, Var thisVar,
             List<Var> params, Set<Var> returnVars, List<Var> vars,
@@ -115,4 +119,19 @@ public class DefaultIR extends AbstractResultHolder implements IR {
     public List<ExceptionEntry> getExceptionEntries() {
         return exceptionEntries;
     }
+
+    @Override
+    public DefUseIndex getDefUseIndex() {
+        DefUseIndex index = defUseIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = defUseIndex;
+                if (index == null) {
+                    index = new DefUseIndex(this);
+                    defUseIndex = index;
+                }
+            }
+        }
+        return index;
+    }
 }
@@ -123,4 +123,9 @@ public interface IR extends Iterable<Stmt>, ResultHolder {
      * @see ExceptionEntry
      */
     List<ExceptionEntry> getExceptionEntries();
+
+    /**
+     * @return the def-use index of this IR, which is built on first use.
+     */
+    DefUseIndex getDefUseIndex();
 }
@@ -25,6 +25,8 @@ package pascal.taie.ir;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.Collection;
+
 /**
  * Interface for builder of {@link IR}.
  */
@@ -39,4 +41,10 @@ public interface IRBuilder {
      * Builds IR for all methods in the given hierarchy.
      */
     void buildAll(ClassHierarchy hierarchy);
+
+    /**
+     * Builds IR for the methods that are reachable from {@code entries}
+     * in the call graph constructed by class hierarchy analysis.
+     */
+    void buildReachable(ClassHierarchy hierarchy, Collection<JMethod> entries);
 }
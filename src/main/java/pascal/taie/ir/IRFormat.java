@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+/**
+ * Constants of the binary format of {@link IR},
+ * shared by {@link IRWriter} and {@link IRReader}.
+ */
+final class IRFormat {
+
+    private IRFormat() {
+    }
+
+    /**
+     * Version of the format. It must be increased whenever
+     * the encoding of IR changes, so that stale data are rejected.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Index of absent variable or statement.
+     */
+    static final int NONE = -1;
+
+    // ---------- statement tags ----------
+    static final byte NEW_INSTANCE = 1;
+    static final byte NEW_ARRAY = 2;
+    static final byte NEW_MULTI_ARRAY = 3;
+    static final byte ASSIGN_LITERAL = 4;
+    static final byte COPY = 5;
+    static final byte LOAD_ARRAY = 6;
+    static final byte STORE_ARRAY = 7;
+    static final byte LOAD_STATIC_FIELD = 8;
+    static final byte LOAD_INSTANCE_FIELD = 9;
+    static final byte STORE_STATIC_FIELD = 10;
+    static final byte STORE_INSTANCE_FIELD = 11;
+    static final byte ARITHMETIC = 12;
+    static final byte BITWISE = 13;
+    static final byte COMPARISON = 14;
+    static final byte SHIFT = 15;
+    static final byte NEG = 16;
+    static final byte ARRAY_LENGTH = 17;
+    static final byte INSTANCE_OF = 18;
+    static final byte CAST = 19;
+    static final byte GOTO = 20;
+    static final byte IF = 21;
+    static final byte TABLE_SWITCH = 22;
+    static final byte LOOKUP_SWITCH = 23;
+    static final byte INVOKE_VIRTUAL = 24;
+    static final byte INVOKE_INTERFACE = 25;
+    static final byte INVOKE_SPECIAL = 26;
+    static final byte INVOKE_STATIC = 27;
+    static final byte INVOKE_DYNAMIC = 28;
+    static final byte RETURN = 29;
+    static final byte THROW = 30;
+    static final byte CATCH = 31;
+    static final byte MONITOR = 32;
+    static final byte NOP = 33;
+
+    // ---------- literal tags ----------
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte FLOAT = 3;
+    static final byte DOUBLE = 4;
+    static final byte STRING = 5;
+    static final byte CLASS = 6;
+    static final byte NULL = 7;
+    static final byte METHOD_HANDLE = 8;
+    static final byte METHOD_TYPE = 9;
+}
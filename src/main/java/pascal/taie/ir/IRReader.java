@@ -0,0 +1,508 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads {@link IR} written by {@link IRWriter}. Names of classes and
+ * types are resolved in the given class loader and type system.
+ */
+public final class IRReader {
+
+    private final JClassLoader loader;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Caches the resolved types, as most IR refers to
+     * a few types many times.
+     */
+    private final Map<String, Type> types = Maps.newConcurrentMap();
+
+    public IRReader(JClassLoader loader, TypeSystem typeSystem) {
+        this.loader = loader;
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * Reads the IR of {@code method} from the current position of
+     * {@code buffer}, and advances the position past the IR.
+     *
+     * @throws AnalysisException if the data is malformed, or it refers to
+     *                           a class that cannot be loaded.
+     */
+    public IR read(JMethod method, ByteBuffer buffer) {
+        try {
+            return new MethodReader(method, buffer).read();
+        } catch (RuntimeException e) {
+            if (e instanceof AnalysisException ae) {
+                throw ae;
+            }
+            throw new AnalysisException(
+                    "Failed to read IR of " + method, e);
+        }
+    }
+
+    private Type getType(String name) {
+        Type type = types.get(name);
+        if (type == null) {
+            if (name.equals(VoidType.VOID.getName())) {
+                type = VoidType.VOID;
+            } else if (name.equals(NullType.NULL.getName())) {
+                type = NullType.NULL;
+            } else {
+                type = typeSystem.getType(loader, name);
+            }
+            types.put(name, type);
+        }
+        return type;
+    }
+
+    private JClass loadClass(String name) {
+        JClass jclass = loader.loadClass(name);
+        if (jclass == null) {
+            throw new AnalysisException("Cannot load class " + name);
+        }
+        return jclass;
+    }
+
+    /**
+     * Reads the IR of a method.
+     */
+    private class MethodReader {
+
+        private final JMethod method;
+
+        private final ByteBuffer buffer;
+
+        private List<Var> vars;
+
+        private List<Stmt> stmts;
+
+        /**
+         * Jump statements and the indexes of their targets, which are
+         * linked after all statements have been read.
+         */
+        private final Map<Stmt, int[]> jumpTargets = Maps.newHybridMap();
+
+        private MethodReader(JMethod method, ByteBuffer buffer) {
+            this.method = method;
+            this.buffer = buffer;
+        }
+
+        private IR read() {
+            int version = buffer.getInt();
+            if (version != IRFormat.VERSION) {
+                throw new AnalysisException("Unsupported IR format version "
+                        + version + ", expected " + IRFormat.VERSION);
+            }
+            int varCount = buffer.getInt();
+            vars = new ArrayList<>(varCount);
+            for (int i = 0; i < varCount; ++i) {
+                String name = readString();
+                Type type = readType();
+                Literal constValue = buffer.get() != 0 ? readLiteral() : null;
+                vars.add(new Var(method, name, type, i, constValue));
+            }
+            Var thisVar = readVar();
+            List<Var> params = readVars();
+            Set<Var> returnVars = new LinkedHashSet<>(readVars());
+            int stmtCount = buffer.getInt();
+            stmts = new ArrayList<>(stmtCount);
+            for (int i = 0; i < stmtCount; ++i) {
+                int lineNumber = buffer.getInt();
+                Stmt stmt = readStmt();
+                stmt.setLineNumber(lineNumber);
+                stmt.setIndex(i);
+                stmts.add(stmt);
+            }
+            linkJumpTargets();
+            int entryCount = buffer.getInt();
+            List<ExceptionEntry> exceptionEntries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; ++i) {
+                exceptionEntries.add(new ExceptionEntry(
+                        getStmt(buffer.getInt()),
+                        getStmt(buffer.getInt()),
+                        (Catch) getStmt(buffer.getInt()),
+                        (ClassType) readType()));
+            }
+            return new DefaultIR(method, thisVar, params, returnVars,
+                    vars, stmts, exceptionEntries);
+        }
+
+        private Stmt readStmt() {
+            byte tag = buffer.get();
+            return switch (tag) {
+                case IRFormat.NEW_INSTANCE -> new New(method, readVar(),
+                        new NewInstance((ClassType) readType()));
+                case IRFormat.NEW_ARRAY -> {
+                    Var lvalue = readVar();
+                    ArrayType type = (ArrayType) readType();
+                    yield new New(method, lvalue, new NewArray(type, readVar()));
+                }
+                case IRFormat.NEW_MULTI_ARRAY -> {
+                    Var lvalue = readVar();
+                    ArrayType type = (ArrayType) readType();
+                    yield new New(method, lvalue,
+                            new NewMultiArray(type, readVars()));
+                }
+                case IRFormat.ASSIGN_LITERAL ->
+                        new AssignLiteral(readVar(), readLiteral());
+                case IRFormat.COPY -> new Copy(readVar(), readVar());
+                case IRFormat.LOAD_ARRAY ->
+                        new LoadArray(readVar(), readArrayAccess());
+                case IRFormat.STORE_ARRAY ->
+                        new StoreArray(readArrayAccess(), readVar());
+                case IRFormat.LOAD_STATIC_FIELD -> new LoadField(readVar(),
+                        new StaticFieldAccess((FieldRef) readMemberRef(false)));
+                case IRFormat.LOAD_INSTANCE_FIELD -> {
+                    Var base = readVar();
+                    Var lvalue = readVar();
+                    FieldAccess access = new InstanceFieldAccess(
+                            (FieldRef) readMemberRef(false), base);
+                    yield new LoadField(lvalue, access);
+                }
+                case IRFormat.STORE_STATIC_FIELD -> new StoreField(
+                        new StaticFieldAccess((FieldRef) readMemberRef(false)),
+                        readVar());
+                case IRFormat.STORE_INSTANCE_FIELD -> {
+                    Var base = readVar();
+                    FieldAccess access = new InstanceFieldAccess(
+                            (FieldRef) readMemberRef(false), base);
+                    yield new StoreField(access, readVar());
+                }
+                case IRFormat.ARITHMETIC -> {
+                    Var lvalue = readVar();
+                    ArithmeticExp.Op op = ArithmeticExp.Op.values()[buffer.getInt()];
+                    yield new Binary(lvalue,
+                            new ArithmeticExp(op, readVar(), readVar()));
+                }
+                case IRFormat.BITWISE -> {
+                    Var lvalue = readVar();
+                    BitwiseExp.Op op = BitwiseExp.Op.values()[buffer.getInt()];
+                    yield new Binary(lvalue,
+                            new BitwiseExp(op, readVar(), readVar()));
+                }
+                case IRFormat.COMPARISON -> {
+                    Var lvalue = readVar();
+                    ComparisonExp.Op op = ComparisonExp.Op.values()[buffer.getInt()];
+                    yield new Binary(lvalue,
+                            new ComparisonExp(op, readVar(), readVar()));
+                }
+                case IRFormat.SHIFT -> {
+                    Var lvalue = readVar();
+                    ShiftExp.Op op = ShiftExp.Op.values()[buffer.getInt()];
+                    yield new Binary(lvalue,
+                            new ShiftExp(op, readVar(), readVar()));
+                }
+                case IRFormat.NEG -> new Unary(readVar(), new NegExp(readVar()));
+                case IRFormat.ARRAY_LENGTH ->
+                        new Unary(readVar(), new ArrayLengthExp(readVar()));
+                case IRFormat.INSTANCE_OF -> {
+                    Var lvalue = readVar();
+                    Var value = readVar();
+                    yield new InstanceOf(lvalue, new InstanceOfExp(
+                            value, (ReferenceType) readType()));
+                }
+                case IRFormat.CAST -> {
+                    Var lvalue = readVar();
+                    Var value = readVar();
+                    yield new Cast(lvalue, new CastExp(value, readType()));
+                }
+                case IRFormat.GOTO -> {
+                    Goto gotoStmt = new Goto();
+                    jumpTargets.put(gotoStmt, new int[]{buffer.getInt()});
+                    yield gotoStmt;
+                }
+                case IRFormat.IF -> {
+                    ConditionExp.Op op = ConditionExp.Op.values()[buffer.getInt()];
+                    If ifStmt = new If(
+                            new ConditionExp(op, readVar(), readVar()));
+                    jumpTargets.put(ifStmt, new int[]{buffer.getInt()});
+                    yield ifStmt;
+                }
+                case IRFormat.TABLE_SWITCH -> {
+                    Var var = readVar();
+                    int lowIndex = buffer.getInt();
+                    int highIndex = buffer.getInt();
+                    yield readTargets(new TableSwitch(var, lowIndex, highIndex));
+                }
+                case IRFormat.LOOKUP_SWITCH -> {
+                    Var var = readVar();
+                    int caseCount = buffer.getInt();
+                    List<Integer> caseValues = new ArrayList<>(caseCount);
+                    for (int i = 0; i < caseCount; ++i) {
+                        caseValues.add(buffer.getInt());
+                    }
+                    yield readTargets(new LookupSwitch(var, caseValues));
+                }
+                case IRFormat.INVOKE_VIRTUAL, IRFormat.INVOKE_INTERFACE,
+                        IRFormat.INVOKE_SPECIAL, IRFormat.INVOKE_STATIC,
+                        IRFormat.INVOKE_DYNAMIC -> readInvoke(tag);
+                case IRFormat.RETURN -> {
+                    Var value = readVar();
+                    yield value != null ? new Return(value) : new Return();
+                }
+                case IRFormat.THROW -> new Throw(readVar());
+                case IRFormat.CATCH -> new Catch(readVar());
+                case IRFormat.MONITOR -> {
+                    Monitor.Op op = buffer.get() != 0 ?
+                            Monitor.Op.ENTER : Monitor.Op.EXIT;
+                    yield new Monitor(op, readVar());
+                }
+                case IRFormat.NOP -> new Nop();
+                default -> throw new AnalysisException(
+                        "Unknown statement tag: " + tag);
+            };
+        }
+
+        private Invoke readInvoke(byte tag) {
+            Var result = readVar();
+            MethodRef methodRef = (MethodRef) readMemberRef(true);
+            InvokeExp invokeExp;
+            if (tag == IRFormat.INVOKE_DYNAMIC) {
+                String methodName = readString();
+                MethodType methodType = (MethodType) readLiteral();
+                int bootstrapArgCount = buffer.getInt();
+                List<Literal> bootstrapArgs = new ArrayList<>(bootstrapArgCount);
+                for (int i = 0; i < bootstrapArgCount; ++i) {
+                    bootstrapArgs.add(readLiteral());
+                }
+                invokeExp = new InvokeDynamic(methodRef, methodName,
+                        methodType, bootstrapArgs, readVars());
+            } else if (tag == IRFormat.INVOKE_STATIC) {
+                invokeExp = new InvokeStatic(methodRef, readVars());
+            } else {
+                Var base = readVar();
+                List<Var> args = readVars();
+                invokeExp = switch (tag) {
+                    case IRFormat.INVOKE_VIRTUAL ->
+                            new InvokeVirtual(methodRef, base, args);
+                    case IRFormat.INVOKE_INTERFACE ->
+                            new InvokeInterface(methodRef, base, args);
+                    default -> new InvokeSpecial(methodRef, base, args);
+                };
+            }
+            return new Invoke(method, invokeExp, result);
+        }
+
+        private SwitchStmt readTargets(SwitchStmt switchStmt) {
+            int targetCount = buffer.getInt();
+            int[] targets = new int[targetCount + 1];
+            for (int i = 0; i < targetCount; ++i) {
+                targets[i] = buffer.getInt();
+            }
+            // the last element is the index of default target
+            targets[targetCount] = buffer.getInt();
+            jumpTargets.put(switchStmt, targets);
+            return switchStmt;
+        }
+
+        private void linkJumpTargets() {
+            jumpTargets.forEach((stmt, targets) -> {
+                if (stmt instanceof Goto gotoStmt) {
+                    gotoStmt.setTarget(getStmt(targets[0]));
+                } else if (stmt instanceof If ifStmt) {
+                    ifStmt.setTarget(getStmt(targets[0]));
+                } else {
+                    SwitchStmt switchStmt = (SwitchStmt) stmt;
+                    List<Stmt> caseTargets = new ArrayList<>(targets.length - 1);
+                    for (int i = 0; i < targets.length - 1; ++i) {
+                        caseTargets.add(getStmt(targets[i]));
+                    }
+                    switchStmt.setTargets(caseTargets);
+                    switchStmt.setDefaultTarget(
+                            getStmt(targets[targets.length - 1]));
+                }
+            });
+        }
+
+        private ArrayAccess readArrayAccess() {
+            return new ArrayAccess(readVar(), readVar());
+        }
+
+        @Nullable
+        private Var readVar() {
+            int i = buffer.getInt();
+            return i != IRFormat.NONE ? vars.get(i) : null;
+        }
+
+        private List<Var> readVars() {
+            int size = buffer.getInt();
+            List<Var> result = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                result.add(readVar());
+            }
+            return result;
+        }
+
+        @Nullable
+        private Stmt getStmt(int i) {
+            return i != IRFormat.NONE ? stmts.get(i) : null;
+        }
+
+        private String readString() {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Type readType() {
+            return getType(readString());
+        }
+
+        private List<Type> readTypes() {
+            int size = buffer.getInt();
+            List<Type> result = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                result.add(readType());
+            }
+            return result;
+        }
+
+        private MemberRef readMemberRef(boolean isMethodRef) {
+            JClass declaringClass = loadClass(readString());
+            String name = readString();
+            boolean isStatic = buffer.get() != 0;
+            if (isMethodRef) {
+                List<Type> paramTypes = readTypes();
+                return MethodRef.get(declaringClass, name,
+                        paramTypes, readType(), isStatic);
+            } else {
+                return FieldRef.get(declaringClass, name, readType(), isStatic);
+            }
+        }
+
+        private Literal readLiteral() {
+            byte tag = buffer.get();
+            return switch (tag) {
+                case IRFormat.INT -> IntLiteral.get(buffer.getInt());
+                case IRFormat.LONG -> LongLiteral.get(buffer.getLong());
+                case IRFormat.FLOAT -> FloatLiteral.get(buffer.getFloat());
+                case IRFormat.DOUBLE -> DoubleLiteral.get(buffer.getDouble());
+                case IRFormat.STRING -> StringLiteral.get(readString());
+                case IRFormat.CLASS -> ClassLiteral.get(readType());
+                case IRFormat.NULL -> NullLiteral.get();
+                case IRFormat.METHOD_HANDLE -> {
+                    MethodHandle.Kind kind = MethodHandle.Kind.get(buffer.getInt());
+                    yield MethodHandle.get(kind, readMemberRef(isMethodKind(kind)));
+                }
+                case IRFormat.METHOD_TYPE -> {
+                    List<Type> paramTypes = readTypes();
+                    yield MethodType.get(paramTypes, readType());
+                }
+                default -> throw new AnalysisException(
+                        "Unknown literal tag: " + tag);
+            };
+        }
+    }
+
+    private static boolean isMethodKind(MethodHandle.Kind kind) {
+        return switch (kind) {
+            case REF_getField, REF_getStatic,
+                    REF_putField, REF_putStatic -> false;
+            default -> true;
+        };
+    }
+}
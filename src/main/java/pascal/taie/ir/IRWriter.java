@@ -0,0 +1,560 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.type.Type;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes {@link IR} in a compact binary format, which can be read back
+ * by {@link IRReader}. Variables and statements are referred to by
+ * their indexes, and classes, members and types by their names,
+ * so that the encoded IR does not depend on the current world.
+ */
+public final class IRWriter {
+
+    private IRWriter() {
+    }
+
+    /**
+     * @return the binary encoding of given IR.
+     * @throws IllegalArgumentException if the IR contains a statement
+     *                                  or expression that cannot be encoded.
+     */
+    public static byte[] write(IR ir) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(IRFormat.VERSION);
+            writeVars(ir, out);
+            out.writeInt(ir.getStmts().size());
+            StmtWriter stmtWriter = new StmtWriter(out);
+            for (Stmt stmt : ir) {
+                out.writeInt(stmt.getLineNumber());
+                stmt.accept(stmtWriter);
+            }
+            out.writeInt(ir.getExceptionEntries().size());
+            for (ExceptionEntry entry : ir.getExceptionEntries()) {
+                writeStmt(entry.start(), out);
+                writeStmt(entry.end(), out);
+                writeStmt(entry.handler(), out);
+                writeType(entry.catchType(), out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVars(IR ir, DataOutputStream out)
+            throws IOException {
+        out.writeInt(ir.getVars().size());
+        for (Var var : ir.getVars()) {
+            writeString(var.getName(), out);
+            writeType(var.getType(), out);
+            out.writeBoolean(var.isConst());
+            if (var.isConst()) {
+                writeLiteral(var.getConstValue(), out);
+            }
+        }
+        writeVar(ir.getThis(), out);
+        writeVars(ir.getParams(), out);
+        writeVars(ir.getReturnVars(), out);
+    }
+
+    private static void writeVar(@Nullable Var var, DataOutputStream out)
+            throws IOException {
+        out.writeInt(var != null ? var.getIndex() : IRFormat.NONE);
+    }
+
+    private static void writeVars(List<Var> vars, DataOutputStream out)
+            throws IOException {
+        out.writeInt(vars.size());
+        for (Var var : vars) {
+            writeVar(var, out);
+        }
+    }
+
+    private static void writeStmt(@Nullable Stmt stmt, DataOutputStream out)
+            throws IOException {
+        out.writeInt(stmt != null ? stmt.getIndex() : IRFormat.NONE);
+    }
+
+    private static void writeString(String s, DataOutputStream out)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeType(Type type, DataOutputStream out)
+            throws IOException {
+        writeString(type.getName(), out);
+    }
+
+    private static void writeTypes(List<Type> types, DataOutputStream out)
+            throws IOException {
+        out.writeInt(types.size());
+        for (Type type : types) {
+            writeType(type, out);
+        }
+    }
+
+    private static void writeMemberRef(MemberRef ref, DataOutputStream out)
+            throws IOException {
+        writeString(ref.getDeclaringClass().getName(), out);
+        writeString(ref.getName(), out);
+        out.writeBoolean(ref.isStatic());
+        if (ref instanceof FieldRef fieldRef) {
+            writeType(fieldRef.getType(), out);
+        } else {
+            MethodRef methodRef = (MethodRef) ref;
+            writeTypes(methodRef.getParameterTypes(), out);
+            writeType(methodRef.getReturnType(), out);
+        }
+    }
+
+    private static void writeLiteral(Literal literal, DataOutputStream out)
+            throws IOException {
+        if (literal instanceof IntLiteral l) {
+            out.writeByte(IRFormat.INT);
+            out.writeInt(l.getValue());
+        } else if (literal instanceof LongLiteral l) {
+            out.writeByte(IRFormat.LONG);
+            out.writeLong(l.getValue());
+        } else if (literal instanceof FloatLiteral l) {
+            out.writeByte(IRFormat.FLOAT);
+            out.writeFloat(l.getValue());
+        } else if (literal instanceof DoubleLiteral l) {
+            out.writeByte(IRFormat.DOUBLE);
+            out.writeDouble(l.getValue());
+        } else if (literal instanceof StringLiteral l) {
+            out.writeByte(IRFormat.STRING);
+            writeString(l.getString(), out);
+        } else if (literal instanceof ClassLiteral l) {
+            out.writeByte(IRFormat.CLASS);
+            writeType(l.getTypeValue(), out);
+        } else if (literal instanceof NullLiteral) {
+            out.writeByte(IRFormat.NULL);
+        } else if (literal instanceof MethodHandle l) {
+            out.writeByte(IRFormat.METHOD_HANDLE);
+            out.writeInt(l.getKind().getValue());
+            writeMemberRef(l.isMethodRef() ?
+                    l.getMethodRef() : l.getFieldRef(), out);
+        } else if (literal instanceof MethodType l) {
+            out.writeByte(IRFormat.METHOD_TYPE);
+            writeTypes(l.getParamTypes(), out);
+            writeType(l.getReturnType(), out);
+        } else {
+            throw new IllegalArgumentException(
+                    "Cannot write literal: " + literal);
+        }
+    }
+
+    /**
+     * Writes the tag and content of each statement.
+     */
+    private static class StmtWriter implements StmtVisitor<Void> {
+
+        private final DataOutputStream out;
+
+        private StmtWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public Void visit(New stmt) {
+            NewExp newExp = stmt.getRValue();
+            if (newExp instanceof NewInstance newInstance) {
+                writeTag(IRFormat.NEW_INSTANCE);
+                writeVar(stmt.getLValue());
+                writeType(newInstance.getType());
+            } else if (newExp instanceof NewArray newArray) {
+                writeTag(IRFormat.NEW_ARRAY);
+                writeVar(stmt.getLValue());
+                writeType(newArray.getType());
+                writeVar(newArray.getLength());
+            } else {
+                NewMultiArray newMultiArray = (NewMultiArray) newExp;
+                writeTag(IRFormat.NEW_MULTI_ARRAY);
+                writeVar(stmt.getLValue());
+                writeType(newMultiArray.getType());
+                writeVars(newMultiArray.getLengths());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignLiteral stmt) {
+            writeTag(IRFormat.ASSIGN_LITERAL);
+            writeVar(stmt.getLValue());
+            run(() -> writeLiteral(stmt.getRValue(), out));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            writeTag(IRFormat.COPY);
+            writeVar(stmt.getLValue());
+            writeVar(stmt.getRValue());
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadArray stmt) {
+            writeTag(IRFormat.LOAD_ARRAY);
+            writeVar(stmt.getLValue());
+            writeArrayAccess(stmt.getRValue());
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreArray stmt) {
+            writeTag(IRFormat.STORE_ARRAY);
+            writeArrayAccess(stmt.getLValue());
+            writeVar(stmt.getRValue());
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            FieldAccess access = stmt.getRValue();
+            if (access instanceof InstanceFieldAccess instanceAccess) {
+                writeTag(IRFormat.LOAD_INSTANCE_FIELD);
+                writeVar(instanceAccess.getBase());
+            } else {
+                writeTag(IRFormat.LOAD_STATIC_FIELD);
+            }
+            writeVar(stmt.getLValue());
+            writeMemberRef(access.getFieldRef());
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            FieldAccess access = stmt.getLValue();
+            if (access instanceof InstanceFieldAccess instanceAccess) {
+                writeTag(IRFormat.STORE_INSTANCE_FIELD);
+                writeVar(instanceAccess.getBase());
+            } else {
+                writeTag(IRFormat.STORE_STATIC_FIELD);
+            }
+            writeMemberRef(access.getFieldRef());
+            writeVar(stmt.getRValue());
+            return null;
+        }
+
+        @Override
+        public Void visit(Binary stmt) {
+            BinaryExp exp = stmt.getRValue();
+            if (exp instanceof ArithmeticExp) {
+                writeTag(IRFormat.ARITHMETIC);
+            } else if (exp instanceof BitwiseExp) {
+                writeTag(IRFormat.BITWISE);
+            } else if (exp instanceof ComparisonExp) {
+                writeTag(IRFormat.COMPARISON);
+            } else if (exp instanceof ShiftExp) {
+                writeTag(IRFormat.SHIFT);
+            } else {
+                throw new IllegalArgumentException(
+                        "Cannot write binary expression: " + exp);
+            }
+            writeVar(stmt.getLValue());
+            writeBinaryExp(exp, exp.getOperator());
+            return null;
+        }
+
+        @Override
+        public Void visit(Unary stmt) {
+            UnaryExp exp = stmt.getRValue();
+            if (exp instanceof NegExp neg) {
+                writeTag(IRFormat.NEG);
+                writeVar(stmt.getLValue());
+                writeVar(neg.getValue());
+            } else {
+                writeTag(IRFormat.ARRAY_LENGTH);
+                writeVar(stmt.getLValue());
+                writeVar(((ArrayLengthExp) exp).getBase());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(InstanceOf stmt) {
+            writeTag(IRFormat.INSTANCE_OF);
+            writeVar(stmt.getLValue());
+            writeVar(stmt.getRValue().getValue());
+            writeType(stmt.getRValue().getCheckedType());
+            return null;
+        }
+
+        @Override
+        public Void visit(Cast stmt) {
+            writeTag(IRFormat.CAST);
+            writeVar(stmt.getLValue());
+            writeVar(stmt.getRValue().getValue());
+            writeType(stmt.getRValue().getCastType());
+            return null;
+        }
+
+        @Override
+        public Void visit(Goto stmt) {
+            writeTag(IRFormat.GOTO);
+            writeStmt(stmt.getTarget());
+            return null;
+        }
+
+        @Override
+        public Void visit(If stmt) {
+            writeTag(IRFormat.IF);
+            writeBinaryExp(stmt.getCondition(),
+                    stmt.getCondition().getOperator());
+            writeStmt(stmt.getTarget());
+            return null;
+        }
+
+        @Override
+        public Void visit(TableSwitch stmt) {
+            writeTag(IRFormat.TABLE_SWITCH);
+            writeVar(stmt.getVar());
+            writeInt(stmt.getLowIndex());
+            writeInt(stmt.getHighIndex());
+            writeTargets(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visit(LookupSwitch stmt) {
+            writeTag(IRFormat.LOOKUP_SWITCH);
+            writeVar(stmt.getVar());
+            writeInt(stmt.getCaseValues().size());
+            stmt.getCaseValues().forEach(this::writeInt);
+            writeTargets(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            InvokeExp exp = stmt.getInvokeExp();
+            if (exp instanceof InvokeDynamic indy) {
+                writeTag(IRFormat.INVOKE_DYNAMIC);
+                writeVar(stmt.getResult());
+                writeMemberRef(indy.getBootstrapMethodRef());
+                run(() -> {
+                    writeString(indy.getMethodName(), out);
+                    writeLiteral(indy.getMethodType(), out);
+                    out.writeInt(indy.getBootstrapArgs().size());
+                    for (Literal arg : indy.getBootstrapArgs()) {
+                        writeLiteral(arg, out);
+                    }
+                });
+            } else {
+                if (exp instanceof InvokeVirtual) {
+                    writeTag(IRFormat.INVOKE_VIRTUAL);
+                } else if (exp instanceof InvokeInterface) {
+                    writeTag(IRFormat.INVOKE_INTERFACE);
+                } else if (exp instanceof InvokeSpecial) {
+                    writeTag(IRFormat.INVOKE_SPECIAL);
+                } else if (exp instanceof InvokeStatic) {
+                    writeTag(IRFormat.INVOKE_STATIC);
+                } else {
+                    throw new IllegalArgumentException(
+                            "Cannot write invocation: " + exp);
+                }
+                writeVar(stmt.getResult());
+                writeMemberRef(exp.getMethodRef());
+                if (exp instanceof InvokeInstanceExp instanceExp) {
+                    writeVar(instanceExp.getBase());
+                }
+            }
+            writeVars(exp.getArgs());
+            return null;
+        }
+
+        @Override
+        public Void visit(Return stmt) {
+            writeTag(IRFormat.RETURN);
+            writeVar(stmt.getValue());
+            return null;
+        }
+
+        @Override
+        public Void visit(Throw stmt) {
+            writeTag(IRFormat.THROW);
+            writeVar(stmt.getExceptionRef());
+            return null;
+        }
+
+        @Override
+        public Void visit(Catch stmt) {
+            writeTag(IRFormat.CATCH);
+            writeVar(stmt.getExceptionRef());
+            return null;
+        }
+
+        @Override
+        public Void visit(Monitor stmt) {
+            writeTag(IRFormat.MONITOR);
+            run(() -> out.writeBoolean(stmt.isEnter()));
+            writeVar(stmt.getObjectRef());
+            return null;
+        }
+
+        @Override
+        public Void visit(Nop stmt) {
+            writeTag(IRFormat.NOP);
+            return null;
+        }
+
+        @Override
+        public Void visitDefault(Stmt stmt) {
+            throw new IllegalArgumentException(
+                    "Cannot write statement: " + stmt);
+        }
+
+        private void writeBinaryExp(BinaryExp exp, BinaryExp.Op op) {
+            writeInt(((Enum<?>) op).ordinal());
+            writeVar(exp.getOperand1());
+            writeVar(exp.getOperand2());
+        }
+
+        private void writeArrayAccess(ArrayAccess access) {
+            writeVar(access.getBase());
+            writeVar(access.getIndex());
+        }
+
+        private void writeTargets(SwitchStmt stmt) {
+            writeInt(stmt.getTargets().size());
+            stmt.getTargets().forEach(this::writeStmt);
+            writeStmt(stmt.getDefaultTarget());
+        }
+
+        private void writeTag(byte tag) {
+            run(() -> out.writeByte(tag));
+        }
+
+        private void writeInt(int i) {
+            run(() -> out.writeInt(i));
+        }
+
+        private void writeVar(@Nullable Var var) {
+            run(() -> IRWriter.writeVar(var, out));
+        }
+
+        private void writeVars(List<Var> vars) {
+            run(() -> IRWriter.writeVars(vars, out));
+        }
+
+        private void writeStmt(@Nullable Stmt stmt) {
+            run(() -> IRWriter.writeStmt(stmt, out));
+        }
+
+        private void writeType(Type type) {
+            run(() -> IRWriter.writeType(type, out));
+        }
+
+        private void writeMemberRef(MemberRef ref) {
+            run(() -> IRWriter.writeMemberRef(ref, out));
+        }
+
+        private static void run(IOAction action) {
+            try {
+                action.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
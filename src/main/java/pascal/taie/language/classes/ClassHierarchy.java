@@ -55,6 +55,12 @@ public interface ClassHierarchy extends Indexer<JClass> {
 
     Stream<JClass> allClasses();
 
+    /**
+     * @return the number of classes in this class hierarchy. As classes
+     * are never removed, the hierarchy has changed if this number grows.
+     */
+    int getNumberOfClasses();
+
     Stream<JClass> applicationClasses();
 
     @Nullable
@@ -154,6 +160,22 @@ public interface ClassHierarchy extends Indexer<JClass> {
     @Nullable
     JMethod dispatch(JClass receiverClass, MethodRef methodRef);
 
+    /**
+     * Builds the dispatch tables of all classes in this hierarchy, so that
+     * the dispatches on these classes become table lookups without
+     * synchronization, which benefits the analyses that dispatch
+     * concurrently. The dispatches on the classes that are added
+     * after this call fall back to method lookups.
+     */
+    void buildDispatchTables();
+
+    /**
+     * @return the index of the methods declared in this hierarchy.
+     * The index is built on the first call, and kept up to date
+     * with the classes added afterwards.
+     */
+    MethodIndex getMethodIndex();
+
     /**
      * @return the direct subinterfaces of given interface.
      */
@@ -31,9 +31,12 @@ import pascal.taie.language.type.ArrayType;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
 import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.MapMapTwoKeyMap;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
 import javax.annotation.Nullable;
@@ -43,12 +46,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 public class ClassHierarchyImpl implements ClassHierarchy {
 
     private static final Logger logger = LogManager.getLogger(ClassHierarchyImpl.class);
 
+    /**
+     * The encoding is rebuilt after the number of subclass queries that
+     * it cannot answer exceeds 1/ENCODING_REBUILD_RATIO of its size.
+     */
+    private static final int ENCODING_REBUILD_RATIO = 8;
+
     private JClassLoader defaultLoader;
 
     private JClassLoader bootstrapLoader;
@@ -83,15 +93,39 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     private final MultiMap<JClass, JClass> directInnerClasses = Maps.newMultiMap();
 
     /**
-     * Cache results of method dispatch.
+     * Cache results of method dispatch. The maps are concurrent
+     * as {@link #dispatch(JClass, MethodRef)} may be called by multiple
+     * threads, e.g., when building IR of CHA-reachable methods in parallel.
      */
-    private final TwoKeyMap<JClass, Subsignature, JMethod> dispatchTable = Maps.newTwoKeyMap();
+    private final TwoKeyMap<JClass, Subsignature, JMethod> dispatchTable =
+            new MapMapTwoKeyMap<>(Maps.newConcurrentMap(), Maps::newConcurrentMap);
 
     /**
      * Cache results of {@link #getAllSubclassesOf(JClass)}.
      */
     private final Map<JClass, Set<JClass>> allSubclasses = Maps.newConcurrentMap();
 
+    /**
+     * Encoding of class hierarchy for constant-time subclass checking.
+     * It is built on the first subclass query, and the classes added
+     * afterwards are checked by traversing the hierarchy until
+     * the encoding is rebuilt.
+     */
+    @Nullable
+    private volatile HierarchyEncoding encoding;
+
+    /**
+     * Number of subclass queries that cannot be answered by
+     * {@link #encoding} since it was built.
+     */
+    private final AtomicInteger uncoveredQueries = new AtomicInteger();
+
+    /**
+     * Index of the methods in this hierarchy, which is built on demand.
+     */
+    @Nullable
+    private volatile MethodIndex methodIndex;
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -148,6 +182,10 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         // set index
         jclass.setIndex(classCounter++);
         classes.add(jclass);
+        MethodIndex index = methodIndex;
+        if (index != null) {
+            index.addClass(jclass);
+        }
         // invalidate global hierarchy information
         // TODO - make this elegant
         allSubclasses.clear();
@@ -168,6 +206,11 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return classes.stream();
     }
 
+    @Override
+    public int getNumberOfClasses() {
+        return classes.size();
+    }
+
     @Override
     public Stream<JClass> applicationClasses() {
         return allClasses().filter(JClass::isApplication);
@@ -332,6 +375,10 @@ public class ClassHierarchyImpl implements ClassHierarchy {
             return null;
         }
         Subsignature subsignature = methodRef.getSubsignature();
+        DispatchTable table = receiverClass.getDispatchTable();
+        if (table != null) {
+            return table.get(subsignature);
+        }
         JMethod target = dispatchTable.get(receiverClass, subsignature);
         if (target == null) {
             target = lookupMethod(receiverClass, subsignature, false);
@@ -345,6 +392,78 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return target;
     }
 
+    @Override
+    public void buildDispatchTables() {
+        Timer.runAndCount(() -> {
+            int entries = classes.parallelStream()
+                    .filter(c -> c.getDispatchTable() == null)
+                    .mapToInt(c -> {
+                        DispatchTable table = buildDispatchTable(c);
+                        c.setDispatchTable(table);
+                        return table.size();
+                    })
+                    .sum();
+            logger.info("Built dispatch tables for {} classes ({} entries)",
+                    classes.size(), entries);
+        }, "Build dispatch tables");
+    }
+
+    @Override
+    public MethodIndex getMethodIndex() {
+        MethodIndex index = methodIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = methodIndex;
+                if (index == null) {
+                    Timer timer = new Timer("Build method index");
+                    timer.start();
+                    index = new MethodIndex(classes);
+                    methodIndex = index;
+                    timer.stop();
+                    logger.info(timer);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Builds the dispatch table of given class, which contains the results
+     * of {@link #lookupMethod} for the subsignatures of all non-abstract
+     * methods declared in the superclasses and superinterfaces of the class,
+     * i.e., all subsignatures that can be dispatched on the class.
+     */
+    private DispatchTable buildDispatchTable(JClass jclass) {
+        Set<JClass> ancestors = Sets.newSet();
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            addAncestors(c, ancestors);
+        }
+        Map<Subsignature, JMethod> targets = Maps.newMap();
+        for (JClass ancestor : ancestors) {
+            for (JMethod method : ancestor.getDeclaredMethods()) {
+                Subsignature subsig = method.getSubsignature();
+                if (!method.isAbstract() && !targets.containsKey(subsig)) {
+                    JMethod target = lookupMethod(jclass, subsig, false);
+                    if (target != null) {
+                        targets.put(subsig, target);
+                    }
+                }
+            }
+        }
+        return new DispatchTable(targets);
+    }
+
+    /**
+     * Adds given class and its superinterfaces to {@code result}.
+     */
+    private static void addAncestors(JClass jclass, Set<JClass> result) {
+        if (result.add(jclass)) {
+            for (JClass iface : jclass.getInterfaces()) {
+                addAncestors(iface, result);
+            }
+        }
+    }
+
     private JMethod lookupMethod(JClass jclass, Subsignature subsignature,
                                  boolean allowAbstract) {
         // JVM Spec. (11 Ed.), 5.4.3.3 Method Resolution
@@ -399,16 +518,48 @@ public class ClassHierarchyImpl implements ClassHierarchy {
             return true;
         } else if (superclass == getObjectClass()) {
             return true;
-        } /*else if (subclass.isInterface()) {
-            return superclass.isInterface() &&
-                    isSubinterface(superclass, subclass);
+        }
+        HierarchyEncoding enc = getEncoding(subclass);
+        if (enc != null) {
+            return enc.isSubclass(superclass, subclass);
         } else {
             return isSubclass0(superclass, subclass);
-        }*/ else {
-            return getAllSubclassesOf(superclass).contains(subclass);
         }
     }
 
+    /**
+     * @return the encoding that can answer subclass queries on given class,
+     * or {@code null} if there is no such encoding.
+     */
+    @Nullable
+    private HierarchyEncoding getEncoding(JClass subclass) {
+        HierarchyEncoding enc = encoding;
+        if (enc != null && enc.isComplete(subclass)) {
+            return enc;
+        }
+        if (enc == null || uncoveredQueries.incrementAndGet()
+                > enc.size() / ENCODING_REBUILD_RATIO) {
+            enc = buildEncoding();
+            if (enc.isComplete(subclass)) {
+                return enc;
+            }
+        }
+        return null;
+    }
+
+    private synchronized HierarchyEncoding buildEncoding() {
+        HierarchyEncoding enc = encoding;
+        if (enc == null || enc.size() < classes.size()) {
+            enc = new HierarchyEncoding(classes);
+            encoding = enc;
+            logger.debug("Built hierarchy encoding for {} classes" +
+                    " ({} distinct interface rows)",
+                    enc.size(), enc.getDistinctRows());
+        }
+        uncoveredQueries.set(0);
+        return enc;
+    }
+
     /**
      * Obtains JClass representing java.lang.Object.
      * Since the creation of JClass requires TypeSystem, which may
@@ -426,25 +577,9 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return JavaLangObject;
     }
 
-    /**
-     * Traverses class hierarchy to check if subiface is
-     * a subinterface of superiface.
-     */
-    private boolean isSubinterface(JClass superiface, JClass subiface) {
-        if (subiface.equals(superiface)) {
-            return true;
-        }
-        for (JClass iface : subiface.getInterfaces()) {
-            if (isSubinterface(superiface, iface)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Traverses class hierarchy to check if subclass is a subclass of superclass.
-     * TODO: optimize performance
+     * This is used for the classes that are not covered by {@link #encoding}.
      */
     private boolean isSubclass0(JClass superclass, JClass subclass) {
         boolean isToInterface = superclass.isInterface();
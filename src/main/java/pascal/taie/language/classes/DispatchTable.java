@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Dispatch table of a class, which maps the subsignatures to the
+ * methods that the calls on the instances of the class dispatch to.
+ * <p>
+ * The table is keyed by the dense IDs of subsignatures
+ * ({@link Subsignature#getId()}) and stored in open-addressing arrays,
+ * so that a lookup usually costs a single array probe. A table is
+ * immutable after construction, thus it can be read by multiple threads
+ * without synchronization.
+ */
+final class DispatchTable {
+
+    private static final int EMPTY = -1;
+
+    /**
+     * IDs of the subsignatures in the table, or {@link #EMPTY}.
+     */
+    private final int[] keys;
+
+    private final JMethod[] targets;
+
+    /**
+     * Shift of Fibonacci hashing, i.e., 32 - log2(capacity).
+     */
+    private final int shift;
+
+    DispatchTable(Map<Subsignature, JMethod> targets) {
+        // keep the load factor at most 0.5
+        int capacity = Integer.highestOneBit(Math.max(1, targets.size()) * 2 - 1) << 1;
+        this.keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        this.targets = new JMethod[capacity];
+        this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        int mask = capacity - 1;
+        targets.forEach((subsig, target) -> {
+            int id = subsig.getId();
+            int i = slot(id);
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = id;
+            this.targets[i] = target;
+        });
+    }
+
+    /**
+     * @return the method dispatched for given subsignature,
+     * or {@code null} if no method is found.
+     */
+    @Nullable
+    JMethod get(Subsignature subsignature) {
+        int id = subsignature.getId();
+        int mask = keys.length - 1;
+        for (int i = slot(id); ; i = (i + 1) & mask) {
+            int key = keys[i];
+            if (key == id) {
+                return targets[i];
+            }
+            if (key == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return number of entries in this table.
+     */
+    int size() {
+        int size = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    private int slot(int id) {
+        return (id * 0x9E3779B9) >>> shift;
+    }
+}
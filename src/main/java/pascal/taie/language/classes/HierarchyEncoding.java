@@ -0,0 +1,266 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.RegularBitSet;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed encoding of a snapshot of the class hierarchy, which answers
+ * subclass queries in constant time.
+ * <ul>
+ *     <li>Non-interface classes form a forest by their superclass relation.
+ *     Each class is labeled with the pre- and post-order numbers of
+ *     a depth-first traversal of the forest, so that class C is a subclass
+ *     of class D iff the interval of C is nested in the interval of D.</li>
+ *     <li>For interfaces, each class (or interface) is mapped to a row of
+ *     a bit matrix, which contains the column of every interface that it
+ *     implements (or extends) directly or transitively. Many classes share
+ *     the same set of superinterfaces, thus equal rows are stored only once.</li>
+ * </ul>
+ * The encoding covers the classes that have been added to the hierarchy
+ * when it is built. A covered class is <em>complete</em> if all its
+ * ancestors are covered, and only the queries on complete subclasses
+ * can be answered by the encoding.
+ */
+final class HierarchyEncoding {
+
+    private static final int NO_INTERFACE = -1;
+
+    /**
+     * Number of classes covered by this encoding, i.e., classes
+     * whose indexes are less than this number.
+     */
+    private final int size;
+
+    private final boolean[] complete;
+
+    /**
+     * Pre-order numbers of non-interface classes.
+     */
+    private final int[] pre;
+
+    /**
+     * Post-order numbers of non-interface classes.
+     */
+    private final int[] post;
+
+    /**
+     * Column of each interface in the bit matrix.
+     */
+    private final int[] columns;
+
+    /**
+     * Rows of the bit matrix, {@code null} if the class
+     * has no superinterfaces.
+     */
+    private final RegularBitSet[] rows;
+
+    private final int distinctRows;
+
+    HierarchyEncoding(List<JClass> classes) {
+        size = classes.size();
+        complete = new boolean[size];
+        pre = new int[size];
+        post = new int[size];
+        columns = new int[size];
+        rows = new RegularBitSet[size];
+        int nInterfaces = 0;
+        for (int i = 0; i < size; ++i) {
+            columns[i] = classes.get(i).isInterface() ?
+                    nInterfaces++ : NO_INTERFACE;
+        }
+        // compute completeness and superinterfaces
+        Map<RegularBitSet, RegularBitSet> uniqueRows = Maps.newMap();
+        byte[] states = new byte[size];
+        for (JClass jclass : classes) {
+            computeRow(jclass, states, uniqueRows);
+        }
+        distinctRows = uniqueRows.size();
+        // label non-interface classes by DFS over the superclass forest
+        int[] parents = new int[size];
+        int[] childCounts = new int[size + 1];
+        for (int i = 0; i < size; ++i) {
+            JClass jclass = classes.get(i);
+            parents[i] = -1;
+            if (!jclass.isInterface()) {
+                JClass superclass = jclass.getSuperClass();
+                if (superclass != null && isCovered(superclass)
+                        && !superclass.isInterface()) {
+                    parents[i] = superclass.getIndex();
+                    ++childCounts[parents[i] + 1];
+                }
+            }
+        }
+        // children of class i are children[childStarts[i]..childStarts[i+1])
+        int[] childStarts = childCounts;
+        for (int i = 0; i < size; ++i) {
+            childStarts[i + 1] += childStarts[i];
+        }
+        int[] children = new int[childStarts[size]];
+        int[] fill = Arrays.copyOf(childStarts, size);
+        for (int i = 0; i < size; ++i) {
+            if (parents[i] != -1) {
+                children[fill[parents[i]]++] = i;
+            }
+        }
+        int counter = 0;
+        int[] stack = new int[size];
+        int[] next = new int[size]; // next child to visit of each class
+        for (int root = 0; root < size; ++root) {
+            if (columns[root] != NO_INTERFACE || parents[root] != -1) {
+                continue;
+            }
+            int top = 0;
+            stack[top] = root;
+            pre[root] = counter++;
+            next[root] = childStarts[root];
+            while (top >= 0) {
+                int node = stack[top];
+                if (next[node] < childStarts[node + 1]) {
+                    int child = children[next[node]++];
+                    stack[++top] = child;
+                    pre[child] = counter++;
+                    next[child] = childStarts[child];
+                } else {
+                    post[node] = counter++;
+                    --top;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the superinterfaces and completeness of given class.
+     *
+     * @return {@code true} if the class is complete.
+     */
+    private boolean computeRow(JClass jclass, byte[] states,
+                               Map<RegularBitSet, RegularBitSet> uniqueRows) {
+        if (!isCovered(jclass)) {
+            return false;
+        }
+        int index = jclass.getIndex();
+        if (states[index] != 0) {
+            // states[index] == 1 means a cycle in the hierarchy,
+            // which does not exist in valid bytecode
+            return complete[index];
+        }
+        states[index] = 1;
+        boolean isComplete = true;
+        RegularBitSet row = null;
+        boolean shared = true; // if row is shared with another class
+        JClass superclass = jclass.getSuperClass();
+        if (!jclass.isInterface() && superclass != null) {
+            isComplete = computeRow(superclass, states, uniqueRows);
+            if (isCovered(superclass)) {
+                row = rows[superclass.getIndex()];
+            }
+        }
+        for (JClass iface : jclass.getInterfaces()) {
+            if (iface == null) {
+                continue;
+            }
+            isComplete &= computeRow(iface, states, uniqueRows);
+            if (!isCovered(iface)) {
+                continue;
+            }
+            RegularBitSet ifaceRow = rows[iface.getIndex()];
+            int column = columns[iface.getIndex()];
+            if (row != null && row.get(column) &&
+                    (ifaceRow == null || row.contains(ifaceRow))) {
+                continue;
+            }
+            if (shared) {
+                row = row == null ? new RegularBitSet() : row.copy();
+                shared = false;
+            }
+            row.set(column);
+            if (ifaceRow != null) {
+                row.or(ifaceRow);
+            }
+        }
+        if (!shared) {
+            row = uniqueRows.computeIfAbsent(row, r -> r);
+        }
+        rows[index] = row;
+        complete[index] = isComplete;
+        states[index] = 2;
+        return isComplete;
+    }
+
+    /**
+     * @return {@code true} if given class is covered by this encoding.
+     */
+    boolean isCovered(JClass jclass) {
+        int index = jclass.getIndex();
+        return 0 <= index && index < size;
+    }
+
+    /**
+     * @return {@code true} if the subclass queries on given class
+     * can be answered by this encoding.
+     */
+    boolean isComplete(JClass jclass) {
+        return isCovered(jclass) && complete[jclass.getIndex()];
+    }
+
+    /**
+     * @return the number of classes covered by this encoding.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of distinct rows in the interface bit matrix.
+     */
+    int getDistinctRows() {
+        return distinctRows;
+    }
+
+    /**
+     * Checks whether subclass is a subclass of superclass.
+     * The subclass must be complete in this encoding.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        assert isComplete(subclass);
+        if (!isCovered(superclass)) {
+            // all ancestors of subclass are covered
+            return false;
+        }
+        int sup = superclass.getIndex();
+        int sub = subclass.getIndex();
+        if (columns[sup] != NO_INTERFACE) {
+            return rows[sub] != null && rows[sub].get(columns[sup]);
+        } else if (columns[sub] != NO_INTERFACE) {
+            return false;
+        } else {
+            return pre[sup] <= pre[sub] && post[sub] <= post[sup];
+        }
+    }
+}
@@ -82,6 +82,13 @@ public class JClass extends AbstractResultHolder
 
     private int index = -1;
 
+    /**
+     * Dispatch table of this class, which is {@code null} until
+     * it is built by the class hierarchy.
+     */
+    @Nullable
+    private DispatchTable dispatchTable;
+
     public JClass(JClassLoader loader, String name) {
         this(loader, name, null);
     }
@@ -311,6 +318,15 @@ public class JClass extends AbstractResultHolder
         return index;
     }
 
+    @Nullable
+    DispatchTable getDispatchTable() {
+        return dispatchTable;
+    }
+
+    void setDispatchTable(DispatchTable dispatchTable) {
+        this.dispatchTable = dispatchTable;
+    }
+
     @Override
     public String toString() {
         return getName();
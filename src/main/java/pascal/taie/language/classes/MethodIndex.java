@@ -0,0 +1,143 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the methods declared in a class hierarchy, which finds
+ * methods by name and/or parameter types, and the parameter types
+ * of given arity, without scanning all classes.
+ * <p>
+ * The index is built from a parallel stream over the classes, and the
+ * methods under each key are kept in the order of the classes in the
+ * hierarchy. The lists are immutable and replaced on updates, thus
+ * the index can be queried by multiple threads.
+ */
+public class MethodIndex {
+
+    private final Map<Key, List<JMethod>> byNameAndParams;
+
+    private final Map<List<Type>, List<JMethod>> byParams;
+
+    private final Map<String, List<JMethod>> byName;
+
+    /**
+     * Map from each number of parameters to the distinct lists of
+     * parameter types with that number.
+     */
+    private final Map<Integer, List<List<Type>>> paramTypesByArity;
+
+    MethodIndex(Collection<JClass> classes) {
+        List<JMethod> methods = classes.parallelStream()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .toList();
+        byNameAndParams = Maps.newConcurrentMap();
+        byNameAndParams.putAll(methods.parallelStream()
+                .collect(Collectors.groupingBy(
+                        m -> new Key(m.getName(), m.getParamTypes()),
+                        Collectors.toUnmodifiableList())));
+        byParams = Maps.newConcurrentMap();
+        byParams.putAll(methods.parallelStream()
+                .collect(Collectors.groupingBy(JMethod::getParamTypes,
+                        Collectors.toUnmodifiableList())));
+        byName = Maps.newConcurrentMap();
+        byName.putAll(methods.parallelStream()
+                .collect(Collectors.groupingBy(JMethod::getName,
+                        Collectors.toUnmodifiableList())));
+        paramTypesByArity = Maps.newConcurrentMap();
+        paramTypesByArity.putAll(methods.stream()
+                .map(JMethod::getParamTypes)
+                .distinct()
+                .collect(Collectors.groupingBy(List::size,
+                        Collectors.toUnmodifiableList())));
+    }
+
+    /**
+     * Adds the methods declared in a class that is added to
+     * the hierarchy after this index was built.
+     */
+    void addClass(JClass jclass) {
+        for (JMethod method : jclass.getDeclaredMethods()) {
+            List<Type> paramTypes = method.getParamTypes();
+            List<JMethod> single = List.of(method);
+            byNameAndParams.merge(new Key(method.getName(), paramTypes),
+                    single, MethodIndex::concat);
+            if (!byParams.containsKey(paramTypes)) {
+                paramTypesByArity.merge(paramTypes.size(),
+                        List.of(paramTypes), MethodIndex::concat);
+            }
+            byParams.merge(paramTypes, single, MethodIndex::concat);
+            byName.merge(method.getName(), single, MethodIndex::concat);
+        }
+    }
+
+    private static <T> List<T> concat(List<T> l1, List<T> l2) {
+        List<T> result = new ArrayList<>(l1.size() + l2.size());
+        result.addAll(l1);
+        result.addAll(l2);
+        return List.copyOf(result);
+    }
+
+    /**
+     * @return the methods with given name and parameter types,
+     * declared in any class.
+     */
+    public List<JMethod> getMethods(String name, List<Type> paramTypes) {
+        return byNameAndParams.getOrDefault(
+                new Key(name, paramTypes), List.of());
+    }
+
+    /**
+     * @return the methods with given parameter types,
+     * declared in any class.
+     */
+    public List<JMethod> getMethods(List<Type> paramTypes) {
+        return byParams.getOrDefault(paramTypes, List.of());
+    }
+
+    /**
+     * @return the methods with given name, declared in any class.
+     */
+    public List<JMethod> getMethods(String name) {
+        return byName.getOrDefault(name, List.of());
+    }
+
+    /**
+     * @return the distinct lists of parameter types of the methods
+     * that have {@code arity} parameters.
+     */
+    public List<List<Type>> getParamTypes(int arity) {
+        return paramTypesByArity.getOrDefault(arity, List.of());
+    }
+
+    private record Key(String name, List<Type> paramTypes) {
+    }
+}
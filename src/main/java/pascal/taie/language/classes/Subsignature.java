@@ -29,6 +29,7 @@ import pascal.taie.util.collection.Maps;
 
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Method name and descriptor.
@@ -44,12 +45,22 @@ public class Subsignature {
     private static final ConcurrentMap<String, Subsignature> map
             = Maps.newConcurrentMap();
 
+    /**
+     * Counter of the IDs of subsignatures.
+     */
+    private static final AtomicInteger counter = new AtomicInteger();
+
     static {
-        World.registerResetCallback(map::clear);
+        World.registerResetCallback(() -> {
+            map.clear();
+            counter.set(0);
+        });
     }
 
     private final String subsig;
 
+    private final int id;
+
     public static Subsignature get(
             String name, List<Type> parameterTypes, Type returnType) {
         return get(StringReps.toSubsignature(name, parameterTypes, returnType));
@@ -75,6 +86,15 @@ public class Subsignature {
 
     private Subsignature(String subsig) {
         this.subsig = subsig;
+        this.id = counter.getAndIncrement();
+    }
+
+    /**
+     * @return the ID of this subsignature. The IDs are dense, i.e.,
+     * the subsignatures are numbered from 0 in order of creation.
+     */
+    public int getId() {
+        return id;
     }
 
     @Override
@@ -0,0 +1,342 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+/**
+ * Bit set represented by a binary decision diagram (BDD)
+ * in a {@link BDDNodeTable}.
+ * <p>
+ * The sets in the same table share their common sub-diagrams, and
+ * {@link #copy()} takes constant time, thus this implementation is
+ * suitable for many large sets with regular structures, e.g., the points-to
+ * sets of deep context-sensitive analyses, where the objects of the same
+ * allocation site under different contexts have close indexes.
+ * The operations between two sets of the same table work on the diagrams,
+ * and they are synchronized on the table, so that the sets of a table can
+ * be used by multiple threads.
+ * <p>
+ * Note that single-bit updates rebuild the nodes on the path of the bit,
+ * thus they are much slower than those of the word-based bit sets,
+ * and the sets of scattered indexes do not benefit from the sharing.
+ */
+public class BDDBitSet extends AbstractBitSet {
+
+    private final BDDNodeTable table;
+
+    /**
+     * Root node of the BDD of this set, guarded by the table.
+     */
+    private int root;
+
+    public BDDBitSet(BDDNodeTable table) {
+        this(table, BDDNodeTable.FALSE);
+    }
+
+    private BDDBitSet(BDDNodeTable table, int root) {
+        this.table = table;
+        this.root = root;
+        synchronized (table) {
+            table.register(this);
+        }
+    }
+
+    int getRoot() {
+        return root;
+    }
+
+    @Override
+    public boolean set(int bitIndex) {
+        checkIndex(bitIndex);
+        synchronized (table) {
+            if (table.contains(root, bitIndex)) {
+                return false;
+            }
+            table.maybeGC();
+            root = table.add(root, bitIndex);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean clear(int bitIndex) {
+        checkIndex(bitIndex);
+        synchronized (table) {
+            if (!table.contains(root, bitIndex)) {
+                return false;
+            }
+            table.maybeGC();
+            root = table.remove(root, bitIndex);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        synchronized (table) {
+            return table.contains(root, bitIndex);
+        }
+    }
+
+    @Override
+    public void flip(int bitIndex) {
+        if (!set(bitIndex)) {
+            clear(bitIndex);
+        }
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        synchronized (table) {
+            return table.next(root, fromIndex, true);
+        }
+    }
+
+    @Override
+    public int nextClearBit(int fromIndex) {
+        checkIndex(fromIndex);
+        synchronized (table) {
+            return table.next(root, fromIndex, false);
+        }
+    }
+
+    @Override
+    public int previousSetBit(int fromIndex) {
+        if (checkPreviousIndex(fromIndex)) {
+            synchronized (table) {
+                return table.previous(root, fromIndex, true);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int previousClearBit(int fromIndex) {
+        if (checkPreviousIndex(fromIndex)) {
+            synchronized (table) {
+                return table.previous(root, fromIndex, false);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean intersects(IBitSet set) {
+        if (!isSameTable(set)) {
+            return super.intersects(set);
+        }
+        synchronized (table) {
+            table.maybeGC();
+            return table.and(root, ((BDDBitSet) set).root) != BDDNodeTable.FALSE;
+        }
+    }
+
+    @Override
+    public boolean contains(IBitSet set) {
+        if (!isSameTable(set)) {
+            return super.contains(set);
+        }
+        synchronized (table) {
+            table.maybeGC();
+            return table.diff(((BDDBitSet) set).root, root) == BDDNodeTable.FALSE;
+        }
+    }
+
+    @Override
+    public boolean and(IBitSet set) {
+        if (!isSameTable(set)) {
+            throw new UnsupportedOperationException(
+                    String.format("%s does not support AND with %s",
+                            this.getClass(), set.getClass()));
+        }
+        synchronized (table) {
+            table.maybeGC();
+            return update(table.and(root, ((BDDBitSet) set).root));
+        }
+    }
+
+    @Override
+    public boolean andNot(IBitSet set) {
+        if (!isSameTable(set)) {
+            return super.andNot(set);
+        }
+        synchronized (table) {
+            table.maybeGC();
+            return update(table.diff(root, ((BDDBitSet) set).root));
+        }
+    }
+
+    @Override
+    public boolean or(IBitSet set) {
+        if (!isSameTable(set)) {
+            return super.or(set);
+        }
+        synchronized (table) {
+            table.maybeGC();
+            return update(table.or(root, ((BDDBitSet) set).root));
+        }
+    }
+
+    @Override
+    public IBitSet orDiff(IBitSet set) {
+        if (!isSameTable(set)) {
+            return super.orDiff(set);
+        }
+        synchronized (table) {
+            table.maybeGC();
+            int other = ((BDDBitSet) set).root;
+            int diff = table.diff(other, root);
+            if (diff != BDDNodeTable.FALSE) {
+                root = table.or(root, other);
+            }
+            return new BDDBitSet(table, diff);
+        }
+    }
+
+    @Override
+    public boolean xor(IBitSet set) {
+        if (!isSameTable(set)) {
+            return super.xor(set);
+        }
+        synchronized (table) {
+            table.maybeGC();
+            return update(table.xor(root, ((BDDBitSet) set).root));
+        }
+    }
+
+    @Override
+    public void setTo(IBitSet set) {
+        if (!isSameTable(set)) {
+            super.setTo(set);
+        } else {
+            synchronized (table) {
+                root = ((BDDBitSet) set).root;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (table) {
+            root = BDDNodeTable.FALSE;
+        }
+    }
+
+    @Override
+    public <R> R iterateBits(Action<R> action) {
+        synchronized (table) {
+            table.iterate(root, action);
+        }
+        return action.getResult();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        synchronized (table) {
+            return root == BDDNodeTable.FALSE;
+        }
+    }
+
+    @Override
+    public int length() {
+        return previousSetBit(Integer.MAX_VALUE) + 1;
+    }
+
+    @Override
+    public int size() {
+        return length();
+    }
+
+    @Override
+    public int cardinality() {
+        synchronized (table) {
+            return (int) Math.min(Integer.MAX_VALUE, table.count(root));
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        // equal sets in the same table have the same root,
+        // and live nodes are never moved
+        synchronized (table) {
+            return root;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BDDBitSet that = (BDDBitSet) o;
+        if (table != that.table) {
+            return cardinality() == that.cardinality() && contains(that);
+        }
+        synchronized (table) {
+            return root == that.root;
+        }
+    }
+
+    @Override
+    public BDDBitSet copy() {
+        synchronized (table) {
+            return new BDDBitSet(table, root);
+        }
+    }
+
+    private boolean isSameTable(IBitSet set) {
+        return set instanceof BDDBitSet other && other.table == table;
+    }
+
+    /**
+     * Updates the root of this set.
+     *
+     * @return {@code true} if this set changed.
+     */
+    private boolean update(int newRoot) {
+        boolean changed = newRoot != root;
+        root = newRoot;
+        return changed;
+    }
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    /**
+     * @return {@code true} if fromIndex is valid for the previous-bit queries,
+     * or {@code false} if fromIndex is -1.
+     */
+    private static boolean checkPreviousIndex(int fromIndex) {
+        if (fromIndex < -1) {
+            throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+        }
+        return fromIndex >= 0;
+    }
+}
@@ -0,0 +1,557 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of the nodes of reduced ordered binary decision diagrams (BDDs),
+ * which represent the sets of non-negative integers in {@link BDDBitSet}.
+ * <p>
+ * Each integer is encoded by its {@link #VARS} bits, and the most
+ * significant bit is ordered first, thus the sets of nearby indexes
+ * share their upper nodes. The nodes are hash-consed, so that the same
+ * sub-diagrams are shared among all sets of this table, and equal sets
+ * have the same root node. A node is identified by its index in the table,
+ * and the dead nodes are reclaimed by a mark-and-sweep collection whose
+ * roots are the live {@link BDDBitSet}s of the table. Live nodes never
+ * move, and the collection only runs at the beginning of an operation,
+ * so that the intermediate results of the operation are never reclaimed.
+ * <p>
+ * This class is not thread-safe by itself. All accesses to a table,
+ * including reading the root of a set in the table, must be synchronized
+ * on the table, which is done by {@link BDDBitSet}. Hence, concurrent
+ * operations on the sets of one table are serialized, and the parallel
+ * pointer analysis solver rejects BDD-based points-to sets.
+ */
+public final class BDDNodeTable {
+
+    /**
+     * The terminal node of the empty set.
+     */
+    static final int FALSE = 0;
+
+    /**
+     * The terminal node of the full set.
+     */
+    static final int TRUE = 1;
+
+    /**
+     * Number of variables, i.e., the bits of non-negative {@code int}s.
+     */
+    static final int VARS = 31;
+
+    private static final int FREE = -1;
+
+    private static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * Minimum number of live nodes to trigger a collection.
+     */
+    private static final int MIN_GC_THRESHOLD = 1 << 18;
+
+    /**
+     * Minimum number of registered sets to prune the dead ones.
+     */
+    private static final int MIN_ROOTS_THRESHOLD = 1 << 10;
+
+    // binary operations
+    private static final int AND = 0;
+
+    private static final int OR = 1;
+
+    private static final int DIFF = 2;
+
+    private static final int XOR = 3;
+
+    /**
+     * Variables of the nodes, {@link #VARS} for terminals,
+     * and {@link #FREE} for reclaimed nodes.
+     */
+    private int[] vars;
+
+    private int[] lows;
+
+    private int[] highs;
+
+    /**
+     * Next nodes in the same bucket of the unique table,
+     * or next reclaimed nodes in the free list.
+     */
+    private int[] nexts;
+
+    /**
+     * The unique table which maps (var, low, high) to the nodes.
+     */
+    private int[] buckets;
+
+    /**
+     * Number of nodes that have been allocated, including reclaimed nodes.
+     */
+    private int allocated;
+
+    private int freeList = NONE;
+
+    /**
+     * Number of non-terminal nodes that are not reclaimed.
+     */
+    private int liveNodes;
+
+    private int gcThreshold = MIN_GC_THRESHOLD;
+
+    private int gcCount;
+
+    // direct-mapped cache of the results of binary operations
+    private int[] cacheOps;
+
+    private int[] cacheLefts;
+
+    private int[] cacheRights;
+
+    private int[] cacheResults;
+
+    /**
+     * The sets of this table, whose root nodes are the roots of collections.
+     */
+    private final List<WeakReference<BDDBitSet>> roots = new ArrayList<>();
+
+    private int rootsThreshold = MIN_ROOTS_THRESHOLD;
+
+    public BDDNodeTable() {
+        vars = new int[INITIAL_CAPACITY];
+        lows = new int[INITIAL_CAPACITY];
+        highs = new int[INITIAL_CAPACITY];
+        nexts = new int[INITIAL_CAPACITY];
+        buckets = new int[INITIAL_CAPACITY];
+        Arrays.fill(buckets, NONE);
+        vars[FALSE] = vars[TRUE] = VARS;
+        allocated = 2;
+        newCache(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return number of live nodes in this table.
+     */
+    public synchronized int getNodeCount() {
+        return liveNodes;
+    }
+
+    /**
+     * @return number of collections that have been run on this table.
+     */
+    public synchronized int getGCCount() {
+        return gcCount;
+    }
+
+    void register(BDDBitSet set) {
+        if (roots.size() >= rootsThreshold) {
+            roots.removeIf(ref -> ref.get() == null);
+            rootsThreshold = Math.max(MIN_ROOTS_THRESHOLD, roots.size() * 2);
+        }
+        roots.add(new WeakReference<>(set));
+    }
+
+    // ------------------------------------------------------------------------
+    // set operations on root nodes
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reclaims the dead nodes if there are too many nodes. This method
+     * should be called before each operation that may create nodes.
+     */
+    void maybeGC() {
+        if (liveNodes >= gcThreshold) {
+            gc();
+            gcThreshold = Math.max(MIN_GC_THRESHOLD, liveNodes * 2);
+        }
+    }
+
+    boolean contains(int node, int index) {
+        while (node > TRUE) {
+            node = bit(index, vars[node]) == 0 ? lows[node] : highs[node];
+        }
+        return node == TRUE;
+    }
+
+    /**
+     * @return the node of the set of given node plus {@code index}.
+     * Only the nodes on the path of {@code index} are rebuilt.
+     */
+    int add(int node, int index) {
+        return update(node, 0, index, TRUE);
+    }
+
+    /**
+     * @return the node of the set of given node minus {@code index}.
+     */
+    int remove(int node, int index) {
+        return update(node, 0, index, FALSE);
+    }
+
+    private int update(int node, int var, int index, int terminal) {
+        if (var == VARS || node == terminal) {
+            return terminal;
+        }
+        int low = low(node, var), high = high(node, var);
+        if (bit(index, var) == 0) {
+            low = update(low, var + 1, index, terminal);
+        } else {
+            high = update(high, var + 1, index, terminal);
+        }
+        return mk(var, low, high);
+    }
+
+    int and(int a, int b) {
+        return apply(AND, a, b);
+    }
+
+    int or(int a, int b) {
+        return apply(OR, a, b);
+    }
+
+    /**
+     * @return the node of set difference {@code a - b}.
+     */
+    int diff(int a, int b) {
+        return apply(DIFF, a, b);
+    }
+
+    int xor(int a, int b) {
+        return apply(XOR, a, b);
+    }
+
+    /**
+     * @return the smallest index on or after {@code from} which is
+     * in (if {@code in} is {@code true}) or not in the set of given node,
+     * or -1 if there is no such index.
+     */
+    int next(int node, int from, boolean in) {
+        return next(node, 0, 0, from, true, in ? TRUE : FALSE);
+    }
+
+    private int next(int node, int var, int prefix, int from,
+                     boolean tight, int target) {
+        if (node == (target ^ 1)) {
+            return -1;
+        }
+        if (node == target) {
+            return tight ? from : prefix;
+        }
+        int low = low(node, var), high = high(node, var);
+        int mask = 1 << (VARS - 1 - var);
+        if (!tight || bit(from, var) == 0) {
+            int result = next(low, var + 1, prefix, from, tight, target);
+            return result >= 0 ? result :
+                    next(high, var + 1, prefix | mask, from, false, target);
+        } else {
+            return next(high, var + 1, prefix | mask, from, true, target);
+        }
+    }
+
+    /**
+     * @return the largest index on or before {@code from} which is
+     * in (if {@code in} is {@code true}) or not in the set of given node,
+     * or -1 if there is no such index.
+     */
+    int previous(int node, int from, boolean in) {
+        return previous(node, 0, 0, from, true, in ? TRUE : FALSE);
+    }
+
+    private int previous(int node, int var, int prefix, int from,
+                         boolean tight, int target) {
+        if (node == (target ^ 1)) {
+            return -1;
+        }
+        if (node == target) {
+            // fill the remaining bits with 1
+            return tight ? from : prefix | ((1 << (VARS - var)) - 1);
+        }
+        int low = low(node, var), high = high(node, var);
+        int mask = 1 << (VARS - 1 - var);
+        if (!tight || bit(from, var) == 1) {
+            int result = previous(high, var + 1, prefix | mask, from, tight, target);
+            return result >= 0 ? result :
+                    previous(low, var + 1, prefix, from, false, target);
+        } else {
+            return previous(low, var + 1, prefix, from, true, target);
+        }
+    }
+
+    /**
+     * Applies action to the indexes in the set of given node
+     * in ascending order.
+     *
+     * @return {@code false} if the action stops the iteration.
+     */
+    boolean iterate(int node, IBitSet.Action<?> action) {
+        return iterate(node, 0, 0, action);
+    }
+
+    private boolean iterate(int node, int var, int prefix, IBitSet.Action<?> action) {
+        if (node == FALSE) {
+            return true;
+        }
+        if (var == VARS) {
+            return action.accept(prefix);
+        }
+        return iterate(low(node, var), var + 1, prefix, action)
+                && iterate(high(node, var), var + 1,
+                prefix | (1 << (VARS - 1 - var)), action);
+    }
+
+    /**
+     * @return number of indexes in the set of given node.
+     */
+    long count(int node) {
+        return count(node, Maps.newMap()) << vars[node];
+    }
+
+    /**
+     * @return number of the satisfying assignments to the variables
+     * from {@code vars[node]}.
+     */
+    private long count(int node, Map<Integer, Long> memo) {
+        if (node <= TRUE) {
+            return node;
+        }
+        Long result = memo.get(node);
+        if (result == null) {
+            int var = vars[node], low = lows[node], high = highs[node];
+            result = (count(low, memo) << (vars[low] - var - 1))
+                    + (count(high, memo) << (vars[high] - var - 1));
+            memo.put(node, result);
+        }
+        return result;
+    }
+
+    // ------------------------------------------------------------------------
+    // node operations
+    // ------------------------------------------------------------------------
+
+    private static int bit(int index, int var) {
+        return (index >>> (VARS - 1 - var)) & 1;
+    }
+
+    /**
+     * @return the low child of node at given variable, where the node
+     * may skip the variable.
+     */
+    private int low(int node, int var) {
+        return vars[node] == var ? lows[node] : node;
+    }
+
+    private int high(int node, int var) {
+        return vars[node] == var ? highs[node] : node;
+    }
+
+    private int apply(int op, int a, int b) {
+        if (a <= TRUE && b <= TRUE) {
+            return switch (op) {
+                case AND -> a & b;
+                case OR -> a | b;
+                case DIFF -> a & ~b;
+                default -> a ^ b;
+            };
+        }
+        switch (op) {
+            case AND -> {
+                if (a == FALSE || b == FALSE) {
+                    return FALSE;
+                }
+                if (a == TRUE || a == b) {
+                    return b;
+                }
+                if (b == TRUE) {
+                    return a;
+                }
+            }
+            case OR -> {
+                if (a == TRUE || b == TRUE) {
+                    return TRUE;
+                }
+                if (a == FALSE || a == b) {
+                    return b;
+                }
+                if (b == FALSE) {
+                    return a;
+                }
+            }
+            case DIFF -> {
+                if (a == FALSE || b == TRUE || a == b) {
+                    return FALSE;
+                }
+                if (b == FALSE) {
+                    return a;
+                }
+            }
+            default -> {
+                if (a == b) {
+                    return FALSE;
+                }
+                if (a == FALSE) {
+                    return b;
+                }
+                if (b == FALSE) {
+                    return a;
+                }
+            }
+        }
+        if (op != DIFF && a > b) { // normalize commutative operations
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int slot = cacheSlot(op, a, b);
+        if (cacheOps[slot] == op && cacheLefts[slot] == a
+                && cacheRights[slot] == b) {
+            return cacheResults[slot];
+        }
+        int var = Math.min(vars[a], vars[b]);
+        int low = apply(op, low(a, var), low(b, var));
+        int high = apply(op, high(a, var), high(b, var));
+        int result = mk(var, low, high);
+        // the cache may be reallocated by mk()
+        slot = cacheSlot(op, a, b);
+        cacheOps[slot] = op;
+        cacheLefts[slot] = a;
+        cacheRights[slot] = b;
+        cacheResults[slot] = result;
+        return result;
+    }
+
+    private int mk(int var, int low, int high) {
+        if (low == high) {
+            return low;
+        }
+        for (int n = buckets[hash(var, low, high) & (buckets.length - 1)];
+             n != NONE; n = nexts[n]) {
+            if (vars[n] == var && lows[n] == low && highs[n] == high) {
+                return n;
+            }
+        }
+        int n = allocate();
+        vars[n] = var;
+        lows[n] = low;
+        highs[n] = high;
+        insert(n);
+        ++liveNodes;
+        return n;
+    }
+
+    private static int hash(int var, int low, int high) {
+        int h = (var * 0x9E3779B1 + low) * 0x9E3779B1 + high;
+        return h ^ (h >>> 16);
+    }
+
+    private void insert(int node) {
+        int bucket = hash(vars[node], lows[node], highs[node])
+                & (buckets.length - 1);
+        nexts[node] = buckets[bucket];
+        buckets[bucket] = node;
+    }
+
+    private int allocate() {
+        if (freeList != NONE) {
+            int n = freeList;
+            freeList = nexts[n];
+            return n;
+        }
+        if (allocated == vars.length) {
+            grow();
+        }
+        return allocated++;
+    }
+
+    private void grow() {
+        int capacity = vars.length * 2;
+        vars = Arrays.copyOf(vars, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        nexts = Arrays.copyOf(nexts, capacity);
+        rehash(capacity);
+        newCache(capacity);
+    }
+
+    private void rehash(int nBuckets) {
+        buckets = new int[nBuckets];
+        Arrays.fill(buckets, NONE);
+        for (int n = TRUE + 1; n < allocated; ++n) {
+            if (vars[n] != FREE) {
+                insert(n);
+            }
+        }
+    }
+
+    private void newCache(int size) {
+        cacheOps = new int[size];
+        Arrays.fill(cacheOps, NONE);
+        cacheLefts = new int[size];
+        cacheRights = new int[size];
+        cacheResults = new int[size];
+    }
+
+    private int cacheSlot(int op, int a, int b) {
+        return hash(op, a, b) & (cacheOps.length - 1);
+    }
+
+    private void gc() {
+        ++gcCount;
+        boolean[] marked = new boolean[allocated];
+        roots.removeIf(ref -> {
+            BDDBitSet set = ref.get();
+            if (set == null) {
+                return true;
+            }
+            mark(set.getRoot(), marked);
+            return false;
+        });
+        freeList = NONE;
+        liveNodes = 0;
+        for (int n = allocated - 1; n > TRUE; --n) {
+            if (marked[n]) {
+                ++liveNodes;
+            } else {
+                vars[n] = FREE;
+                nexts[n] = freeList;
+                freeList = n;
+            }
+        }
+        rehash(buckets.length);
+        // cached results may refer to reclaimed nodes
+        Arrays.fill(cacheOps, NONE);
+    }
+
+    private void mark(int node, boolean[] marked) {
+        if (!marked[node]) {
+            marked[node] = true;
+            mark(lows[node], marked);
+            mark(highs[node], marked);
+        }
+    }
+}
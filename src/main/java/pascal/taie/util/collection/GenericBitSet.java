@@ -59,6 +59,10 @@ public abstract class GenericBitSet<E> extends AbstractSetEx<E> {
         bitSet = IBitSet.newBitSet(isSparse);
     }
 
+    protected GenericBitSet(IBitSet bitSet) {
+        this.bitSet = bitSet;
+    }
+
     @Override
     public boolean contains(Object o) {
         checkInvariant(o);
@@ -26,6 +26,7 @@ import pascal.taie.util.Indexer;
 
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Hybrid set that uses bit set for large set.
@@ -34,21 +35,29 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E> {
 
     private final Indexer<E> indexer;
 
-    private final boolean isSparse;
+    private final Supplier<? extends IBitSet> bitSetFactory;
 
     public HybridBitSet(Indexer<E> indexer, boolean isSparse) {
+        this(indexer, isSparse ? SparseBitSet::new : RegularBitSet::new);
+    }
+
+    /**
+     * @param bitSetFactory creates the bit sets for large sets.
+     */
+    public HybridBitSet(Indexer<E> indexer,
+                        Supplier<? extends IBitSet> bitSetFactory) {
         this.indexer = indexer;
-        this.isSparse = isSparse;
+        this.bitSetFactory = bitSetFactory;
     }
 
     @Override
     protected Set<E> newLargeSet(int unused) {
-        return new IndexerBitSet<>(indexer, isSparse);
+        return new IndexerBitSet<>(indexer, bitSetFactory);
     }
 
     @Override
     public HybridBitSet<E> addAllDiff(Collection<? extends E> c) {
-        HybridBitSet<E> diff = new HybridBitSet<>(indexer, isSparse);
+        HybridBitSet<E> diff = new HybridBitSet<>(indexer, bitSetFactory);
         if (c instanceof HybridBitSet other && other.isLargeSet) {
             //noinspection unchecked
             SetEx<E> otherSet = (SetEx<E>) other.set;
@@ -86,7 +95,7 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E> {
 
     @Override
     public HybridBitSet<E> copy() {
-        HybridBitSet<E> copy = new HybridBitSet<>(indexer, isSparse);
+        HybridBitSet<E> copy = new HybridBitSet<>(indexer, bitSetFactory);
         copy.singleton = singleton;
         copy.isLargeSet = isLargeSet;
         if (set != null) {
@@ -24,6 +24,8 @@ package pascal.taie.util.collection;
 
 import pascal.taie.util.Indexer;
 
+import java.util.function.Supplier;
+
 /**
  * This implementation leverages {@link Indexer} to take care of the mappings
  * between objects and indexes. The indexer itself acts as the context object.
@@ -35,9 +37,24 @@ public class IndexerBitSet<E> extends GenericBitSet<E> {
 
     private final Indexer<E> indexer;
 
+    /**
+     * Creates the underlying bit sets of this set and the new sets.
+     */
+    private final Supplier<? extends IBitSet> bitSetFactory;
+
     public IndexerBitSet(Indexer<E> indexer, boolean isSparse) {
-        super(isSparse);
+        this(indexer, isSparse ? SparseBitSet::new : RegularBitSet::new);
+    }
+
+    /**
+     * @param bitSetFactory creates the underlying bit sets,
+     *                      e.g., {@code RoaringBitSet::new}.
+     */
+    public IndexerBitSet(Indexer<E> indexer,
+                         Supplier<? extends IBitSet> bitSetFactory) {
+        super(bitSetFactory.get());
         this.indexer = indexer;
+        this.bitSetFactory = bitSetFactory;
     }
 
     @Override
@@ -57,6 +74,6 @@ public class IndexerBitSet<E> extends GenericBitSet<E> {
 
     @Override
     protected GenericBitSet<E> newSet() {
-        return new IndexerBitSet<>(indexer, IBitSet.isSparse(bitSet));
+        return new IndexerBitSet<>(indexer, bitSetFactory);
     }
 }
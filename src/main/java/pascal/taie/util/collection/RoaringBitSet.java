@@ -0,0 +1,1186 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bit set in the style of Roaring bitmaps.
+ * <p>
+ * The bit indexes are partitioned into chunks of 2^16 bits by their
+ * high 16 bits, and each non-empty chunk is stored in a container
+ * according to its density: a sorted array of the low 16 bits for sparse
+ * chunks (at most {@link #ARRAY_MAX} bits), or a plain bitmap of
+ * 1024 words for dense chunks. The containers are kept in this canonical
+ * form after each operation, thus big sets with sparse indexes take much
+ * less memory than word-based bit sets, and the bulk operations between
+ * two {@code RoaringBitSet}s (e.g., {@link #or}, {@link #orDiff} and
+ * {@link #and}) work on whole containers.
+ * <p>
+ * See Chambi et al., Better bitmap performance with Roaring bitmaps,
+ * Software: Practice and Experience, 2016.
+ */
+public class RoaringBitSet extends AbstractBitSet {
+
+    /**
+     * Number of bits in each container.
+     */
+    private static final int CONTAINER_SIZE = 1 << 16;
+
+    /**
+     * Maximum cardinality of array containers. Beyond this cardinality,
+     * a bitmap container takes less memory.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    /**
+     * Number of words in each bitmap container.
+     */
+    private static final int BITMAP_WORDS = CONTAINER_SIZE / BITS_PER_WORD;
+
+    /**
+     * High 16 bits of the bit indexes of the containers, in ascending order.
+     */
+    private char[] keys;
+
+    /**
+     * Containers of the bits, and none of them is empty.
+     */
+    private Container[] containers;
+
+    /**
+     * Number of containers.
+     */
+    private int size;
+
+    public RoaringBitSet() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    @Override
+    public boolean set(int bitIndex) {
+        checkIndex(bitIndex);
+        char key = high(bitIndex);
+        int i = search(key);
+        if (i >= 0) {
+            Container c = containers[i];
+            int oldCardinality = c.cardinality;
+            c = c.add(low(bitIndex));
+            containers[i] = c;
+            return c.cardinality != oldCardinality;
+        } else {
+            ArrayContainer c = new ArrayContainer(1);
+            c.add(low(bitIndex));
+            insert(-i - 1, key, c);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean clear(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = search(high(bitIndex));
+        if (i >= 0) {
+            Container c = containers[i];
+            int oldCardinality = c.cardinality;
+            c = c.remove(low(bitIndex));
+            if (c.cardinality == 0) {
+                removeAt(i);
+            } else {
+                containers[i] = c;
+            }
+            return c.cardinality != oldCardinality;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = search(high(bitIndex));
+        return i >= 0 && containers[i].get(low(bitIndex));
+    }
+
+    @Override
+    public void flip(int bitIndex) {
+        if (!set(bitIndex)) {
+            clear(bitIndex);
+        }
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        char key = high(fromIndex);
+        int i = search(key);
+        if (i >= 0) {
+            int low = containers[i].nextSetBit(low(fromIndex));
+            if (low >= 0) {
+                return index(key, low);
+            }
+            ++i;
+        } else {
+            i = -i - 1;
+        }
+        return i < size ? index(keys[i], containers[i].nextSetBit(0)) : -1;
+    }
+
+    @Override
+    public int nextClearBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int index = fromIndex;
+        while (true) {
+            char key = high(index);
+            int i = search(key);
+            if (i < 0) {
+                return index;
+            }
+            int low = containers[i].nextClearBit(low(index));
+            if (low < CONTAINER_SIZE) {
+                return index(key, low);
+            }
+            if (key == high(Integer.MAX_VALUE)) {
+                return -1;
+            }
+            index = index(key + 1, 0);
+        }
+    }
+
+    @Override
+    public int previousSetBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+        }
+        char key = high(fromIndex);
+        int i = search(key);
+        if (i >= 0) {
+            int low = containers[i].previousSetBit(low(fromIndex));
+            if (low >= 0) {
+                return index(key, low);
+            }
+            --i;
+        } else {
+            i = -i - 2;
+        }
+        return i >= 0 ?
+                index(keys[i], containers[i].previousSetBit(CONTAINER_SIZE - 1)) : -1;
+    }
+
+    @Override
+    public int previousClearBit(int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+        }
+        int index = fromIndex;
+        while (true) {
+            char key = high(index);
+            int i = search(key);
+            if (i < 0) {
+                return index;
+            }
+            int low = containers[i].previousClearBit(low(index));
+            if (low >= 0) {
+                return index(key, low);
+            }
+            if (key == 0) {
+                return -1;
+            }
+            index = index(key, 0) - 1;
+        }
+    }
+
+    @Override
+    public boolean intersects(IBitSet set) {
+        if (this == set) {
+            return !isEmpty();
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            return super.intersects(set);
+        }
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                ++i;
+            } else if (keys[i] > other.keys[j]) {
+                ++j;
+            } else {
+                if (containers[i].intersects(other.containers[j])) {
+                    return true;
+                }
+                ++i;
+                ++j;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(IBitSet set) {
+        if (this == set) {
+            return true;
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            return super.contains(set);
+        }
+        int i = 0;
+        for (int j = 0; j < other.size; ++j) {
+            char key = other.keys[j];
+            while (i < size && keys[i] < key) {
+                ++i;
+            }
+            if (i == size || keys[i] != key
+                    || !containers[i].contains(other.containers[j])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean and(IBitSet set) {
+        if (this == set) {
+            return false;
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            throw new UnsupportedOperationException(
+                    String.format("%s does not support AND with %s",
+                            this.getClass(), set.getClass()));
+        }
+        boolean changed = false;
+        int newSize = 0;
+        int j = 0;
+        for (int i = 0; i < size; ++i) {
+            char key = keys[i];
+            while (j < other.size && other.keys[j] < key) {
+                ++j;
+            }
+            Container c = containers[i];
+            if (j < other.size && other.keys[j] == key) {
+                int oldCardinality = c.cardinality;
+                c = c.and(other.containers[j]);
+                changed |= c.cardinality != oldCardinality;
+            } else {
+                c = null;
+                changed = true;
+            }
+            if (c != null && c.cardinality > 0) {
+                keys[newSize] = key;
+                containers[newSize] = c;
+                ++newSize;
+            }
+        }
+        Arrays.fill(containers, newSize, size, null);
+        size = newSize;
+        return changed;
+    }
+
+    @Override
+    public boolean andNot(IBitSet set) {
+        if (this == set) {
+            boolean changed = !isEmpty();
+            clear();
+            return changed;
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            return super.andNot(set);
+        }
+        boolean changed = false;
+        int newSize = 0;
+        int j = 0;
+        for (int i = 0; i < size; ++i) {
+            char key = keys[i];
+            while (j < other.size && other.keys[j] < key) {
+                ++j;
+            }
+            Container c = containers[i];
+            if (j < other.size && other.keys[j] == key) {
+                int oldCardinality = c.cardinality;
+                c = c.andNot(other.containers[j]);
+                changed |= c.cardinality != oldCardinality;
+            }
+            if (c.cardinality > 0) {
+                keys[newSize] = key;
+                containers[newSize] = c;
+                ++newSize;
+            }
+        }
+        Arrays.fill(containers, newSize, size, null);
+        size = newSize;
+        return changed;
+    }
+
+    @Override
+    public boolean or(IBitSet set) {
+        if (this == set) {
+            return false;
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            return super.or(set);
+        }
+        boolean changed = false;
+        for (int j = 0; j < other.size; ++j) {
+            char key = other.keys[j];
+            int i = search(key);
+            if (i >= 0) {
+                Container c = containers[i];
+                int oldCardinality = c.cardinality;
+                c = c.or(other.containers[j]);
+                containers[i] = c;
+                changed |= c.cardinality != oldCardinality;
+            } else {
+                insert(-i - 1, key, other.containers[j].copy());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public IBitSet orDiff(IBitSet set) {
+        if (this == set) {
+            return new RoaringBitSet();
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            return super.orDiff(set);
+        }
+        RoaringBitSet diff = new RoaringBitSet();
+        for (int j = 0; j < other.size; ++j) {
+            char key = other.keys[j];
+            Container otherContainer = other.containers[j];
+            int i = search(key);
+            if (i >= 0) {
+                Container c = containers[i];
+                Container diffContainer = otherContainer.diff(c);
+                if (diffContainer.cardinality > 0) {
+                    containers[i] = c.or(otherContainer);
+                    diff.append(key, diffContainer);
+                }
+            } else {
+                insert(-i - 1, key, otherContainer.copy());
+                diff.append(key, otherContainer.copy());
+            }
+        }
+        return diff;
+    }
+
+    @Override
+    public boolean xor(IBitSet set) {
+        if (this == set) {
+            boolean changed = !isEmpty();
+            clear();
+            return changed;
+        }
+        if (!(set instanceof RoaringBitSet other)) {
+            return super.xor(set);
+        }
+        for (int j = 0; j < other.size; ++j) {
+            char key = other.keys[j];
+            int i = search(key);
+            if (i >= 0) {
+                Container c = containers[i].xor(other.containers[j]);
+                if (c.cardinality == 0) {
+                    removeAt(i);
+                } else {
+                    containers[i] = c;
+                }
+            } else {
+                insert(-i - 1, key, other.containers[j].copy());
+            }
+        }
+        return other.size > 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public <R> R iterateBits(Action<R> action) {
+        for (int i = 0; i < size; ++i) {
+            if (!containers[i].iterate(index(keys[i], 0), action)) {
+                break;
+            }
+        }
+        return action.getResult();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int length() {
+        return size == 0 ? 0 : index(keys[size - 1],
+                containers[size - 1].previousSetBit(CONTAINER_SIZE - 1)) + 1;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) size * CONTAINER_SIZE);
+    }
+
+    @Override
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; ++i) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; ++i) {
+            hash = 31 * hash + keys[i];
+            hash = 31 * hash + containers[i].hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RoaringBitSet that = (RoaringBitSet) o;
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; ++i) {
+            // containers are in canonical form, thus can be compared directly
+            if (keys[i] != that.keys[i]
+                    || !containers[i].equals(that.containers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public RoaringBitSet copy() {
+        RoaringBitSet copy = new RoaringBitSet();
+        copy.keys = Arrays.copyOf(keys, Math.max(size, 1));
+        copy.containers = new Container[copy.keys.length];
+        for (int i = 0; i < size; ++i) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    // ------------------------------------------------------------------------
+    // utility methods
+    // ------------------------------------------------------------------------
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    private static char high(int bitIndex) {
+        return (char) (bitIndex >>> 16);
+    }
+
+    private static int low(int bitIndex) {
+        return bitIndex & (CONTAINER_SIZE - 1);
+    }
+
+    private static int index(int key, int low) {
+        return (key << 16) | low;
+    }
+
+    /**
+     * @return the position of the container of given key, or
+     * {@code (-(insertion point) - 1)} if there is no such container.
+     */
+    private int search(char key) {
+        // fast path for the last container, which is often accessed
+        // as the indexes are usually allocated incrementally
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int i, char key, Container c) {
+        if (size == keys.length) {
+            int newLength = size * 2;
+            keys = Arrays.copyOf(keys, newLength);
+            containers = Arrays.copyOf(containers, newLength);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        ++size;
+    }
+
+    /**
+     * Appends a container whose key is greater than all existing keys.
+     */
+    private void append(char key, Container c) {
+        insert(size, key, c);
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    // ------------------------------------------------------------------------
+    // containers
+    // ------------------------------------------------------------------------
+
+    /**
+     * Container of the low 16 bits of the bit indexes in the same chunk.
+     * The operations that may modify a container return the resulting
+     * container, which may be of a different kind, and whether
+     * the container changed is told by its cardinality.
+     */
+    private abstract static class Container {
+
+        int cardinality;
+
+        abstract boolean get(int x);
+
+        abstract Container add(int x);
+
+        abstract Container remove(int x);
+
+        /**
+         * @return the next set bit on or after x, or -1 if no such bit.
+         */
+        abstract int nextSetBit(int x);
+
+        /**
+         * @return the next clear bit on or after x, or
+         * {@link #CONTAINER_SIZE} if no such bit.
+         */
+        abstract int nextClearBit(int x);
+
+        /**
+         * @return the previous set bit on or before x, or -1 if no such bit.
+         */
+        abstract int previousSetBit(int x);
+
+        /**
+         * @return the previous clear bit on or before x, or -1 if no such bit.
+         */
+        abstract int previousClearBit(int x);
+
+        abstract boolean intersects(Container other);
+
+        /**
+         * @return whether this container contains all bits in other.
+         */
+        abstract boolean contains(Container other);
+
+        abstract Container and(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container xor(Container other);
+
+        /**
+         * @return a new container of the bits in this container but not
+         * in other. This container is not modified.
+         */
+        abstract Container diff(Container other);
+
+        /**
+         * Applies action to the bits in this container, which are offset
+         * by {@code base}.
+         *
+         * @return {@code false} if the action stops the iteration.
+         */
+        abstract boolean iterate(int base, Action<?> action);
+
+        abstract BitmapContainer toBitmap();
+
+        abstract Container copy();
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        /**
+         * Sorted low bits, and only the first {@link #cardinality}
+         * values are valid.
+         */
+        private char[] values;
+
+        private ArrayContainer(int capacity) {
+            values = new char[capacity];
+        }
+
+        private int indexOf(int x) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) x);
+        }
+
+        @Override
+        boolean get(int x) {
+            return indexOf(x) >= 0;
+        }
+
+        @Override
+        Container add(int x) {
+            int i = indexOf(x);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(x);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values,
+                        Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = (char) x;
+            ++cardinality;
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            int i = indexOf(x);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                --cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        int nextSetBit(int x) {
+            int i = indexOf(x);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        int nextClearBit(int x) {
+            int i = indexOf(x);
+            if (i < 0) {
+                return x;
+            }
+            while (i + 1 < cardinality && values[i + 1] == x + 1) {
+                ++i;
+                ++x;
+            }
+            return x + 1;
+        }
+
+        @Override
+        int previousSetBit(int x) {
+            int i = indexOf(x);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return i >= 0 ? values[i] : -1;
+        }
+
+        @Override
+        int previousClearBit(int x) {
+            int i = indexOf(x);
+            if (i < 0) {
+                return x;
+            }
+            while (i > 0 && values[i - 1] == x - 1) {
+                --i;
+                --x;
+            }
+            return x - 1;
+        }
+
+        @Override
+        boolean intersects(Container other) {
+            if (other instanceof ArrayContainer o) {
+                int i = 0, j = 0;
+                while (i < cardinality && j < o.cardinality) {
+                    if (values[i] < o.values[j]) {
+                        ++i;
+                    } else if (values[i] > o.values[j]) {
+                        ++j;
+                    } else {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (int i = 0; i < cardinality; ++i) {
+                if (other.get(values[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean contains(Container other) {
+            if (other.cardinality > cardinality) {
+                return false;
+            }
+            ArrayContainer o = (ArrayContainer) other;
+            int i = 0;
+            for (int j = 0; j < o.cardinality; ++j) {
+                char v = o.values[j];
+                while (i < cardinality && values[i] < v) {
+                    ++i;
+                }
+                if (i == cardinality || values[i] != v) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Container and(Container other) {
+            int n = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (other.get(values[i])) {
+                    values[n++] = values[i];
+                }
+            }
+            cardinality = n;
+            return this;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            int n = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (!other.get(values[i])) {
+                    values[n++] = values[i];
+                }
+            }
+            cardinality = n;
+            return this;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof ArrayContainer o) {
+                if (cardinality + o.cardinality <= ARRAY_MAX) {
+                    return merge(o);
+                }
+            }
+            return toBitmap().or(other);
+        }
+
+        /**
+         * @return union of this container and other, which must not
+         * have more than {@link #ARRAY_MAX} bits.
+         */
+        private ArrayContainer merge(ArrayContainer other) {
+            ArrayContainer result = new ArrayContainer(
+                    cardinality + other.cardinality);
+            char[] merged = result.values;
+            int i = 0, j = 0, n = 0;
+            while (i < cardinality && j < other.cardinality) {
+                char v1 = values[i], v2 = other.values[j];
+                if (v1 < v2) {
+                    merged[n++] = v1;
+                    ++i;
+                } else if (v1 > v2) {
+                    merged[n++] = v2;
+                    ++j;
+                } else {
+                    merged[n++] = v1;
+                    ++i;
+                    ++j;
+                }
+            }
+            while (i < cardinality) {
+                merged[n++] = values[i++];
+            }
+            while (j < other.cardinality) {
+                merged[n++] = other.values[j++];
+            }
+            result.cardinality = n;
+            return result;
+        }
+
+        @Override
+        Container xor(Container other) {
+            return toBitmap().xor(other);
+        }
+
+        @Override
+        Container diff(Container other) {
+            ArrayContainer result = new ArrayContainer(cardinality);
+            int n = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (!other.get(values[i])) {
+                    result.values[n++] = values[i];
+                }
+            }
+            result.cardinality = n;
+            return result;
+        }
+
+        @Override
+        boolean iterate(int base, Action<?> action) {
+            for (int i = 0; i < cardinality; ++i) {
+                if (!action.accept(base | values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; ++i) {
+                char v = values[i];
+                bitmap.words[v >>> ADDRESS_BITS_PER_WORD] |= 1L << v;
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+
+        @Override
+        ArrayContainer copy() {
+            ArrayContainer copy = new ArrayContainer(Math.max(cardinality, 1));
+            System.arraycopy(values, 0, copy.values, 0, cardinality);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < cardinality; ++i) {
+                hash = 31 * hash + values[i];
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArrayContainer that
+                    && cardinality == that.cardinality
+                    && Arrays.equals(values, 0, cardinality,
+                    that.values, 0, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words = new long[BITMAP_WORDS];
+
+        @Override
+        boolean get(int x) {
+            return (words[x >>> ADDRESS_BITS_PER_WORD] & (1L << x)) != 0;
+        }
+
+        @Override
+        Container add(int x) {
+            int w = x >>> ADDRESS_BITS_PER_WORD;
+            long oldWord = words[w];
+            words[w] = oldWord | (1L << x);
+            if (oldWord != words[w]) {
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int x) {
+            int w = x >>> ADDRESS_BITS_PER_WORD;
+            long oldWord = words[w];
+            words[w] = oldWord & ~(1L << x);
+            if (oldWord != words[w]) {
+                --cardinality;
+            }
+            return normalize();
+        }
+
+        @Override
+        int nextSetBit(int x) {
+            int w = x >>> ADDRESS_BITS_PER_WORD;
+            long word = words[w] & (-1L << x);
+            while (true) {
+                if (word != 0) {
+                    return w * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        @Override
+        int nextClearBit(int x) {
+            int w = x >>> ADDRESS_BITS_PER_WORD;
+            long word = ~words[w] & (-1L << x);
+            while (true) {
+                if (word != 0) {
+                    return w * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                }
+                if (++w == BITMAP_WORDS) {
+                    return CONTAINER_SIZE;
+                }
+                word = ~words[w];
+            }
+        }
+
+        @Override
+        int previousSetBit(int x) {
+            int w = x >>> ADDRESS_BITS_PER_WORD;
+            long word = words[w] & (-1L >>> -(x + 1));
+            while (true) {
+                if (word != 0) {
+                    return (w + 1) * BITS_PER_WORD - 1
+                            - Long.numberOfLeadingZeros(word);
+                }
+                if (w-- == 0) {
+                    return -1;
+                }
+                word = words[w];
+            }
+        }
+
+        @Override
+        int previousClearBit(int x) {
+            int w = x >>> ADDRESS_BITS_PER_WORD;
+            long word = ~words[w] & (-1L >>> -(x + 1));
+            while (true) {
+                if (word != 0) {
+                    return (w + 1) * BITS_PER_WORD - 1
+                            - Long.numberOfLeadingZeros(word);
+                }
+                if (w-- == 0) {
+                    return -1;
+                }
+                word = ~words[w];
+            }
+        }
+
+        @Override
+        boolean intersects(Container other) {
+            if (other instanceof BitmapContainer o) {
+                for (int w = 0; w < BITMAP_WORDS; ++w) {
+                    if ((words[w] & o.words[w]) != 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return other.intersects(this);
+        }
+
+        @Override
+        boolean contains(Container other) {
+            if (other instanceof BitmapContainer o) {
+                if (o.cardinality > cardinality) {
+                    return false;
+                }
+                for (int w = 0; w < BITMAP_WORDS; ++w) {
+                    if ((o.words[w] & ~words[w]) != 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            ArrayContainer o = (ArrayContainer) other;
+            for (int i = 0; i < o.cardinality; ++i) {
+                if (!get(o.values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof BitmapContainer o) {
+                int n = 0;
+                for (int w = 0; w < BITMAP_WORDS; ++w) {
+                    words[w] &= o.words[w];
+                    n += Long.bitCount(words[w]);
+                }
+                cardinality = n;
+                return normalize();
+            }
+            // the result is not larger than the other array container
+            return ((ArrayContainer) other).copy().and(this);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            if (other instanceof BitmapContainer o) {
+                int n = 0;
+                for (int w = 0; w < BITMAP_WORDS; ++w) {
+                    words[w] &= ~o.words[w];
+                    n += Long.bitCount(words[w]);
+                }
+                cardinality = n;
+                return normalize();
+            }
+            ArrayContainer o = (ArrayContainer) other;
+            for (int i = 0; i < o.cardinality; ++i) {
+                char v = o.values[i];
+                int w = v >>> ADDRESS_BITS_PER_WORD;
+                long oldWord = words[w];
+                words[w] = oldWord & ~(1L << v);
+                if (oldWord != words[w]) {
+                    --cardinality;
+                }
+            }
+            return normalize();
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer o) {
+                int n = 0;
+                for (int w = 0; w < BITMAP_WORDS; ++w) {
+                    words[w] |= o.words[w];
+                    n += Long.bitCount(words[w]);
+                }
+                cardinality = n;
+                return this;
+            }
+            ArrayContainer o = (ArrayContainer) other;
+            for (int i = 0; i < o.cardinality; ++i) {
+                add(o.values[i]);
+            }
+            // the union of two array containers may be small
+            return normalize();
+        }
+
+        @Override
+        Container xor(Container other) {
+            if (other instanceof BitmapContainer o) {
+                int n = 0;
+                for (int w = 0; w < BITMAP_WORDS; ++w) {
+                    words[w] ^= o.words[w];
+                    n += Long.bitCount(words[w]);
+                }
+                cardinality = n;
+            } else {
+                ArrayContainer o = (ArrayContainer) other;
+                for (int i = 0; i < o.cardinality; ++i) {
+                    char v = o.values[i];
+                    int w = v >>> ADDRESS_BITS_PER_WORD;
+                    long mask = 1L << v;
+                    cardinality += (words[w] & mask) != 0 ? -1 : 1;
+                    words[w] ^= mask;
+                }
+            }
+            return normalize();
+        }
+
+        @Override
+        Container diff(Container other) {
+            BitmapContainer result = copy();
+            return result.andNot(other);
+        }
+
+        @Override
+        boolean iterate(int base, Action<?> action) {
+            for (int w = 0; w < BITMAP_WORDS; ++w) {
+                long word = words[w];
+                while (word != 0) {
+                    int x = w * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                    if (!action.accept(base | x)) {
+                        return false;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Converts this container to an array container
+         * if it is sparse enough.
+         */
+        private Container normalize() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer(Math.max(cardinality, 1));
+            int n = 0;
+            for (int w = 0; w < BITMAP_WORDS; ++w) {
+                long word = words[w];
+                while (word != 0) {
+                    array.values[n++] = (char) (w * BITS_PER_WORD
+                            + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            array.cardinality = n;
+            return array;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        @Override
+        BitmapContainer copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, BITMAP_WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BitmapContainer that
+                    && cardinality == that.cardinality
+                    && Arrays.equals(words, that.words);
+        }
+    }
+}
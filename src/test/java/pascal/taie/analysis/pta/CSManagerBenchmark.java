@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmark of {@link CSManager} implementations, which replays
+ * the lookups of the context-sensitive variables, instance fields and
+ * call sites produced by a pointer analysis on fresh managers.
+ * <p>
+ * The arguments are passed to {@link Main#main(String[])} and must
+ * run pointer analysis, e.g.,
+ * {@code -cp <app.jar> -m <main class> -a pta=cs:2-obj}.
+ */
+public class CSManagerBenchmark {
+
+    private static final int PASSES = 20;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Main.main(args);
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        List<CSVar> csVars = List.copyOf(pta.getCSVars());
+        List<InstanceField> fields = List.copyOf(pta.getInstanceFields());
+        CallGraph<CSCallSite, CSMethod> callGraph = pta.getCSCallGraph();
+        List<CSCallSite> callSites = callGraph.reachableMethods()
+                .flatMap(callGraph::callSitesIn)
+                .toList();
+        System.out.printf("%d CSVars, %d instance fields, %d CS call sites," +
+                        " %d passes per round%n",
+                csVars.size(), fields.size(), callSites.size(), PASSES);
+        for (int round = 1; round <= ROUNDS; ++round) {
+            System.out.printf("Round %d%n", round);
+            run("map", MapBasedCSManager::new, csVars, fields, callSites);
+            run("array", ArrayBasedCSManager::new, csVars, fields, callSites);
+        }
+    }
+
+    private static void run(String name, Supplier<CSManager> supplier,
+                            List<CSVar> csVars, List<InstanceField> fields,
+                            List<CSCallSite> callSites) {
+        long start = System.nanoTime();
+        CSManager csManager = supplier.get();
+        // the first pass creates the elements
+        CSObj[] bases = new CSObj[fields.size()];
+        for (int i = 0; i < bases.length; ++i) {
+            CSObj base = fields.get(i).getBase();
+            bases[i] = csManager.getCSObj(base.getContext(), base.getObject());
+        }
+        int hash = lookup(csManager, csVars, fields, bases, callSites);
+        double creation = (System.nanoTime() - start) / 1_000_000.0;
+        start = System.nanoTime();
+        for (int pass = 0; pass < PASSES; ++pass) {
+            hash += lookup(csManager, csVars, fields, bases, callSites);
+        }
+        double lookups = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("  %-6s creation %10.2f ms, lookups %10.2f ms (%d)%n",
+                name, creation, lookups, hash);
+    }
+
+    private static int lookup(CSManager csManager, List<CSVar> csVars,
+                              List<InstanceField> fields, CSObj[] bases,
+                              List<CSCallSite> callSites) {
+        int hash = 0;
+        for (CSVar csVar : csVars) {
+            hash += csManager.getCSVar(csVar.getContext(), csVar.getVar())
+                    .getIndex();
+        }
+        for (int i = 0; i < bases.length; ++i) {
+            hash += csManager.getInstanceField(bases[i], fields.get(i).getField())
+                    .getIndex();
+        }
+        for (CSCallSite csCallSite : callSites) {
+            hash += csManager.getCSCallSite(csCallSite.getContext(),
+                    csCallSite.getCallSite()).hashCode();
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.StmtResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.client.MayFailCast;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.demand.DemandPointerAnalysis;
+import pascal.taie.analysis.pta.demand.PointsToQueryEngine;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tests demand-driven pointer analysis. Its answers are expected to
+ * cover the results of whole-program context-insensitive analysis.
+ */
+public class DemandPointerAnalysisTest {
+
+    private static final String CLASS_PATH = "src/test/resources/pta/basic";
+
+    @Test
+    public void testPointsToSets() {
+        for (String main : new String[]{"Assign", "Array", "CallParamRet",
+                "Cast", "Cycle", "Dispatch", "InstanceField", "LinkedQueue",
+                "StaticField"}) {
+            PointsToQueryEngine engine = run(main, "budget:100000");
+            checkPointsToSets(engine);
+            Assert.assertEquals(0, engine.getNumberOfExhaustedQueries());
+        }
+    }
+
+    @Test
+    public void testCache() {
+        PointsToQueryEngine engine = run("InstanceField", "budget:100000");
+        checkPointsToSets(engine);
+        int nQueries = engine.getNumberOfQueries();
+        int nCacheHits = engine.getNumberOfCacheHits();
+        checkPointsToSets(engine);
+        Assert.assertEquals(engine.getNumberOfQueries() - nQueries,
+                engine.getNumberOfCacheHits() - nCacheHits);
+    }
+
+    @Test
+    public void testBudget() {
+        PointsToQueryEngine engine = run("InstanceField", "budget:1");
+        checkPointsToSets(engine);
+        Assert.assertTrue(engine.getNumberOfExhaustedQueries() > 0);
+    }
+
+    @Test
+    public void testMayFailCast() {
+        String main = "Cast";
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", PointerAnalysis.ID + "=implicit-entries:false;only-app:true",
+                "-a", MayFailCast.ID});
+        Set<String> expected = getMayFailCasts(main);
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", CallGraphBuilder.ID + "=algorithm:cha",
+                "-a", DemandPointerAnalysis.ID + "=budget:100000",
+                "-a", MayFailCast.ID + "=demand:true"});
+        // whole-program pointer analysis is not required in demand mode
+        Assert.assertFalse(World.get().hasResult(PointerAnalysis.ID));
+        Set<String> actual = getMayFailCasts(main);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertTrue(actual.containsAll(expected));
+    }
+
+    /**
+     * @return the casts in the methods of given class which are
+     * reported by {@link MayFailCast}.
+     */
+    private static Set<String> getMayFailCasts(String className) {
+        StmtResult<Boolean> result = World.get().getResult(MayFailCast.ID);
+        return World.get().getClassHierarchy()
+                .getClass(className)
+                .getDeclaredMethods()
+                .stream()
+                .flatMap(m -> m.getIR().stmts()
+                        .filter(s -> result.isRelevant(s) && result.getResult(s))
+                        .map(s -> m + "/" + s))
+                .collect(Collectors.toSet());
+    }
+
+    private static PointsToQueryEngine run(String main, String demandOpts) {
+        String[] args = new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", PointerAnalysis.ID + "=implicit-entries:false;only-app:true",
+                "-a", CallGraphBuilder.ID + "=algorithm:cha",
+                "-a", DemandPointerAnalysis.ID + "=" + demandOpts
+        };
+        Main.main(args);
+        return World.get().getResult(DemandPointerAnalysis.ID);
+    }
+
+    /**
+     * Checks that the points-to set of every variable answered by
+     * the engine covers the one computed by whole-program analysis.
+     */
+    private static void checkPointsToSets(PointsToQueryEngine engine) {
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        for (JMethod method : result.getCallGraph()) {
+            if (!method.getDeclaringClass().isApplication()) {
+                continue;
+            }
+            for (Var var : method.getIR().getVars()) {
+                Set<Object> expected = getAllocations(result.getPointsToSet(var));
+                Set<Object> actual = getAllocations(engine.getPointsToSet(var));
+                Assert.assertTrue(var + " in " + method,
+                        actual.containsAll(expected));
+            }
+        }
+    }
+
+    private static Set<Object> getAllocations(Collection<Obj> objs) {
+        return objs.stream()
+                .map(Obj::getAllocation)
+                .filter(alloc -> alloc instanceof New)
+                .collect(Collectors.toSet());
+    }
+}
@@ -31,9 +31,11 @@ import pascal.taie.analysis.pta.core.cs.context.ContextTest;
         ContextTest.class,
         BasicTestFull.class,
         ContextSensitivityTestFull.class,
+        DemandPointerAnalysisTest.class,
         ExceptionTest.class,
         LambdaTest.class,
         ReflectionTest.class,
+        SolverTest.class,
         TaintTest.class,
 })
 public class PTATestSuite {
@@ -0,0 +1,272 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.DefaultSolver;
+import pascal.taie.analysis.pta.core.solver.MidRunCheckpointCopier;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests alternative solver configurations of pointer analysis.
+ * The results are expected to be the same as the default solver.
+ */
+public class SolverTest {
+
+    @Test
+    public void testParallelSolver() {
+        Tests.testPTA("basic", "Cycle", "solver:parallel");
+        Tests.testPTA("basic", "ComplexAssign", "solver:parallel");
+        Tests.testPTA("basic", "Array", "solver:parallel;thread-number:2");
+        Tests.testPTA("contextsensitivity", "TwoObject",
+                "cs:2-obj;solver:parallel");
+    }
+
+    @Test
+    public void testCycleElimination() {
+        Tests.testPTA("basic", "Cycle", "cycle-elimination-interval:1");
+        Tests.testPTA("basic", "Cast", "cycle-elimination-interval:1");
+        Tests.testPTA("basic", "RedBlackBST", "cycle-elimination-interval:10");
+        Tests.testPTA("contextsensitivity", "TwoObject",
+                "cs:2-obj;cycle-elimination-interval:1");
+        Tests.testPTA("basic", "LinkedQueue",
+                "solver:parallel;cycle-elimination-interval:1");
+    }
+
+    @Test
+    public void testVarEquivalence() {
+        String opt = "var-equivalence:true";
+        Tests.testPTA("basic", "Cycle", opt);
+        Tests.testPTA("basic", "InstanceField", opt);
+        Tests.testPTA("basic", "CallParamRet", opt);
+        Tests.testPTA("basic", "LinkedQueue",
+                "solver:parallel;cycle-elimination-interval:1;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoObject", "cs:2-obj;" + opt);
+        // plugins add objects to the bases and arguments of invocations
+        String reflection = "plugins:[pascal.taie.analysis.pta.plugin" +
+                ".reflection.MyReflectionAnalysis];";
+        Tests.testPTA("myreflection", "Basic", reflection + opt);
+        Tests.testPTA("myreflection", "ArgsRefine", reflection + opt);
+        Tests.testPTA("myreflection", "RecvType", reflection + opt);
+        String taint = "taint-config:src/test/resources/pta/taint/taint-config.yml;";
+        Tests.testPTA("taint", "ArgToResult", taint + opt);
+        Tests.testPTA("taint", "BaseToResult", taint + opt);
+        Tests.testPTA("taint", "CSTaint", "cs:1-obj;" + taint + opt);
+    }
+
+    @Test
+    public void testArrayBasedCSManager() {
+        String opt = "cs-manager:array";
+        Tests.testPTA("basic", "Cycle", opt);
+        Tests.testPTA("basic", "InstanceField", opt);
+        Tests.testPTA("basic", "Array", opt);
+        Tests.testPTA("basic", "LinkedQueue", "solver:parallel;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoObject", "cs:2-obj;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoCall", "cs:2-call;" + opt);
+    }
+
+    @Test
+    public void testIntContext() {
+        String opt = "context-factory:int";
+        Tests.testPTA("contextsensitivity", "TwoObject", "cs:2-obj;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoType", "cs:2-type;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoCall", "cs:2-call;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoCall",
+                "cs:2-call;cs-manager:array;" + opt);
+    }
+
+    @Test
+    public void testHashConsing() {
+        String opt = "hash-cons-points-to-sets:true";
+        Tests.testPTA("basic", "Cycle", "cycle-elimination-interval:1;" + opt);
+        Tests.testPTA("basic", "LinkedQueue", "solver:parallel;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoObject", "cs:2-obj;" + opt);
+        Tests.testPTA("contextsensitivity", "TwoType", "cs:2-type;" + opt);
+    }
+
+    @Test
+    public void testPointsToSetBitSets() {
+        for (String bitSet : List.of("roaring", "bdd")) {
+            String opt = "pts-bit-set:" + bitSet;
+            Tests.testPTA("basic", "Cycle", opt);
+            if (!bitSet.equals("bdd")) {
+                Tests.testPTA("basic", "LinkedQueue", "solver:parallel;" + opt);
+            }
+            Tests.testPTA("contextsensitivity", "TwoObject", "cs:2-obj;" + opt);
+            Tests.testPTA("basic", "Cycle", "hash-cons-points-to-sets:true;" + opt);
+        }
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testParallelBDD() {
+        Tests.testPTA("basic", "LinkedQueue", "solver:parallel;pts-bit-set:bdd");
+    }
+
+    @Test
+    public void testWorkListPolicies() {
+        for (String policy : List.of("topo", "lrf")) {
+            String opt = "worklist-policy:" + policy;
+            Tests.testPTA("basic", "Cycle", opt);
+            Tests.testPTA("basic", "LinkedQueue", opt);
+            Tests.testPTA("contextsensitivity", "TwoCall", "cs:2-call;" + opt);
+        }
+    }
+
+    @Test
+    public void testIncremental() throws IOException {
+        testIncremental("Incremental");
+        testIncremental("IncrementalDispatch");
+    }
+
+    /**
+     * Analyzes the new version of given program incrementally from
+     * the checkpoint of its old version, and compares the results
+     * with the ones of analyzing the new version from scratch.
+     */
+    private static void testIncremental(String main) throws IOException {
+        Path dir = Files.createTempDirectory("tai-e-incremental");
+        try {
+            for (String cs : List.of("ci", "2-obj")) {
+                String opt = "cs:" + cs + ";checkpoint-file:"
+                        + dir.resolve(cs + ".ckpt");
+                String file = "action-file:" + dir.resolve(cs + "-expected.txt");
+                // analyze the old version, and the new version from scratch
+                Tests.testPTA(false, "incremental/v1", main, opt);
+                Tests.testPTA(false, "incremental/v2", main,
+                        "cs:" + cs + ";action:dump;" + file);
+                // analyze the new version incrementally from the checkpoint
+                // of the old version, the results are expected to be the same
+                Tests.testPTA(false, "incremental/v2", main,
+                        opt + ";incremental:true;action:compare;" + file);
+            }
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testCheckpoint() throws IOException {
+        Path dir = Files.createTempDirectory("tai-e-checkpoint");
+        try {
+            for (String main : List.of("InstanceField", "Array", "StaticField")) {
+                String opt = "checkpoint-file:" + dir.resolve(main + ".ckpt");
+                Tests.testPTA("basic", main, opt);
+                Tests.testPTA("basic", main, opt + ";resume-from-checkpoint:true");
+            }
+            String opt = "cs:2-obj;checkpoint-file:" + dir.resolve("TwoObject.ckpt");
+            Tests.testPTA("contextsensitivity", "TwoObject", opt);
+            Tests.testPTA("contextsensitivity", "TwoObject",
+                    opt + ";resume-from-checkpoint:true");
+            // resume from the checkpoints written in the middle of analysis
+            String copier = "checkpoint-interval:0;plugins:[pascal.taie" +
+                    ".analysis.pta.core.solver.MidRunCheckpointCopier]";
+            testMidRunCheckpoint("basic", "InstanceField", "", copier, dir);
+            testMidRunCheckpoint("contextsensitivity", "TwoObject",
+                    "cs:2-obj;", copier, dir);
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    private static void testMidRunCheckpoint(
+            String dirName, String main, String opt, String copier, Path dir) {
+        Path file = dir.resolve(main + "-mid.ckpt");
+        Tests.testPTA(dirName, main, opt + copier + ";checkpoint-file:" + file);
+        Path copy = MidRunCheckpointCopier.getCopy(file);
+        assertTrue(Files.exists(copy));
+        Tests.testPTA(dirName, main, opt + "checkpoint-file:" + copy
+                + ";resume-from-checkpoint:true");
+    }
+
+    @Test
+    public void testBudgets() {
+        // the heap used after garbage collection (e.g., during building
+        // the world) always exceeds 1MB, thus methods are demoted
+        testBudgets("contextsensitivity", "TwoObject", "cs:2-obj",
+                "heap-budget:1;demotion-size:1");
+        testBudgets("contextsensitivity", "TwoCall", "cs:2-call",
+                "time-budget:1;heap-budget:1;solver:parallel");
+    }
+
+    /**
+     * Checks that the results of the analysis with given budgets
+     * are less precise than the expected ones, but still sound.
+     */
+    private static void testBudgets(
+            String dir, String main, String cs, String budgets) {
+        Tests.testPTA(dir, main, cs);
+        Map<String, Set<String>> expected = getVarPointsToSets();
+        Tests.testPTA(false, dir, main, cs + ";" + budgets);
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Map<JMethod, Integer> demoted = result.getResult(
+                DefaultSolver.DEMOTED_METHODS, Map.of());
+        assertFalse(demoted.isEmpty());
+        Map<String, Set<String>> given = getVarPointsToSets();
+        expected.forEach((var, objs) -> assertTrue(var + " misses objects",
+                given.getOrDefault(var, Set.of()).containsAll(objs)));
+    }
+
+    /**
+     * @return the context-insensitive points-to sets of the variables
+     * in the results of last pointer analysis.
+     */
+    private static Map<String, Set<String>> getVarPointsToSets() {
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Map<String, Set<String>> pointsToSets = Maps.newMap();
+        for (Var var : result.getVars()) {
+            pointsToSets.put(var.getMethod() + "/" + var.getName(),
+                    result.getPointsToSet(var)
+                            .stream()
+                            .map(Obj::toString)
+                            .collect(Collectors.toSet()));
+        }
+        return pointsToSets;
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
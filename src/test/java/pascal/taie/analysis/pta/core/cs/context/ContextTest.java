@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.core.cs.context;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class ContextTest {
 
@@ -45,6 +46,28 @@ public class ContextTest {
         assertEquals(cde.getParent(), cd);
     }
 
+    @Test
+    public void testIntContext() {
+        testContext(new IntContext.Factory<>());
+    }
+
+    @Test
+    public void testIntContext2() {
+        IntContext.Factory<String> factory = new IntContext.Factory<>();
+        IntContext empty = factory.getEmptyContext();
+        assertEquals(0, empty.getId());
+        Context abc = factory.make("A", "B", "C");
+        assertEquals(3, abc.getLength());
+        assertEquals("B", abc.getElementAt(1));
+        assertEquals("[A, B, C]", abc.toString());
+        Context bcd = factory.append(abc, "D", 3);
+        assertSame(factory.make("B", "C", "D"), bcd);
+        Context cde = factory.append(bcd, "E", 3);
+        assertSame(factory.make("C", "D", "E"), cde);
+        assertSame(factory.make("D", "E"), factory.makeLastK(cde, 2));
+        assertSame(cde, factory.makeLastK(cde, 5));
+    }
+
     private static void testContext(ContextFactory<String> factory) {
         Context a = factory.make("A");
         Context empty1 = factory.getEmptyContext();
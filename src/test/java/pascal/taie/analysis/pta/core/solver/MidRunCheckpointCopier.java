@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Plugin for testing, which keeps a copy of the checkpoint written in
+ * the middle of the analysis. It should be used with checkpoint-interval:0,
+ * so that a checkpoint is written after each work list entry. The copy is
+ * taken while the solver is processing an entry, thus the copied
+ * checkpoint contains a non-empty work list.
+ */
+public class MidRunCheckpointCopier implements Plugin {
+
+    /**
+     * The copy is taken at this new points-to set of variables.
+     */
+    private static final int COPY_AT = 10;
+
+    private Solver solver;
+
+    private int count = 0;
+
+    /**
+     * @return the file of the copy of given checkpoint file.
+     */
+    public static Path getCopy(Path checkpointFile) {
+        return checkpointFile.resolveSibling(checkpointFile.getFileName() + ".mid");
+    }
+
+    @Override
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+
+    @Override
+    public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        if (++count == COPY_AT) {
+            Path file = Path.of(solver.getOptions().getString("checkpoint-file"));
+            try {
+                Files.copy(file, getCopy(file), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
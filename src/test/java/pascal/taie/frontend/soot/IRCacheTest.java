@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.soot;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class IRCacheTest {
+
+    private static final String INPUT_CLASSES = "DefaultMethod,Cards,Mahjong";
+
+    @Test
+    public void testIRCache() throws IOException {
+        String expected = buildAndPrintIR();
+        Path dir = Files.createTempDirectory("ir-cache");
+        try {
+            // the first build writes the cache
+            assertEquals(expected, buildAndPrintIR("--ir-cache", dir.toString()));
+            List<Path> files = listFiles(dir);
+            assertFalse(files.isEmpty());
+            // the second build reads the cache
+            assertEquals(expected, buildAndPrintIR("--ir-cache", dir.toString()));
+            // truncated cache files are discarded
+            for (Path file : files) {
+                byte[] content = Files.readAllBytes(file);
+                Files.write(file, Arrays.copyOf(content, content.length / 2));
+            }
+            assertEquals(expected, buildAndPrintIR("--ir-cache", dir.toString()));
+        } finally {
+            World.reset(); // close the cache before deleting its files
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the world and prints IR of all methods
+     * in the application classes.
+     */
+    private static String buildAndPrintIR(String... options) {
+        Main.buildWorld(Stream.concat(
+                Stream.of("-pp", "-cp", "src/test/resources/world",
+                        "--input-classes", INPUT_CLASSES),
+                Stream.of(options)).toArray(String[]::new));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream printer = new PrintStream(out);
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .sorted(Comparator.comparing(JClass::getName))
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .sorted(Comparator.comparing(JMethod::toString))
+                .forEach(m -> IRPrinter.print(m.getIR(), printer));
+        return out.toString();
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+}
@@ -25,12 +25,30 @@ package pascal.taie.frontend.soot;
 import org.junit.Test;
 import pascal.taie.Main;
 import pascal.taie.World;
+import pascal.taie.ir.DefUseIndex;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.IRReader;
+import pascal.taie.ir.IRWriter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class IRTest {
 
@@ -67,4 +85,96 @@ public class IRTest {
             System.out.println("--------------------");
         });
     }
+
+    @Test
+    public void testDefUseIndex() {
+        targets.forEach(main -> {
+            buildWorld(main);
+            JClass mainClass = World.get().getClassHierarchy().getClass(main);
+            mainClass.getDeclaredMethods().forEach(m -> {
+                IR ir = m.getIR();
+                DefUseIndex index = ir.getDefUseIndex();
+                assertSame(index, ir.getDefUseIndex());
+                ir.forEach(stmt -> {
+                    stmt.getDef().ifPresent(def -> {
+                        if (def instanceof Var var) {
+                            assertTrue(index.getDefs(var).contains(stmt));
+                        }
+                    });
+                    if (stmt instanceof Cast cast) {
+                        assertTrue(index.getCastsOf(cast.getRValue().getValue())
+                                .contains(cast));
+                    }
+                });
+                index.getConstNewArrays().forEach(newArray ->
+                        assertTrue(ir.getStmts().contains(newArray.stmt())));
+            });
+        });
+    }
+
+    @Test
+    public void testPreBuildReachableIR() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "-m", "PreBuildReachable", "--pre-build-ir", "--pre-build-reachable-ir");
+        // record the methods whose IR is built after pre-building
+        Set<JMethod> built = Sets.newSet();
+        pascal.taie.ir.IRBuilder builder = World.get().getIRBuilder();
+        World.get().setIRBuilder(new pascal.taie.ir.IRBuilder() {
+            @Override
+            public IR buildIR(JMethod method) {
+                built.add(method);
+                return builder.buildIR(method);
+            }
+
+            @Override
+            public void buildAll(ClassHierarchy hierarchy) {
+                builder.buildAll(hierarchy);
+            }
+
+            @Override
+            public void buildReachable(ClassHierarchy hierarchy,
+                                       Collection<JMethod> entries) {
+                builder.buildReachable(hierarchy, entries);
+            }
+        });
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List.of("<PreBuildReachable: void main(java.lang.String[])>",
+                "<PreBuildReachable: void callee()>",
+                "<PreBuildReachable$A: void foo()>",
+                "<PreBuildReachable$B: void foo()>",
+                "<PreBuildReachable$B: void bar()>",
+                "<PreBuildReachable$B: void <init>()>",
+                "<java.lang.Object: void <init>()>").forEach(sig -> {
+            JMethod method = hierarchy.getMethod(sig);
+            assertNotNull(sig, method);
+            assertNotNull(sig, method.getIR());
+        });
+        assertTrue(built.isEmpty());
+        JMethod unreachable = hierarchy.getMethod(
+                "<PreBuildReachable: void unreachable()>");
+        unreachable.getIR();
+        assertEquals(Set.of(unreachable), built);
+    }
+
+    @Test
+    public void testIRReadWrite() {
+        targets.forEach(main -> {
+            buildWorld(main);
+            IRReader reader = new IRReader(
+                    World.get().getClassHierarchy().getDefaultClassLoader(),
+                    World.get().getTypeSystem());
+            JClass mainClass = World.get().getClassHierarchy().getClass(main);
+            mainClass.getDeclaredMethods().forEach(m -> {
+                IR ir = m.getIR();
+                IR copy = reader.read(m, ByteBuffer.wrap(IRWriter.write(ir)));
+                assertEquals(toString(ir), toString(copy));
+            });
+        });
+    }
+
+    private static String toString(IR ir) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IRPrinter.print(ir, new PrintStream(out));
+        return out.toString();
+    }
 }
@@ -30,14 +30,19 @@ import pascal.taie.World;
 import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.proginfo.FieldResolutionFailedException;
 import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.MethodIndex;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static pascal.taie.language.type.PrimitiveType.BOOLEAN;
 import static pascal.taie.language.type.PrimitiveType.INT;
@@ -101,6 +106,24 @@ public class HierarchyTest {
         expectedNotSubclass(D, C);
     }
 
+    /**
+     * Test that subclass checking agrees with the subclasses
+     * collected by traversing the hierarchy.
+     */
+    @Test
+    public void testSubclassConsistency() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<JClass> classes = hierarchy.allClasses().toList();
+        hierarchy.applicationClasses().forEach(sup -> {
+            Collection<JClass> subclasses = hierarchy.getAllSubclassesOf(sup);
+            for (JClass sub : classes) {
+                Assert.assertEquals(sup + " <- " + sub,
+                        subclasses.contains(sub),
+                        hierarchy.isSubclass(sup, sub));
+            }
+        });
+    }
+
     private static void expectedSubclass(String sup, String sub) {
         JClass superclass = getClass(sup);
         JClass subclass = getClass(sub);
@@ -299,4 +322,69 @@ public class HierarchyTest {
         return World.get().getClassHierarchy()
                 .getAllSubclassesOf(jclass);
     }
+
+    // ---------- Test dispatch tables buildDispatchTables()  ----------
+
+    /**
+     * Test that the dispatches on dispatch tables agree with
+     * the dispatches by method lookups.
+     */
+    @Test
+    public void testDispatchTables() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<JClass> receivers = hierarchy.applicationClasses().toList();
+        List<MethodRef> refs = Stream.concat(hierarchy.applicationClasses(),
+                        Stream.of(getClass("java.lang.Object")))
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .map(JMethod::getRef)
+                .toList();
+        List<JMethod> expected = new ArrayList<>();
+        for (JClass receiver : receivers) {
+            for (MethodRef ref : refs) {
+                expected.add(hierarchy.dispatch(receiver, ref));
+            }
+        }
+        hierarchy.buildDispatchTables();
+        int i = 0;
+        for (JClass receiver : receivers) {
+            for (MethodRef ref : refs) {
+                Assert.assertEquals(receiver + " " + ref,
+                        expected.get(i++), hierarchy.dispatch(receiver, ref));
+            }
+        }
+    }
+
+    /**
+     * Tests that the method index finds the same methods
+     * as scanning all classes.
+     */
+    @Test
+    public void testMethodIndex() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        MethodIndex index = hierarchy.getMethodIndex();
+        hierarchy.applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .forEach(method -> {
+                    String name = method.getName();
+                    List<Type> paramTypes = method.getParamTypes();
+                    Assert.assertEquals(hierarchy.allClasses()
+                                    .flatMap(c -> c.getDeclaredMethods().stream())
+                                    .filter(m -> m.getName().equals(name) &&
+                                            m.getParamTypes().equals(paramTypes))
+                                    .toList(),
+                            index.getMethods(name, paramTypes));
+                    Assert.assertEquals(hierarchy.allClasses()
+                                    .flatMap(c -> c.getDeclaredMethods().stream())
+                                    .filter(m -> m.getParamTypes().equals(paramTypes))
+                                    .toList(),
+                            index.getMethods(paramTypes));
+                    Assert.assertEquals(hierarchy.allClasses()
+                                    .flatMap(c -> c.getDeclaredMethods().stream())
+                                    .filter(m -> m.getName().equals(name))
+                                    .toList(),
+                            index.getMethods(name));
+                    Assert.assertTrue(index.getParamTypes(paramTypes.size())
+                            .contains(paramTypes));
+                });
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Microbenchmark of subclass checking, which compares
+ * {@link ClassHierarchy#isSubclass(JClass, JClass)} with the previous
+ * implementations, i.e., looking up the cached subclass sets, and
+ * traversing the class hierarchy.
+ * <p>
+ * The arguments are passed to {@link Main#buildWorld(String...)}, e.g.,
+ * {@code -java=8 -cp <app.jar> -m <main class>}.
+ */
+public class SubclassBenchmark {
+
+    private static final int QUERIES = 5_000_000;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Main.buildWorld(args);
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClassLoader loader = hierarchy.getBootstrapClassLoader();
+        JClass object = hierarchy.getClass(loader, ClassNames.OBJECT);
+        List<JClass> classes = hierarchy.allClasses().toList();
+        System.out.printf("%d classes, %d queries per round%n",
+                classes.size(), QUERIES);
+        // half of the queries check a class against one of its ancestors
+        Random random = new Random(0);
+        JClass[] sups = new JClass[QUERIES];
+        JClass[] subs = new JClass[QUERIES];
+        for (int i = 0; i < QUERIES; ++i) {
+            JClass sub = classes.get(random.nextInt(classes.size()));
+            List<JClass> ancestors = random.nextBoolean() ?
+                    getAncestors(sub) : List.of();
+            subs[i] = sub;
+            sups[i] = ancestors.isEmpty() ?
+                    classes.get(random.nextInt(classes.size())) :
+                    ancestors.get(random.nextInt(ancestors.size()));
+        }
+        for (int round = 1; round <= ROUNDS; ++round) {
+            System.out.printf("Round %d%n", round);
+            run("encoding", sups, subs, hierarchy::isSubclass);
+            run("subclass-set", sups, subs, (sup, sub) ->
+                    sup.equals(sub) || sup == object ||
+                            hierarchy.getAllSubclassesOf(sup).contains(sub));
+            run("traversal", sups, subs, (sup, sub) ->
+                    sup.equals(sub) || sup == object || traverse(sup, sub));
+        }
+    }
+
+    private interface Query {
+        boolean isSubclass(JClass superclass, JClass subclass);
+    }
+
+    private static void run(String name, JClass[] sups, JClass[] subs,
+                            Query query) {
+        long start = System.nanoTime();
+        int positives = 0;
+        for (int i = 0; i < sups.length; ++i) {
+            if (query.isSubclass(sups[i], subs[i])) {
+                ++positives;
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("  %-12s %10.2f ms (%d subclasses)%n",
+                name, elapsed, positives);
+    }
+
+    private static List<JClass> getAncestors(JClass jclass) {
+        List<JClass> ancestors = new ArrayList<>();
+        List<JClass> workList = new ArrayList<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.remove(workList.size() - 1);
+            if (c.getSuperClass() != null) {
+                ancestors.add(c.getSuperClass());
+                workList.add(c.getSuperClass());
+            }
+            for (JClass iface : c.getInterfaces()) {
+                if (iface != null) {
+                    ancestors.add(iface);
+                    workList.add(iface);
+                }
+            }
+        }
+        return ancestors;
+    }
+
+    /**
+     * The traversal previously in ClassHierarchyImpl.
+     */
+    private static boolean traverse(JClass superclass, JClass subclass) {
+        boolean isToInterface = superclass.isInterface();
+        for (JClass jclass = subclass; jclass != null;
+             jclass = jclass.getSuperClass()) {
+            if (jclass.equals(superclass)) {
+                return true;
+            }
+            if (isToInterface) {
+                for (JClass iface : jclass.getInterfaces()) {
+                    if (traverse(superclass, iface)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
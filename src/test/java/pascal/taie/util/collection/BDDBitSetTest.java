@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BDDBitSetTest extends IBitSetTest {
+
+    private final BDDNodeTable table = new BDDNodeTable();
+
+    @Override
+    protected IBitSet of(int... indexes) {
+        IBitSet result = new BDDBitSet(table);
+        for (int i : indexes) {
+            result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Tests that equal sets share the same diagram.
+     */
+    @Test
+    public void testCanonical() {
+        IBitSet s1 = of(1, 2, 3, 1000000);
+        IBitSet s2 = of(1000000, 3);
+        s2.or(of(2, 1));
+        assertEquals(s1, s2);
+        assertEquals(s1.hashCode(), s2.hashCode());
+        s2.clear(2);
+        assertNotEquals(s1, s2);
+        IBitSet copy = s1.copy();
+        assertTrue(copy.clear(1000000));
+        assertTrue(s1.get(1000000));
+        assertFalse(copy.get(1000000));
+        assertEquals(4, s1.cardinality());
+        assertEquals(3, copy.cardinality());
+    }
+
+    @Test
+    public void testFullRange() {
+        IBitSet s = of(0, Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, s.previousSetBit(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE - 1, s.previousClearBit(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, s.nextSetBit(1));
+        assertEquals(1, s.nextClearBit(0));
+        assertEquals(2, s.cardinality());
+    }
+}
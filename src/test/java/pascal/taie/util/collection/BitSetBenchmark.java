@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Microbenchmark of {@link IBitSet} implementations on the operations
+ * that dominate pointer analysis, i.e., {@link IBitSet#orDiff}
+ * (propagation of points-to sets) and {@link IBitSet#intersects}.
+ * The BDD-based sets of each round share one {@link BDDNodeTable}.
+ * <p>
+ * The bit sets are generated to resemble points-to sets: most of them
+ * are small, and their bits are clustered in a large index space,
+ * which is the case for context-sensitive objects.
+ * The optional arguments are the number of sets and the size of
+ * the index space.
+ */
+public class BitSetBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static final long SEED = 20230101L;
+
+    public static void main(String[] args) {
+        int nSets = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int space = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20;
+        int[][] bits = generate(nSets, space);
+        System.out.printf("%d sets in index space of %d%n", nSets, space);
+        for (int round = 1; round <= ROUNDS; ++round) {
+            System.out.printf("Round %d%n", round);
+            run("sparse", SparseBitSet::new, bits);
+            run("regular", RegularBitSet::new, bits);
+            run("roaring", RoaringBitSet::new, bits);
+            BDDNodeTable table = new BDDNodeTable();
+            run("bdd", () -> new BDDBitSet(table), bits);
+            System.out.printf("  %d live BDD nodes%n", table.getNodeCount());
+        }
+    }
+
+    /**
+     * @return bits of the sets, and sizes of the sets follow
+     * a heavy-tailed distribution.
+     */
+    private static int[][] generate(int nSets, int space) {
+        Random random = new Random(SEED);
+        int[][] bits = new int[nSets][];
+        for (int i = 0; i < nSets; ++i) {
+            int size = (int) Math.min(space / 4,
+                    Math.pow(2, random.nextDouble() * 14));
+            int cluster = random.nextInt(space);
+            bits[i] = new int[size];
+            for (int j = 0; j < size; ++j) {
+                bits[i][j] = random.nextInt(4) == 0
+                        ? random.nextInt(space)
+                        : (cluster + random.nextInt(1 << 16)) % space;
+            }
+        }
+        return bits;
+    }
+
+    private static void run(String name, Supplier<IBitSet> factory,
+                            int[][] bits) {
+        long start = System.nanoTime();
+        IBitSet[] sets = new IBitSet[bits.length];
+        for (int i = 0; i < sets.length; ++i) {
+            IBitSet set = factory.get();
+            for (int bit : bits[i]) {
+                set.set(bit);
+            }
+            sets[i] = set;
+        }
+        double creation = (System.nanoTime() - start) / 1_000_000.0;
+        // propagate each set to its successor, like a chain of PFG edges
+        start = System.nanoTime();
+        long diffs = 0;
+        for (int i = 0; i < sets.length; ++i) {
+            IBitSet target = sets[(i + 1) % sets.length].copy();
+            diffs += target.orDiff(sets[i]).cardinality();
+        }
+        double orDiff = (System.nanoTime() - start) / 1_000_000.0;
+        start = System.nanoTime();
+        int intersections = 0;
+        for (int i = 0; i < sets.length; ++i) {
+            for (int j = 1; j <= 8; ++j) {
+                if (sets[i].intersects(sets[(i + j * 7919) % sets.length])) {
+                    ++intersections;
+                }
+            }
+        }
+        double intersects = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("  %-8s creation %9.2f ms, orDiff %9.2f ms (%d)," +
+                        " intersects %9.2f ms (%d)%n",
+                name, creation, orDiff, diffs, intersects, intersections);
+    }
+}
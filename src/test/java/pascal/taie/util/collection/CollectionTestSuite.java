@@ -27,6 +27,7 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+        BDDBitSetTest.class,
         GenericBitSetTest.class,
         ArraySetTest.class,
         ArrayMapTest.class,
@@ -35,6 +36,7 @@ import org.junit.runners.Suite;
         IndexMapTest.class,
         MultiMapTest.class,
         RegularBitSetTest.class,
+        RoaringBitSetTest.class,
         SetQueueTest.class,
         SparseBitSetTest.class,
         StreamsTest.class,
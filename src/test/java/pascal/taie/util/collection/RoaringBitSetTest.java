@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoaringBitSetTest extends IBitSetTest {
+
+    @Override
+    protected IBitSet of(int... indexes) {
+        IBitSet result = new RoaringBitSet();
+        for (int i : indexes) {
+            result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Tests the conversions between array and bitmap containers.
+     */
+    @Test
+    public void testContainerConversion() {
+        IBitSet s = of();
+        for (int i = 0; i < 10000; i += 2) {
+            assertTrue(s.set(i));
+        }
+        assertEquals(5000, s.cardinality());
+        for (int i = 0; i < 10000; i += 4) {
+            assertTrue(s.clear(i));
+        }
+        assertEquals(2500, s.cardinality());
+        assertTrue(s.get(2));
+        assertFalse(s.get(4));
+        assertEquals(6, s.nextSetBit(3));
+        assertEquals(9998, s.previousSetBit(70000));
+        IBitSet s2 = of();
+        for (int i = 2; i < 10000; i += 4) {
+            s2.set(i);
+        }
+        assertEquals(s2, s);
+        assertEquals(s2.hashCode(), s.hashCode());
+    }
+
+    @Test
+    public void testOrDiffContainers() {
+        IBitSet s1 = of(1, 65536, 65537, 200000);
+        IBitSet s2 = of();
+        for (int i = 0; i < 5000; ++i) {
+            s2.set(65536 + i);
+        }
+        s2.set(200000);
+        IBitSet diff = s1.orDiff(s2);
+        assertEquals(4998, diff.cardinality());
+        assertFalse(diff.get(65537));
+        assertFalse(diff.get(200000));
+        assertEquals(5002, s1.cardinality());
+        assertTrue(s1.contains(s2));
+        assertTrue(s1.intersects(diff));
+    }
+}
@@ -0,0 +1,41 @@
+class Incremental {
+
+    public static void main(String[] args) {
+        Box box1 = new Box();
+        box1.set(new A());
+        Box box2 = new Box();
+        box2.set(id(new B()));
+        Object o1 = box1.get();
+        Object o2 = box2.get();
+        Holder.h = o2;
+        Object o3 = Holder.h;
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+}
+
+class Box {
+
+    Object f;
+
+    void set(Object o) {
+        this.f = o;
+    }
+
+    Object get() {
+        return this.f;
+    }
+}
+
+class Holder {
+
+    static Object h;
+}
+
+class A {
+}
+
+class B {
+}
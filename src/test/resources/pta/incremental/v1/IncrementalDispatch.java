@@ -0,0 +1,42 @@
+class IncrementalDispatch {
+
+    public static void main(String[] args) {
+        Animal a = new Dog();
+        Object[] arr = new Object[1];
+        arr[0] = a.speak();
+        Object x = arr[0];
+        Object y = feed(a);
+    }
+
+    static Object feed(Animal a) {
+        return a.eat(new Food());
+    }
+}
+
+class Animal {
+
+    Object speak() {
+        return new Object();
+    }
+
+    Object eat(Object o) {
+        return o;
+    }
+}
+
+class Dog extends Animal {
+
+    Object speak() {
+        return new Dog();
+    }
+}
+
+class Cat extends Animal {
+
+    Object speak() {
+        return new Cat();
+    }
+}
+
+class Food {
+}
@@ -0,0 +1,28 @@
+public class PreBuildReachable {
+
+    public static void main(String[] args) {
+        A a = new B();
+        a.foo();
+        callee();
+    }
+
+    static void callee() {
+    }
+
+    static void unreachable() {
+    }
+
+    static class A {
+        void foo() {
+        }
+    }
+
+    static class B extends A {
+        void foo() {
+            bar();
+        }
+
+        void bar() {
+        }
+    }
+}